@@ -0,0 +1,125 @@
+package com.rentacar.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.rentacar.bookingservice.business.mappers.BookingMapStructMapper;
+import com.rentacar.bookingservice.business.mappers.BookingMapStructMapperImpl;
+import com.rentacar.bookingservice.business.repository.BookingRepository;
+import com.rentacar.bookingservice.business.repository.model.BookingDAO;
+import com.rentacar.bookingservice.business.service.impl.BookingServiceImpl;
+import com.rentacar.bookingservice.model.Booking;
+import com.rentacar.bookingservice.model.BookingStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Mapping, serialisation and list pipelines of booking-service.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookingBenchmark {
+
+    /** Every user has about this many bookings, so a user's history grows with the list size. */
+    private static final int BOOKINGS_PER_USER = 10;
+
+    private static final LocalDate SEASON_START = LocalDate.parse("2024-06-01");
+
+    @Param({"10", "100", "1000", "10000"})
+    private int size;
+
+    private List<BookingDAO> bookingDAOs;
+
+    private List<Booking> bookings;
+
+    private BookingMapStructMapper mapper;
+
+    private ObjectMapper objectMapper;
+
+    private BookingServiceImpl bookingService;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        BookingStatus[] statuses = BookingStatus.values();
+        int users = Math.max(1, size / BOOKINGS_PER_USER);
+        bookingDAOs = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            LocalDate pickUpDate = SEASON_START.plusDays(random.nextInt(90));
+            bookingDAOs.add(BookingDAO.builder()
+                    .id((long) i + 1)
+                    .userId(1L + random.nextInt(users))
+                    .carId(1L + random.nextInt(500))
+                    .pickUpDate(pickUpDate)
+                    .dropOffDate(pickUpDate.plusDays(random.nextInt(14)))
+                    .status(statuses[random.nextInt(statuses.length)]).build());
+        }
+        Map<Long, List<BookingDAO>> bookingDAOsByUserId = bookingDAOs.stream()
+                .collect(Collectors.groupingBy(BookingDAO::getUserId));
+
+        mapper = new BookingMapStructMapperImpl();
+        bookings = bookingDAOs.stream().map(mapper::bookingDAOToBooking).toList();
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+
+        bookingService = new BookingServiceImpl();
+        bookingService.setBookingMapStructMapper(mapper);
+        bookingService.setBookingRepository(InMemoryRepositories.backedBy(BookingRepository.class, Map.of(
+                "findAll/0", args -> bookingDAOs,
+                "findByUserId/1", args -> bookingDAOsByUserId.getOrDefault((Long) args[0], List.of()))));
+    }
+
+    @Benchmark
+    public List<Booking> bookingDAOToBooking() {
+        List<Booking> mapped = new ArrayList<>(size);
+        for (BookingDAO bookingDAO : bookingDAOs) {
+            mapped.add(mapper.bookingDAOToBooking(bookingDAO));
+        }
+        return mapped;
+    }
+
+    @Benchmark
+    public List<BookingDAO> bookingToBookingDAO() {
+        List<BookingDAO> mapped = new ArrayList<>(size);
+        for (Booking booking : bookings) {
+            mapped.add(mapper.bookingToBookingDAO(booking));
+        }
+        return mapped;
+    }
+
+    @Benchmark
+    public byte[] serializeBookings() throws Exception {
+        return objectMapper.writeValueAsBytes(bookings);
+    }
+
+    @Benchmark
+    public List<Booking> findAllBookings() {
+        return bookingService.findAllBookings();
+    }
+
+    @Benchmark
+    public List<Booking> findBookingsByUserId() {
+        return bookingService.findBookingsByUserId(1L);
+    }
+}
@@ -0,0 +1,121 @@
+package com.rentacar.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.rentacar.carinventory.business.mappers.CarInventoryMapStructMapper;
+import com.rentacar.carinventory.business.mappers.CarInventoryMapStructMapperImpl;
+import com.rentacar.carinventory.business.repository.CarInventoryRepository;
+import com.rentacar.carinventory.business.repository.model.CarDAO;
+import com.rentacar.carinventory.business.service.impl.CarInventoryServiceImpl;
+import com.rentacar.carinventory.model.Car;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapping, serialisation and list pipelines of car-inventory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CarInventoryBenchmark {
+
+    private static final String[] MAKES = {"Skoda", "Toyota", "Volkswagen", "Ford", "Renault"};
+
+    @Param({"10", "100", "1000", "10000"})
+    private int size;
+
+    private List<CarDAO> carDAOs;
+
+    private List<Car> cars;
+
+    private CarInventoryMapStructMapper mapper;
+
+    private ObjectMapper objectMapper;
+
+    private CarInventoryServiceImpl carInventoryService;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        Instant updatedAt = Instant.parse("2024-06-01T10:15:30Z");
+        carDAOs = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            carDAOs.add(CarDAO.builder()
+                    .id((long) i + 1)
+                    .make(MAKES[i % MAKES.length])
+                    .model("Model " + random.nextInt(50))
+                    .gearbox(random.nextBoolean() ? "manual" : "automatic")
+                    .fuel(random.nextBoolean() ? "petrol" : "diesel")
+                    .year(2010 + random.nextInt(15))
+                    .price(20 + random.nextInt(200))
+                    .available(random.nextBoolean())
+                    .version(0L)
+                    .updatedAt(updatedAt).build());
+        }
+        List<CarDAO> availableCarDAOs = carDAOs.stream().filter(CarDAO::isAvailable).toList();
+
+        mapper = new CarInventoryMapStructMapperImpl();
+        cars = carDAOs.stream().map(mapper::carDAOToCar).toList();
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+
+        carInventoryService = new CarInventoryServiceImpl();
+        carInventoryService.setCarInventoryMapStructMapper(mapper);
+        carInventoryService.setCarInventoryRepository(InMemoryRepositories.backedBy(CarInventoryRepository.class, Map.of(
+                "findAll/0", args -> carDAOs,
+                "findByAvailableTrue/0", args -> availableCarDAOs)));
+    }
+
+    @Benchmark
+    public List<Car> carDAOToCar() {
+        List<Car> mapped = new ArrayList<>(size);
+        for (CarDAO carDAO : carDAOs) {
+            mapped.add(mapper.carDAOToCar(carDAO));
+        }
+        return mapped;
+    }
+
+    @Benchmark
+    public List<CarDAO> carToCarDAO() {
+        List<CarDAO> mapped = new ArrayList<>(size);
+        for (Car car : cars) {
+            mapped.add(mapper.carToCarDAO(car));
+        }
+        return mapped;
+    }
+
+    @Benchmark
+    public byte[] serializeCars() throws Exception {
+        return objectMapper.writeValueAsBytes(cars);
+    }
+
+    @Benchmark
+    public List<Car> findAllCars() {
+        return carInventoryService.findAllCars();
+    }
+
+    @Benchmark
+    public List<Car> findAvailableCars() {
+        return carInventoryService.findAvailableCars();
+    }
+}
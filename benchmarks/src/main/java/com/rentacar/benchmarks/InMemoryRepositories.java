@@ -0,0 +1,33 @@
+package com.rentacar.benchmarks;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Stand-ins for the Spring Data repositories, so a benchmark measures the service code and not the database.
+ */
+final class InMemoryRepositories {
+
+    private InMemoryRepositories() {
+    }
+
+    /**
+     * @param queries answers of the repository methods used by the benchmark, keyed by
+     *                {@code <method name>/<parameter count>}; any other method throws
+     *                {@link UnsupportedOperationException}
+     */
+    static <R> R backedBy(Class<R> repositoryType, Map<String, Function<Object[], Object>> queries) {
+        return repositoryType.cast(Proxy.newProxyInstance(repositoryType.getClassLoader(), new Class<?>[]{repositoryType},
+                (proxy, method, args) -> {
+                    if (method.getDeclaringClass() == Object.class) {
+                        return method.invoke(queries, args);
+                    }
+                    Function<Object[], Object> query = queries.get(method.getName() + "/" + method.getParameterCount());
+                    if (query == null) {
+                        throw new UnsupportedOperationException(repositoryType.getSimpleName() + " stand-in has no " + method);
+                    }
+                    return query.apply(args);
+                }));
+    }
+}
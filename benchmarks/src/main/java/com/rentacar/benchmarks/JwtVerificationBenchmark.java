@@ -0,0 +1,89 @@
+package com.rentacar.benchmarks;
+
+import com.rentacar.jwtverification.JwtKeySet;
+import com.rentacar.jwtverification.JwtPrincipal;
+import com.rentacar.jwtverification.JwtVerificationProperties;
+import com.rentacar.jwtverification.JwtVerifier;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.PrivateJwk;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.security.KeyPair;
+import java.security.PrivateKey;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token verification of the jwt-verification module on a single thread, so the scores are verifications
+ * per second per core: a full signature check for every call, and a repeated token answered by the cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(1)
+public class JwtVerificationBenchmark {
+
+    @Param({"EdDSA", "RS256"})
+    private String algorithm;
+
+    private String token;
+
+    private JwtVerifier verifier;
+
+    private JwtVerifier uncachedVerifier;
+
+    @Setup
+    public void setUp() {
+        KeyPair keyPair = "EdDSA".equals(algorithm)
+                ? Jwks.CRV.Ed25519.keyPair().build()
+                : Jwts.SIG.RS256.keyPair().build();
+        PrivateJwk<?, ?, ?> jwk = Jwks.builder().keyPair(keyPair).id("benchmark").build();
+        JwtKeySet jwtKeySet = new JwtKeySet();
+        jwtKeySet.update("{\"keys\":[" + Jwks.json(jwk.toPublicJwk()) + "]}");
+
+        JwtVerificationProperties properties = new JwtVerificationProperties();
+        verifier = new JwtVerifier(jwtKeySet, properties);
+        properties.setVerifiedTokenCacheMaximumSize(0);
+        uncachedVerifier = new JwtVerifier(jwtKeySet, properties);
+
+        Instant now = Instant.now();
+        token = Jwts.builder()
+                .header().keyId(jwk.getId()).and()
+                .claim(JwtVerifier.AUTHORITIES_CLAIM, List.of("USER"))
+                .claim(JwtVerifier.TOKEN_USE_CLAIM, JwtVerifier.ACCESS_TOKEN)
+                .issuer(properties.getIssuer())
+                .subject("user1")
+                .issuedAt(Date.from(now))
+                .expiration(Date.from(now.plus(Duration.ofHours(1))))
+                .signWith((PrivateKey) jwk.toKey())
+                .compact();
+    }
+
+    @Benchmark
+    public JwtPrincipal verifySignature() {
+        return uncachedVerifier.verify(token);
+    }
+
+    @Benchmark
+    public JwtPrincipal verifyRepeatedToken() {
+        return verifier.verify(token);
+    }
+}
@@ -0,0 +1,108 @@
+package com.rentacar.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.rentacar.userservice.business.mappers.UserMapStructMapper;
+import com.rentacar.userservice.business.mappers.UserMapStructMapperImpl;
+import com.rentacar.userservice.business.repository.UserRepository;
+import com.rentacar.userservice.business.repository.model.UserDAO;
+import com.rentacar.userservice.business.service.impl.UserServiceImpl;
+import com.rentacar.userservice.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapping, serialisation and list pipelines of user-service.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    private int size;
+
+    private List<UserDAO> userDAOs;
+
+    private List<User> users;
+
+    private UserMapStructMapper mapper;
+
+    private ObjectMapper objectMapper;
+
+    private UserServiceImpl userService;
+
+    @Setup
+    public void setUp() {
+        Instant updatedAt = Instant.parse("2024-06-01T10:15:30Z");
+        userDAOs = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            userDAOs.add(UserDAO.builder()
+                    .id((long) i + 1)
+                    .username("user" + i)
+                    .password("password" + i)
+                    .firstName("First" + i)
+                    .lastName("Last" + i)
+                    .email("user" + i + "@rentacar.com")
+                    .version(0L)
+                    .updatedAt(updatedAt).build());
+        }
+
+        mapper = new UserMapStructMapperImpl();
+        users = userDAOs.stream().map(mapper::userDAOToUser).toList();
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+
+        userService = new UserServiceImpl();
+        userService.setUserMapStructMapper(mapper);
+        userService.setUserRepository(InMemoryRepositories.backedBy(UserRepository.class, Map.of(
+                "findAll/0", args -> userDAOs)));
+    }
+
+    @Benchmark
+    public List<User> userDAOToUser() {
+        List<User> mapped = new ArrayList<>(size);
+        for (UserDAO userDAO : userDAOs) {
+            mapped.add(mapper.userDAOToUser(userDAO));
+        }
+        return mapped;
+    }
+
+    @Benchmark
+    public List<UserDAO> userToUserDAO() {
+        List<UserDAO> mapped = new ArrayList<>(size);
+        for (User user : users) {
+            mapped.add(mapper.userToUserDAO(user));
+        }
+        return mapped;
+    }
+
+    @Benchmark
+    public byte[] serializeUsers() throws Exception {
+        return objectMapper.writeValueAsBytes(users);
+    }
+
+    @Benchmark
+    public List<User> findAllUsers() {
+        return userService.findAllUsers();
+    }
+}
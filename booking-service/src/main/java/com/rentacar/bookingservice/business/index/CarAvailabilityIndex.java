@@ -0,0 +1,207 @@
+package com.rentacar.bookingservice.business.index;
+
+import com.rentacar.bookingservice.business.repository.BookingRepository;
+import com.rentacar.bookingservice.business.repository.model.BookingDAO;
+import com.rentacar.bookingservice.model.Booking;
+import com.rentacar.bookingservice.model.BookingStatus;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory calendar of the days on which each car is booked.
+ * <p>
+ * Every car has a bitset with one bit per day from the first indexed day, so an overlap check is a single
+ * {@link BitSet#nextSetBit(int)} call and a batch check costs one such call per car. The first indexed day is
+ * a few days before the day of the last rebuild and days before it are dropped, so a bitset only spans the
+ * bookings still ahead and periods starting earlier are not {@link #covers(LocalDate) covered}. Calendars are
+ * never changed once published: writes are serialised, copy the calendar of the affected car and swap it in,
+ * so reads need no locking. The index is built when the application is ready and rebuilt on a fixed delay,
+ * which bounds staleness caused by writes handled by other instances.
+ */
+@Log4j2
+@Component
+public class CarAvailabilityIndex {
+
+    record BookedRange(long carId, LocalDate pickUpDate, LocalDate dropOffDate) {
+    }
+
+    /**
+     * Booked days of one car together with the bookings that occupy them. Bit 0 is {@code firstDay}, kept
+     * with the bits so a reader never pairs them with the first day of another rebuild.
+     */
+    record CarCalendar(LocalDate firstDay, BitSet bookedDays, Map<Long, BookedRange> bookings) {
+    }
+
+    /** Days kept before today, so a request made just before midnight in another time zone is still covered. */
+    static final int PAST_DAYS = 2;
+
+    private BookingRepository bookingRepository;
+
+    /** A lock rather than synchronized, so a virtual thread waiting for a rebuild does not pin its carrier. */
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private volatile Map<Long, CarCalendar> calendarsByCarId = new ConcurrentHashMap<>();
+
+    private volatile Map<Long, Long> carIdsByBookingId = new ConcurrentHashMap<>();
+
+    private volatile LocalDate firstDay = LocalDate.now().minusDays(PAST_DAYS);
+
+    private volatile boolean ready;
+
+    @Autowired
+    public void setBookingRepository(BookingRepository bookingRepository) {
+        this.bookingRepository = bookingRepository;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * @return true if the index is ready and holds every booked day from {@code startDate} on
+     */
+    public boolean covers(LocalDate startDate) {
+        return ready && !startDate.isBefore(firstDay);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${booking-service.availability-index.refresh-interval:PT5M}",
+            initialDelayString = "${booking-service.availability-index.refresh-interval:PT5M}")
+    public void rebuild() {
+        writeLock.lock();
+        try {
+            LocalDate rebuiltFirstDay = LocalDate.now().minusDays(PAST_DAYS);
+            Map<Long, Map<Long, BookedRange>> bookingsByCarId = new HashMap<>();
+            Map<Long, Long> rebuiltCarIds = new ConcurrentHashMap<>();
+            for (BookingDAO bookingDAO : bookingRepository.findCurrentBookings(rebuiltFirstDay)) {
+                if (isIndexable(bookingDAO.getId(), bookingDAO.getCarId(), bookingDAO.getPickUpDate(), bookingDAO.getDropOffDate(), rebuiltFirstDay)) {
+                    BookedRange range = new BookedRange(bookingDAO.getCarId(), bookingDAO.getPickUpDate(), bookingDAO.getDropOffDate());
+                    bookingsByCarId.computeIfAbsent(range.carId(), carId -> new HashMap<>()).put(bookingDAO.getId(), range);
+                    rebuiltCarIds.put(bookingDAO.getId(), range.carId());
+                }
+            }
+            // each bitset is filled once, the calendars are not published until all of them are built
+            Map<Long, CarCalendar> rebuiltCalendars = new ConcurrentHashMap<>();
+            bookingsByCarId.forEach((carId, bookings) -> rebuiltCalendars.put(carId, calendar(rebuiltFirstDay, bookings)));
+            firstDay = rebuiltFirstDay;
+            calendarsByCarId = rebuiltCalendars;
+            carIdsByBookingId = rebuiltCarIds;
+            ready = true;
+            log.info("Car availability index is built. Cars: {}, bookings: {}", rebuiltCalendars.size(), rebuiltCarIds.size());
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Adds the booking or moves it to its current dates. A cancelled booking is removed.
+     */
+    public void upsert(Booking booking) {
+        writeLock.lock();
+        try {
+            remove(booking.getId());
+            if (booking.getStatus() == BookingStatus.CANCELED
+                    || !isIndexable(booking.getId(), booking.getCarId(), booking.getPickUpDate(), booking.getDropOffDate(), firstDay)) {
+                return;
+            }
+            BookedRange range = new BookedRange(booking.getCarId(), booking.getPickUpDate(), booking.getDropOffDate());
+            CarCalendar calendar = calendarsByCarId.get(range.carId());
+            calendarsByCarId.put(range.carId(), calendar == null
+                    ? calendar(firstDay, Map.of(booking.getId(), range))
+                    : withBooking(calendar, booking.getId(), range));
+            carIdsByBookingId.put(booking.getId(), range.carId());
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void remove(Long bookingId) {
+        writeLock.lock();
+        try {
+            Long carId = bookingId == null ? null : carIdsByBookingId.remove(bookingId);
+            if (carId == null) {
+                return;
+            }
+            CarCalendar calendar = calendarsByCarId.get(carId);
+            Map<Long, BookedRange> bookings = new HashMap<>(calendar.bookings());
+            bookings.remove(bookingId);
+            if (bookings.isEmpty()) {
+                calendarsByCarId.remove(carId);
+                return;
+            }
+            // rebuilt from the remaining bookings, so days shared with another booking stay booked
+            calendarsByCarId.put(carId, calendar(calendar.firstDay(), bookings));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * @return true if the car is booked on any day from {@code startDate} to {@code endDate} inclusive
+     */
+    public boolean isBooked(Long carId, LocalDate startDate, LocalDate endDate) {
+        CarCalendar calendar = calendarsByCarId.get(carId);
+        if (calendar == null || endDate.isBefore(calendar.firstDay())) {
+            return false;
+        }
+        int nextBookedDay = calendar.bookedDays().nextSetBit(dayIndex(calendar.firstDay(), startDate));
+        return nextBookedDay >= 0 && nextBookedDay <= dayIndex(calendar.firstDay(), endDate);
+    }
+
+    /**
+     * @return the given cars, in their original order, that are not booked on any day of the period
+     */
+    public Set<Long> findFreeCars(Collection<Long> carIds, LocalDate startDate, LocalDate endDate) {
+        Set<Long> freeCarIds = new LinkedHashSet<>();
+        for (Long carId : carIds) {
+            if (!isBooked(carId, startDate, endDate)) {
+                freeCarIds.add(carId);
+            }
+        }
+        return freeCarIds;
+    }
+
+    private CarCalendar calendar(LocalDate calendarFirstDay, Map<Long, BookedRange> bookings) {
+        BitSet bookedDays = new BitSet();
+        bookings.values().forEach(range -> setDays(bookedDays, calendarFirstDay, range));
+        return new CarCalendar(calendarFirstDay, bookedDays, bookings);
+    }
+
+    private CarCalendar withBooking(CarCalendar calendar, Long bookingId, BookedRange range) {
+        BitSet bookedDays = (BitSet) calendar.bookedDays().clone();
+        setDays(bookedDays, calendar.firstDay(), range);
+        Map<Long, BookedRange> bookings = new HashMap<>(calendar.bookings());
+        bookings.put(bookingId, range);
+        return new CarCalendar(calendar.firstDay(), bookedDays, bookings);
+    }
+
+    private void setDays(BitSet bookedDays, LocalDate calendarFirstDay, BookedRange range) {
+        if (!range.dropOffDate().isBefore(calendarFirstDay)) {
+            bookedDays.set(dayIndex(calendarFirstDay, range.pickUpDate()), dayIndex(calendarFirstDay, range.dropOffDate()) + 1);
+        }
+    }
+
+    private boolean isIndexable(Long bookingId, Long carId, LocalDate pickUpDate, LocalDate dropOffDate, LocalDate indexFirstDay) {
+        return bookingId != null && carId != null && pickUpDate != null && dropOffDate != null
+                && !pickUpDate.isAfter(dropOffDate) && !dropOffDate.isBefore(indexFirstDay);
+    }
+
+    /** Days before the first day of the calendar fall on bit 0, which clips ranges that began earlier. */
+    private int dayIndex(LocalDate calendarFirstDay, LocalDate date) {
+        return Math.toIntExact(Math.max(0, date.toEpochDay() - calendarFirstDay.toEpochDay()));
+    }
+}
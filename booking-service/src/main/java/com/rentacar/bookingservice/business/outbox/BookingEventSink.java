@@ -0,0 +1,15 @@
+package com.rentacar.bookingservice.business.outbox;
+
+import com.rentacar.bookingservice.model.BookingEvent;
+
+import java.util.List;
+
+/**
+ * Destination of published booking events. A call returns normally only once the whole batch has been
+ * accepted; any exception makes the relay send the same batch again later, so consumers must tolerate
+ * events they have already seen.
+ */
+public interface BookingEventSink {
+
+    void publish(List<BookingEvent> events);
+}
@@ -0,0 +1,72 @@
+package com.rentacar.bookingservice.business.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rentacar.bookingservice.business.repository.OutboxEventRepository;
+import com.rentacar.bookingservice.business.repository.model.BookingDAO;
+import com.rentacar.bookingservice.business.repository.model.OutboxEventDAO;
+import com.rentacar.bookingservice.model.BookingEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.UncheckedIOException;
+import java.time.Instant;
+
+/**
+ * Records booking changes in the outbox table. It must be called inside the transaction that makes the
+ * change, so the event is committed or rolled back together with it.
+ */
+@Component
+public class BookingOutbox {
+
+    private OutboxEventRepository outboxEventRepository;
+
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    public void setOutboxEventRepository(OutboxEventRepository outboxEventRepository) {
+        this.outboxEventRepository = outboxEventRepository;
+    }
+
+    @Autowired
+    public void setObjectMapper(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(BookingDAO booking) {
+        Instant now = Instant.now();
+        BookingEvent event = BookingEvent.builder()
+                .bookingId(booking.getId())
+                .userId(booking.getUserId())
+                .carId(booking.getCarId())
+                .pickUpDate(booking.getPickUpDate())
+                .dropOffDate(booking.getDropOffDate())
+                .status(booking.getStatus())
+                .occurredAt(now).build();
+        outboxEventRepository.save(OutboxEventDAO.builder()
+                .bookingId(booking.getId())
+                .payload(write(event))
+                .createdAt(now).build());
+    }
+
+    BookingEvent read(OutboxEventDAO outboxEvent) {
+        try {
+            BookingEvent event = objectMapper.readValue(outboxEvent.getPayload(), BookingEvent.class);
+            event.setEventId(outboxEvent.getId());
+            return event;
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String write(BookingEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.rentacar.bookingservice.business.outbox;
+
+import com.rentacar.bookingservice.model.BookingEvent;
+import com.rentacar.serviceclients.ServiceTokenProvider;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Posts batches of booking events to car-inventory. It is the default sink; setting
+ * {@code booking-service.outbox.sink} to another value switches it off so a different
+ * {@link BookingEventSink}, e.g. one backed by a message broker, can take its place. The events are posted
+ * with the access token of the service account, since car-inventory only accepts them from a service.
+ */
+@Log4j2
+@Component
+@ConditionalOnProperty(name = "booking-service.outbox.sink", havingValue = "http", matchIfMissing = true)
+public class HttpBookingEventSink implements BookingEventSink {
+
+    private RestClient restClient;
+
+    private ServiceTokenProvider serviceTokenProvider;
+
+    /**
+     * The relay holds its lock while a batch is posted, so a car-inventory that does not answer must not
+     * stall it for longer than the timeouts.
+     */
+    @Autowired
+    public void setRestClient(RestClient.Builder restClientBuilder,
+                              @Value("${booking-service.outbox.car-inventory-url}") String carInventoryUrl,
+                              @Value("${booking-service.outbox.connect-timeout:PT1S}") Duration connectTimeout,
+                              @Value("${booking-service.outbox.read-timeout:PT5S}") Duration readTimeout) {
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(HttpClient.newBuilder()
+                .connectTimeout(connectTimeout)
+                .build());
+        requestFactory.setReadTimeout(readTimeout);
+        this.restClient = restClientBuilder.baseUrl(carInventoryUrl).requestFactory(requestFactory).build();
+    }
+
+    @Autowired
+    public void setServiceTokenProvider(ServiceTokenProvider serviceTokenProvider) {
+        this.serviceTokenProvider = serviceTokenProvider;
+    }
+
+    @Override
+    public void publish(List<BookingEvent> events) {
+        restClient.post()
+                .uri("/api/v1/car/booking-events")
+                .contentType(MediaType.APPLICATION_JSON)
+                .headers(headers -> serviceTokenProvider.getAccessToken().ifPresent(headers::setBearerAuth))
+                .body(events)
+                .retrieve()
+                .toBodilessEntity();
+        log.debug("Posted {} booking events to car-inventory", events.size());
+    }
+}
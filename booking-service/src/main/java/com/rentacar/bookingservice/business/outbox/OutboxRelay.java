@@ -0,0 +1,118 @@
+package com.rentacar.bookingservice.business.outbox;
+
+import com.rentacar.bookingservice.business.repository.OutboxEventRepository;
+import com.rentacar.bookingservice.business.repository.model.OutboxEventDAO;
+import com.rentacar.bookingservice.model.BookingEvent;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Publishes outbox rows to the {@link BookingEventSink} in id order and in batches, and marks them as
+ * published once the sink has accepted a batch.
+ * <p>
+ * Delivery is at least once: if the sink fails, or the service stops between publishing and marking, the
+ * same events are sent again on a later run. Another instance may also pick up a batch that is being sent.
+ * Consumers therefore deduplicate by event id.
+ */
+@Log4j2
+@Component
+public class OutboxRelay {
+
+    private final ReentrantLock relayLock = new ReentrantLock();
+
+    private OutboxEventRepository outboxEventRepository;
+
+    private BookingOutbox bookingOutbox;
+
+    private BookingEventSink bookingEventSink;
+
+    private TransactionTemplate transactionTemplate;
+
+    private int batchSize = 100;
+
+    private Duration retention = Duration.ofDays(7);
+
+    @Autowired
+    public void setOutboxEventRepository(OutboxEventRepository outboxEventRepository) {
+        this.outboxEventRepository = outboxEventRepository;
+    }
+
+    @Autowired
+    public void setBookingOutbox(BookingOutbox bookingOutbox) {
+        this.bookingOutbox = bookingOutbox;
+    }
+
+    @Autowired
+    public void setBookingEventSink(BookingEventSink bookingEventSink) {
+        this.bookingEventSink = bookingEventSink;
+    }
+
+    @Autowired
+    public void setTransactionTemplate(TransactionTemplate transactionTemplate) {
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Value("${booking-service.outbox.batch-size:100}")
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    @Value("${booking-service.outbox.retention:P7D}")
+    public void setRetention(Duration retention) {
+        this.retention = retention;
+    }
+
+    /**
+     * Sends batches until the outbox is drained or the sink fails.
+     *
+     * @return number of events published by this run
+     */
+    @Scheduled(fixedDelayString = "${booking-service.outbox.relay-interval:PT1S}")
+    public int relay() {
+        relayLock.lock();
+        try {
+            int published = 0;
+            while (true) {
+                List<OutboxEventDAO> batch = outboxEventRepository.findByPublishedAtIsNullOrderByIdAsc(PageRequest.of(0, batchSize));
+                if (batch.isEmpty()) {
+                    return published;
+                }
+                List<BookingEvent> events = batch.stream().map(bookingOutbox::read).collect(Collectors.toList());
+                try {
+                    bookingEventSink.publish(events);
+                } catch (RuntimeException e) {
+                    log.warn("Publishing {} booking events failed, will retry: {}", events.size(), e.getMessage());
+                    return published;
+                }
+                List<Long> ids = batch.stream().map(OutboxEventDAO::getId).collect(Collectors.toList());
+                transactionTemplate.executeWithoutResult(status -> outboxEventRepository.markPublished(ids, Instant.now()));
+                published += batch.size();
+                log.debug("Published booking events {} to {}", ids.get(0), ids.get(ids.size() - 1));
+                if (batch.size() < batchSize) {
+                    return published;
+                }
+            }
+        } finally {
+            relayLock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${booking-service.outbox.purge-interval:PT1H}",
+            initialDelayString = "${booking-service.outbox.purge-interval:PT1H}")
+    public void purgePublished() {
+        int purged = transactionTemplate.execute(status ->
+                outboxEventRepository.deletePublishedBefore(Instant.now().minus(retention)));
+        log.info("Purged {} published booking events older than {}", purged, retention);
+    }
+}
@@ -0,0 +1,79 @@
+package com.rentacar.bookingservice.business.reference;
+
+import com.rentacar.bookingservice.model.Booking;
+import com.rentacar.serviceclients.CarInventoryClient;
+import com.rentacar.serviceclients.UserServiceClient;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Checks that the user and the car of a booking exist. user-service and car-inventory are asked at the same time,
+ * so the check takes as long as the slower of the two calls. Ids that are not set are not checked.
+ * Switched off with {@code booking-service.reference-validation.enabled=false}.
+ */
+@Log4j2
+@Component
+public class BookingReferenceValidator {
+
+    private UserServiceClient userServiceClient;
+
+    private CarInventoryClient carInventoryClient;
+
+    private boolean enabled = true;
+
+    @Autowired
+    public void setUserServiceClient(UserServiceClient userServiceClient) {
+        this.userServiceClient = userServiceClient;
+    }
+
+    @Autowired
+    public void setCarInventoryClient(CarInventoryClient carInventoryClient) {
+        this.carInventoryClient = carInventoryClient;
+    }
+
+    @Autowired
+    public void setEnabled(@Value("${booking-service.reference-validation.enabled:true}") boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @throws EntityNotFoundException if the user or the car does not exist
+     * @throws RestClientException if user-service or car-inventory could not be asked
+     */
+    public void validate(Booking booking) {
+        if (!enabled) {
+            return;
+        }
+        CompletableFuture<Boolean> carExists = booking.getCarId() == null
+                ? CompletableFuture.completedFuture(true)
+                : CompletableFuture.supplyAsync(() -> carInventoryClient.findCarById(booking.getCarId()).isPresent(),
+                        task -> Thread.ofVirtual().name("car-lookup").start(task));
+        boolean userExists = booking.getUserId() == null
+                || userServiceClient.findUserById(booking.getUserId()).isPresent();
+        if (!join(carExists)) {
+            throw new EntityNotFoundException("Car with id " + booking.getCarId() + " is not found");
+        }
+        if (!userExists) {
+            throw new EntityNotFoundException("User with id " + booking.getUserId() + " is not found");
+        }
+        log.debug("User {} and car {} of the booking exist", booking.getUserId(), booking.getCarId());
+    }
+
+    private boolean join(CompletableFuture<Boolean> lookup) {
+        try {
+            return lookup.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
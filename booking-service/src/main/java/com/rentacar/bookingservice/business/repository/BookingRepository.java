@@ -1,24 +1,101 @@
 package com.rentacar.bookingservice.business.repository;
 
 import com.rentacar.bookingservice.business.repository.model.BookingDAO;
-import com.rentacar.bookingservice.model.Booking;
+import com.rentacar.bookingservice.model.BookingSearchCriteria;
+import com.rentacar.bookingservice.model.BookingStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface BookingRepository extends JpaRepository<BookingDAO, Long> {
+    String CANCELED_STATUS_PARAMETER = ":#{T(com.rentacar.bookingservice.model.BookingStatus).CANCELED}";
+    String EXPORT_FETCH_SIZE = "1000";
+    String MATCHING_CRITERIA = "(:#{#criteria.userId} IS NULL OR b.userId = :#{#criteria.userId}) " +
+            "AND (:#{#criteria.status} IS NULL OR b.status = :#{#criteria.status}) " +
+            "AND (:#{#criteria.pickUpFrom} IS NULL OR b.pickUpDate >= :#{#criteria.pickUpFrom}) " +
+            "AND (:#{#criteria.pickUpTo} IS NULL OR b.pickUpDate <= :#{#criteria.pickUpTo}) ";
+
     List<BookingDAO> findByUserId(Long userId);
 
-    @Query("SELECT b FROM BookingDAO b WHERE b.carId = :carId " +
-            "AND ((b.pickUpDate <= :endDate AND b.dropOffDate >= :startDate) " +
-            "OR (b.pickUpDate BETWEEN :startDate AND :endDate) " +
-            "OR (b.dropOffDate BETWEEN :startDate AND :endDate))")
-    List<BookingDAO> findOverlappingBookings(@Param("carId") Long carId,
-                                             @Param("startDate") LocalDate startDate,
-                                             @Param("endDate") LocalDate endDate);
+    /**
+     * Finds the bookings, other than cancelled ones, that end on or after the given day. Answered from
+     * {@code idx_booking_dropoff}, so the cost follows the bookings still ahead rather than the whole history.
+     */
+    default List<BookingDAO> findCurrentBookings(LocalDate fromDate) {
+        return findByDropOffDateGreaterThanEqualAndStatusNot(fromDate, BookingStatus.CANCELED);
+    }
+
+    List<BookingDAO> findByDropOffDateGreaterThanEqualAndStatusNot(LocalDate fromDate, BookingStatus status);
+
+    /**
+     * Checks whether the car has a booking, other than a cancelled one, whose dates intersect the given
+     * inclusive period. Two periods intersect when each starts no later than the other ends, which covers
+     * every containment case and lets {@code idx_booking_car_dates} answer the probe on its own.
+     */
+    default boolean existsOverlappingBooking(Long carId, LocalDate startDate, LocalDate endDate) {
+        return existsByCarIdAndPickUpDateLessThanEqualAndDropOffDateGreaterThanEqualAndStatusNot(
+                carId, endDate, startDate, BookingStatus.CANCELED);
+    }
+
+    boolean existsByCarIdAndPickUpDateLessThanEqualAndDropOffDateGreaterThanEqualAndStatusNot(
+            Long carId, LocalDate endDate, LocalDate startDate, BookingStatus status);
+
+    /**
+     * Finds, in one query, which of the given cars have a booking other than a cancelled one in the period.
+     */
+    @Query("SELECT DISTINCT b.carId FROM BookingDAO b WHERE b.carId IN :carIds " +
+            "AND b.pickUpDate <= :endDate AND b.dropOffDate >= :startDate " +
+            "AND b.status <> " + CANCELED_STATUS_PARAMETER)
+    List<Long> findBookedCarIds(@Param("carIds") Collection<Long> carIds,
+                                @Param("startDate") LocalDate startDate,
+                                @Param("endDate") LocalDate endDate);
+
+    /**
+     * Moves the booking to the target status only if its current status allows it. The check and the write
+     * are one statement, so of two concurrent transitions of the same booking at most one can apply.
+     *
+     * @return 1 if the booking was moved, 0 if it does not exist or is in a status that can not be left for
+     * the target
+     */
+    default int transitionStatus(Long id, BookingStatus target) {
+        return updateStatus(id, target.getPreviousStatuses(), target);
+    }
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE BookingDAO b SET b.status = :target WHERE b.id = :id AND b.status IN :previousStatuses")
+    int updateStatus(@Param("id") Long id,
+                     @Param("previousStatuses") Collection<BookingStatus> previousStatuses,
+                     @Param("target") BookingStatus target);
+
+    /**
+     * Keyset page of the bookings matching the criteria, ordered by pick-up date and id. Without a cursor the
+     * first page is returned, otherwise the bookings after {@code (afterPickUpDate, afterId)}.
+     */
+    @Query("SELECT b FROM BookingDAO b WHERE " + MATCHING_CRITERIA +
+            "AND (:afterPickUpDate IS NULL OR b.pickUpDate > :afterPickUpDate " +
+            "OR (b.pickUpDate = :afterPickUpDate AND b.id > :afterId)) " +
+            "ORDER BY b.pickUpDate, b.id")
+    Slice<BookingDAO> findBookingsAfter(@Param("criteria") BookingSearchCriteria criteria,
+                                        @Param("afterPickUpDate") LocalDate afterPickUpDate,
+                                        @Param("afterId") Long afterId,
+                                        Pageable pageable);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("SELECT b FROM BookingDAO b WHERE " + MATCHING_CRITERIA + "ORDER BY b.pickUpDate, b.id")
+    Stream<BookingDAO> streamBookings(@Param("criteria") BookingSearchCriteria criteria);
 }
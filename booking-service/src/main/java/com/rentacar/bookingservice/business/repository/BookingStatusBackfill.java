@@ -0,0 +1,75 @@
+package com.rentacar.bookingservice.business.repository;
+
+import com.rentacar.bookingservice.model.BookingStatus;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Fills {@code status_code} of the bookings written before the status was stored as a code.
+ * <p>
+ * Those rows only have the label in the old {@code status} column, and {@code ddl-auto=update} adds
+ * {@code status_code} empty. The overlap check and the availability index skip bookings without a code, so
+ * before this runs a car could be booked twice for the same days. Only rows without a code are touched, so
+ * running it again, or on several instances at once, changes nothing.
+ */
+@Log4j2
+@Component
+// Hibernate adds status_code before it is filled
+@DependsOn("entityManagerFactory")
+public class BookingStatusBackfill {
+
+    static final String LEGACY_STATUS_COLUMN = "status";
+
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public void setJdbcTemplate(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void backfill() {
+        if (!Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) this::hasLegacyStatusColumn))) {
+            log.debug("booking has no legacy status column, nothing to backfill");
+            return;
+        }
+        int updated = jdbcTemplate.update(backfillStatement());
+        if (updated > 0) {
+            log.info("Backfilled status_code of {} bookings from the legacy status column", updated);
+        }
+    }
+
+    static String backfillStatement() {
+        String codes = Arrays.stream(BookingStatus.values())
+                .map(status -> "WHEN '" + status.getLabel() + "' THEN " + status.getCode())
+                .collect(Collectors.joining(" "));
+        String labels = Arrays.stream(BookingStatus.values())
+                .map(status -> "'" + status.getLabel() + "'")
+                .collect(Collectors.joining(", "));
+        return "UPDATE booking SET status_code = CASE " + LEGACY_STATUS_COLUMN + " " + codes + " END " +
+                "WHERE status_code IS NULL AND " + LEGACY_STATUS_COLUMN + " IN (" + labels + ")";
+    }
+
+    private Boolean hasLegacyStatusColumn(Connection connection) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        boolean upperCase = metaData.storesUpperCaseIdentifiers();
+        try (ResultSet columns = metaData.getColumns(connection.getCatalog(), connection.getSchema(),
+                upperCase ? "BOOKING" : "booking",
+                upperCase ? LEGACY_STATUS_COLUMN.toUpperCase(Locale.ROOT) : LEGACY_STATUS_COLUMN)) {
+            return columns.next();
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.rentacar.bookingservice.business.repository;
+
+import com.rentacar.bookingservice.business.repository.model.CarReservationDAO;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CarReservationRepository extends JpaRepository<CarReservationDAO, Long> {
+
+    @Modifying
+    @Query("DELETE FROM CarReservationDAO r WHERE r.bookingId = :bookingId")
+    int deleteByBookingId(@Param("bookingId") Long bookingId);
+}
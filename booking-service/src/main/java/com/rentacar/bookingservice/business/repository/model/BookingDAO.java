@@ -6,6 +6,8 @@ import jakarta.persistence.Table;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Column;
+import jakarta.persistence.Index;
+import com.rentacar.bookingservice.model.BookingStatus;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -18,7 +20,13 @@ import java.time.LocalDate;
 @AllArgsConstructor
 @Entity
 @Builder
-@Table(name = "booking")
+@Table(name = "booking", indexes = {
+        @Index(name = "idx_booking_car_dates_status", columnList = "car_id, pickup_date, dropoff_date, status_code"),
+        @Index(name = "idx_booking_user_pickup", columnList = "user_id, pickup_date"),
+        @Index(name = "idx_booking_pickup", columnList = "pickup_date"),
+        @Index(name = "idx_booking_dropoff", columnList = "dropoff_date"),
+        @Index(name = "idx_booking_status_pickup", columnList = "status_code, pickup_date")
+})
 public class BookingDAO {
 
     @Id
@@ -38,6 +46,6 @@ public class BookingDAO {
     @Column(name = "dropoff_date")
     private LocalDate dropOffDate;
 
-    @Column(name = "status")
-    private String status;
+    @Column(name = "status_code")
+    private BookingStatus status;
 }
@@ -0,0 +1,22 @@
+package com.rentacar.bookingservice.business.repository.model;
+
+import com.rentacar.bookingservice.model.BookingStatus;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Stores {@link BookingStatus} as its one-byte code rather than as text or ordinal.
+ */
+@Converter(autoApply = true)
+public class BookingStatusAttributeConverter implements AttributeConverter<BookingStatus, Byte> {
+
+    @Override
+    public Byte convertToDatabaseColumn(BookingStatus status) {
+        return status == null ? null : status.getCode();
+    }
+
+    @Override
+    public BookingStatus convertToEntityAttribute(Byte code) {
+        return code == null ? null : BookingStatus.fromCode(code);
+    }
+}
@@ -0,0 +1,45 @@
+package com.rentacar.bookingservice.business.repository.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * One day on which a car is held by a booking. The unique key on car and day lets the database reject the
+ * second of two concurrent bookings for the same dates, without locking anything but the reserved days.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Builder
+@Table(name = "car_reservation",
+        uniqueConstraints = @UniqueConstraint(name = "uk_car_reservation_car_day", columnNames = {"car_id", "reserved_date"}),
+        indexes = @Index(name = "idx_car_reservation_booking", columnList = "booking_id"))
+public class CarReservationDAO {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "reservation_id")
+    private Long id;
+
+    @Column(name = "car_id", nullable = false)
+    private Long carId;
+
+    @Column(name = "reserved_date", nullable = false)
+    private LocalDate reservedDate;
+
+    @Column(name = "booking_id", nullable = false)
+    private Long bookingId;
+}
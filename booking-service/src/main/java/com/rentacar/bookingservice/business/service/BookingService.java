@@ -1,10 +1,15 @@
 package com.rentacar.bookingservice.business.service;
 
 import com.rentacar.bookingservice.model.Booking;
+import com.rentacar.bookingservice.model.BookingSearchCriteria;
+import org.springframework.data.domain.Slice;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 public interface BookingService {
     Optional<Booking> findBookingById(Long id);
@@ -13,11 +18,17 @@ public interface BookingService {
 
     List<Booking> findBookingsByUserId(Long userId);
 
+    Slice<Booking> findBookingsAfter(BookingSearchCriteria criteria, LocalDate afterPickUpDate, Long afterId, int size);
+
+    long exportBookings(BookingSearchCriteria criteria, Consumer<Booking> consumer);
+
     Booking cancelBooking(Booking booking);
 
     Booking confirmBooking(Booking booking);
 
-    Booking saveBooking(Booking booking);
+    Optional<Booking> saveBooking(Booking booking);
 
     boolean hasOverlappingBookings(Booking booking);
+
+    Set<Long> findFreeCars(Collection<Long> carIds, LocalDate startDate, LocalDate endDate);
 }
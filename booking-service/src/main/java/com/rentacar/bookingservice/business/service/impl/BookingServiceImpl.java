@@ -1,19 +1,39 @@
 package com.rentacar.bookingservice.business.service.impl;
 
+import com.rentacar.bookingservice.business.index.CarAvailabilityIndex;
 import com.rentacar.bookingservice.business.mappers.BookingMapStructMapper;
+import com.rentacar.bookingservice.business.outbox.BookingOutbox;
 import com.rentacar.bookingservice.business.repository.BookingRepository;
+import com.rentacar.bookingservice.business.repository.CarReservationRepository;
 import com.rentacar.bookingservice.business.repository.model.BookingDAO;
+import com.rentacar.bookingservice.business.repository.model.CarReservationDAO;
 import com.rentacar.bookingservice.business.service.BookingService;
 import com.rentacar.bookingservice.model.Booking;
+import com.rentacar.bookingservice.model.BookingSearchCriteria;
+import com.rentacar.bookingservice.model.BookingStatus;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.rentacar.bookingservice.business.service.impl.TransactionCallbacks.afterCommit;
 
 @Log4j2
 @Service
@@ -23,6 +43,16 @@ public class BookingServiceImpl implements BookingService {
 
     private BookingMapStructMapper bookingMapStructMapper;
 
+    private CarReservationRepository carReservationRepository;
+
+    private TransactionTemplate transactionTemplate;
+
+    private CarAvailabilityIndex carAvailabilityIndex;
+
+    private EntityManager entityManager;
+
+    private BookingOutbox bookingOutbox;
+
     @Autowired
     public void setBookingRepository(BookingRepository bookingRepository) {
         this.bookingRepository = bookingRepository;
@@ -33,6 +63,31 @@ public class BookingServiceImpl implements BookingService {
         this.bookingMapStructMapper = bookingMapStructMapper;
     }
 
+    @Autowired
+    public void setCarReservationRepository(CarReservationRepository carReservationRepository) {
+        this.carReservationRepository = carReservationRepository;
+    }
+
+    @Autowired
+    public void setTransactionTemplate(TransactionTemplate transactionTemplate) {
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Autowired
+    public void setCarAvailabilityIndex(CarAvailabilityIndex carAvailabilityIndex) {
+        this.carAvailabilityIndex = carAvailabilityIndex;
+    }
+
+    @Autowired
+    public void setEntityManager(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Autowired
+    public void setBookingOutbox(BookingOutbox bookingOutbox) {
+        this.bookingOutbox = bookingOutbox;
+    }
+
     @Override
     public Optional<Booking> findBookingById(Long id) {
         Optional<Booking> bookingById = bookingRepository.findById(id)
@@ -59,55 +114,148 @@ public class BookingServiceImpl implements BookingService {
     }
 
     @Override
-    public Booking saveBooking(Booking booking) {
-        booking.setStatus("Pending");
-        BookingDAO bookingDAO = bookingMapStructMapper.bookingToBookingDAO(booking);
-        BookingDAO savedBooking = bookingRepository.save(bookingDAO);
+    public Slice<Booking> findBookingsAfter(BookingSearchCriteria criteria, LocalDate afterPickUpDate, Long afterId, int size) {
+        Slice<BookingDAO> bookingDAOSlice = bookingRepository.findBookingsAfter(
+                criteria, afterPickUpDate, afterId, PageRequest.of(0, size));
+        log.info("Get booking list after {}/{} for {}. Size is: {}",
+                afterPickUpDate, afterId, criteria, bookingDAOSlice.getNumberOfElements());
+        return bookingDAOSlice.map(bookingMapStructMapper::bookingDAOToBooking);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportBookings(BookingSearchCriteria criteria, Consumer<Booking> consumer) {
+        long exported = 0;
+        try (Stream<BookingDAO> bookingDAOStream = bookingRepository.streamBookings(criteria)) {
+            for (BookingDAO bookingDAO : (Iterable<BookingDAO>) bookingDAOStream::iterator) {
+                consumer.accept(bookingMapStructMapper.bookingDAOToBooking(bookingDAO));
+                // keep the persistence context from growing with the size of the history
+                entityManager.detach(bookingDAO);
+                exported++;
+            }
+        }
+        log.info("Exported {} bookings for {}", exported, criteria);
+        return exported;
+    }
+
+    /**
+     * Saves the booking together with one {@link CarReservationDAO} per booked day and its outbox event in a
+     * single transaction.
+     * A concurrent booking of the same car and day fails on the reservation unique key and rolls back, so
+     * the dates are never given out twice, even across several service instances.
+     *
+     * @return the saved booking, or empty if the car is already booked on any of the days
+     */
+    @Override
+    public Optional<Booking> saveBooking(Booking booking) {
+        booking.setStatus(BookingStatus.PENDING);
+        try {
+            return Optional.ofNullable(transactionTemplate.execute(status -> reserveAndSave(booking)));
+        } catch (DataIntegrityViolationException | PessimisticLockingFailureException e) {
+            log.warn("Car {} is already booked between {} and {}",
+                    booking.getCarId(), booking.getPickUpDate(), booking.getDropOffDate());
+            return Optional.empty();
+        }
+    }
+
+    private Booking reserveAndSave(Booking booking) {
+        // bookings made before the reservation table existed have no reservation rows
+        if (bookingRepository.existsOverlappingBooking(booking.getCarId(), booking.getPickUpDate(), booking.getDropOffDate())) {
+            log.warn("Car {} has an overlapping booking between {} and {}",
+                    booking.getCarId(), booking.getPickUpDate(), booking.getDropOffDate());
+            return null;
+        }
+        BookingDAO savedBooking = bookingRepository.save(bookingMapStructMapper.bookingToBookingDAO(booking));
+        List<CarReservationDAO> reservations = booking.getPickUpDate()
+                .datesUntil(booking.getDropOffDate().plusDays(1))
+                .map(day -> CarReservationDAO.builder()
+                        .carId(savedBooking.getCarId())
+                        .reservedDate(day)
+                        .bookingId(savedBooking.getId()).build())
+                .collect(Collectors.toList());
+        carReservationRepository.saveAllAndFlush(reservations);
+        bookingOutbox.append(savedBooking);
         log.info("New booking is saved: {}", savedBooking);
-        return bookingMapStructMapper.bookingDAOToBooking(bookingDAO);
+        Booking result = bookingMapStructMapper.bookingDAOToBooking(savedBooking);
+        afterCommit(() -> carAvailabilityIndex.upsert(result));
+        return result;
     }
 
     @Override
     public boolean hasOverlappingBookings(Booking booking) {
-        List<BookingDAO> overlappingBookings = bookingRepository.findOverlappingBookings(
+        if (carAvailabilityIndex.covers(booking.getPickUpDate())) {
+            return carAvailabilityIndex.isBooked(booking.getCarId(), booking.getPickUpDate(), booking.getDropOffDate());
+        }
+        return bookingRepository.existsOverlappingBooking(
                 booking.getCarId(),
                 booking.getPickUpDate(),
                 booking.getDropOffDate()
         );
-        return !overlappingBookings.isEmpty();
     }
 
+    /**
+     * Answers from the availability index when it covers the period and otherwise with one set-based query. The
+     * caller names the cars, since the fleet is owned by car-inventory and a car that was never booked has no row
+     * here.
+     */
     @Override
-    public Booking cancelBooking(Booking booking) {
-        Long id = booking.getId();
-
-        Optional<BookingDAO> optionalBookingDAO = bookingRepository.findById(id);
-        if (optionalBookingDAO.isEmpty()) {
-            log.error("Booking with id {} not found", id);
-            throw new EntityNotFoundException("Booking not found for id: " + id);
+    public Set<Long> findFreeCars(Collection<Long> carIds, LocalDate startDate, LocalDate endDate) {
+        if (carIds.isEmpty()) {
+            return new LinkedHashSet<>();
         }
+        if (carAvailabilityIndex.covers(startDate)) {
+            return carAvailabilityIndex.findFreeCars(carIds, startDate, endDate);
+        }
+        Set<Long> freeCarIds = new LinkedHashSet<>(carIds);
+        freeCarIds.removeAll(bookingRepository.findBookedCarIds(carIds, startDate, endDate));
+        log.info("Found {} free cars out of {} between {} and {}", freeCarIds.size(), carIds.size(), startDate, endDate);
+        return freeCarIds;
+    }
 
-        BookingDAO existingBookingDAO = optionalBookingDAO.get();
-        existingBookingDAO.setStatus("Canceled");
-        BookingDAO canceledBookingDAO = bookingRepository.save(existingBookingDAO);
+    @Override
+    public Booking cancelBooking(Booking booking) {
+        return transactionTemplate.execute(status -> cancel(booking.getId()));
+    }
+
+    private Booking cancel(Long id) {
+        BookingDAO canceledBookingDAO = transition(id, BookingStatus.CANCELED);
+        bookingOutbox.append(canceledBookingDAO);
+        int releasedDays = carReservationRepository.deleteByBookingId(id);
+        log.debug("Booking with id {} released {} reserved days", id, releasedDays);
         log.info("Booking with id {} canceled: {}", id, canceledBookingDAO);
+        // released only once committed, so a concurrent rebuild can not bring the booking back
+        afterCommit(() -> carAvailabilityIndex.remove(id));
         return bookingMapStructMapper.bookingDAOToBooking(canceledBookingDAO);
     }
 
     @Override
+    @Transactional
     public Booking confirmBooking(Booking booking) {
-        Long id = booking.getId();
+        BookingDAO confirmedBookingDAO = transition(booking.getId(), BookingStatus.CONFIRMED);
+        bookingOutbox.append(confirmedBookingDAO);
+        log.info("Booking with id {} confirmed: {}", booking.getId(), confirmedBookingDAO);
+        Booking confirmedBooking = bookingMapStructMapper.bookingDAOToBooking(confirmedBookingDAO);
+        afterCommit(() -> carAvailabilityIndex.upsert(confirmedBooking));
+        return confirmedBooking;
+    }
 
-        Optional<BookingDAO> optionalBookingDAO = bookingRepository.findById(id);
-        if (optionalBookingDAO.isEmpty()) {
-            log.error("Booking with id {} not found", id);
-            throw new EntityNotFoundException("Booking not found for id: " + id);
+    /**
+     * Moves the booking to the target status with a single conditional update, so the status is never
+     * read and written back by two callers at once.
+     *
+     * @throws EntityNotFoundException if there is no booking with the id
+     * @throws IllegalStateException if the booking is in a status that can not be moved to the target
+     */
+    private BookingDAO transition(Long id, BookingStatus target) {
+        if (bookingRepository.transitionStatus(id, target) == 0) {
+            BookingDAO bookingDAO = bookingRepository.findById(id).orElseThrow(() -> {
+                log.error("Booking with id {} not found", id);
+                return new EntityNotFoundException("Booking not found for id: " + id);
+            });
+            log.warn("Booking with id {} can not move from {} to {}", id, bookingDAO.getStatus(), target);
+            throw new IllegalStateException("Booking " + id + " can not move from " + bookingDAO.getStatus() + " to " + target);
         }
-
-        BookingDAO existingBookingDAO = optionalBookingDAO.get();
-        existingBookingDAO.setStatus("Confirmed");
-        BookingDAO confirmedBookingDAO = bookingRepository.save(existingBookingDAO);
-        log.info("Booking with id {} confirmed: {}", id, confirmedBookingDAO);
-        return bookingMapStructMapper.bookingDAOToBooking(confirmedBookingDAO);
+        return bookingRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Booking not found for id: " + id));
     }
 }
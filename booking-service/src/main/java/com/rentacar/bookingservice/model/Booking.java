@@ -34,6 +34,6 @@ public class Booking {
     @NotNull
     private LocalDate dropOffDate;
 
-    @ApiModelProperty(notes = "Booking status. By default is Pending.")
-    private String status;
+    @ApiModelProperty(notes = "Booking status. By default is Pending.", allowableValues = "Pending, Confirmed, Canceled")
+    private BookingStatus status;
 }
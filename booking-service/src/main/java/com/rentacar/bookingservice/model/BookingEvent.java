@@ -0,0 +1,44 @@
+package com.rentacar.bookingservice.model;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+@ApiModel(description = "State of a booking after it was created, confirmed or canceled")
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+public class BookingEvent {
+
+    @ApiModelProperty(notes = "Unique id of the event. Ids grow with every change, so a consumer can drop " +
+            "an event it has already seen or one older than the last it applied")
+    private Long eventId;
+
+    @ApiModelProperty(notes = "The unique id of the booking")
+    private Long bookingId;
+
+    @ApiModelProperty(notes = "The unique id of the user")
+    private Long userId;
+
+    @ApiModelProperty(notes = "The unique id of the car")
+    private Long carId;
+
+    @ApiModelProperty(notes = "Date when customer receives the car")
+    private LocalDate pickUpDate;
+
+    @ApiModelProperty(notes = "Date when customer returns the car")
+    private LocalDate dropOffDate;
+
+    @ApiModelProperty(notes = "Booking status after the change")
+    private BookingStatus status;
+
+    @ApiModelProperty(notes = "When the change was committed")
+    private Instant occurredAt;
+}
@@ -0,0 +1,33 @@
+package com.rentacar.bookingservice.model;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+@ApiModel(description = "Optional filters for booking history. Filters that are not set are ignored")
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+public class BookingSearchCriteria {
+
+    @ApiModelProperty(notes = "The unique id of the user")
+    private Long userId;
+
+    @ApiModelProperty(notes = "Booking status", allowableValues = "Pending, Confirmed, Canceled")
+    private BookingStatus status;
+
+    @ApiModelProperty(notes = "Earliest pick-up date, inclusive")
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate pickUpFrom;
+
+    @ApiModelProperty(notes = "Latest pick-up date, inclusive")
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate pickUpTo;
+}
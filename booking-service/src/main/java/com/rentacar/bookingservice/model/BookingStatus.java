@@ -0,0 +1,82 @@
+package com.rentacar.bookingservice.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Lifecycle of a booking. A booking starts as {@link #PENDING}, may be confirmed and may be canceled
+ * until it is canceled; every other transition is rejected.
+ * <p>
+ * The code is what gets stored, so it must never change once released. The label is what the API shows.
+ */
+public enum BookingStatus {
+    PENDING((byte) 1, "Pending"),
+    CONFIRMED((byte) 2, "Confirmed"),
+    CANCELED((byte) 3, "Canceled");
+
+    private final byte code;
+
+    private final String label;
+
+    BookingStatus(byte code, String label) {
+        this.code = code;
+        this.label = label;
+    }
+
+    public byte getCode() {
+        return code;
+    }
+
+    @JsonValue
+    public String getLabel() {
+        return label;
+    }
+
+    public boolean canTransitionTo(BookingStatus target) {
+        return switch (this) {
+            case PENDING -> target == CONFIRMED || target == CANCELED;
+            case CONFIRMED -> target == CANCELED;
+            case CANCELED -> false;
+        };
+    }
+
+    /**
+     * @return the statuses a booking may be in to be moved to this one
+     */
+    public Set<BookingStatus> getPreviousStatuses() {
+        Set<BookingStatus> previousStatuses = EnumSet.noneOf(BookingStatus.class);
+        for (BookingStatus status : values()) {
+            if (status.canTransitionTo(this)) {
+                previousStatuses.add(status);
+            }
+        }
+        return previousStatuses;
+    }
+
+    public static BookingStatus fromCode(byte code) {
+        return Arrays.stream(values())
+                .filter(status -> status.code == code)
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown booking status code: " + code));
+    }
+
+    /**
+     * Accepts the label as well as the constant name, in any case.
+     */
+    @JsonCreator
+    public static BookingStatus fromLabel(String label) {
+        return Arrays.stream(values())
+                .filter(status -> status.label.equalsIgnoreCase(label) || status.name().equalsIgnoreCase(label))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown booking status: " + label));
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
@@ -17,4 +17,6 @@ public class HTMLResponseMessages {
             "with already existent data";
     public static final String HTTP_500 = "Unsuccessful request responds with this code. Internal server error. " +
             "Check the response headers for information";
+    public static final String HTTP_503 = "Unsuccessful request responds with this code. A service this request " +
+            "depends on is not available";
 }
@@ -1,22 +1,42 @@
 package com.rentacar.bookingservice.web;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.rentacar.bookingservice.business.reference.BookingReferenceValidator;
 import com.rentacar.bookingservice.business.service.BookingService;
 import com.rentacar.bookingservice.model.Booking;
+import com.rentacar.bookingservice.model.BookingSearchCriteria;
 import com.rentacar.bookingservice.swagger.DescriptionVariables;
 import com.rentacar.bookingservice.swagger.HTMLResponseMessages;
 import io.swagger.annotations.*;
+import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Slice;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.lang.NonNull;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Api(tags = {DescriptionVariables.BOOKING_SERVICE})
 @Log4j2
@@ -25,13 +45,32 @@ import java.util.Optional;
 @RequestMapping("/api/v1/booking")
 public class BookingController {
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+    private static final String CURSOR_SEPARATOR = "_";
+    private static final int MAX_PAGE_SIZE = 100;
+
     private BookingService bookingService;
 
+    private ObjectMapper objectMapper;
+
+    private BookingReferenceValidator bookingReferenceValidator;
+
     @Autowired
     public void setBookingService(BookingService bookingService) {
         this.bookingService = bookingService;
     }
 
+    @Autowired
+    public void setObjectMapper(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Autowired
+    public void setBookingReferenceValidator(BookingReferenceValidator bookingReferenceValidator) {
+        this.bookingReferenceValidator = bookingReferenceValidator;
+    }
+
     @GetMapping("/{id}")
     @ApiOperation(value = "Find the booking by id",
             notes = "Provide an id to search specific booking in database",
@@ -95,14 +134,137 @@ public class BookingController {
         return ResponseEntity.ok(bookings);
     }
 
+    @GetMapping("/free-cars")
+    @ApiOperation(value = "Finds the cars that are free for a period",
+            notes = "Returns the ids of the given cars that have no booking from the pick-up date to the drop-off " +
+                    "date inclusive",
+            response = Long.class,
+            responseContainer = "Set")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = HTMLResponseMessages.HTTP_200),
+            @ApiResponse(code = 400, message = HTMLResponseMessages.HTTP_400),
+            @ApiResponse(code = 500, message = HTMLResponseMessages.HTTP_500)})
+    public ResponseEntity<Set<Long>> findFreeCars(@ApiParam(value = "First day of the period", required = true)
+                                                  @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                  @ApiParam(value = "Last day of the period", required = true)
+                                                  @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                  @ApiParam(value = "Ids of the cars to check", required = true)
+                                                  @RequestParam List<Long> carIds) {
+        if (from.isAfter(to)) {
+            log.warn("Invalid period from {} to {}", from, to);
+            return ResponseEntity.badRequest().build();
+        }
+        log.info("Find free cars from {} to {} among {} cars", from, to, carIds.size());
+        Set<Long> freeCarIds = bookingService.findFreeCars(carIds, from, to);
+        log.debug("Found {} free cars", freeCarIds.size());
+        return ResponseEntity.ok(freeCarIds);
+    }
+
+    @GetMapping("/history")
+    @ApiOperation(value = "Finds the booking history",
+            notes = "Keyset pagination ordered by pick-up date and id, optionally filtered by user, status and " +
+                    "pick-up period. Omit the cursor to get the first page, then pass the value of the " +
+                    "X-Next-Cursor header as after to get the next one. The header is absent on the last page",
+            response = Booking.class,
+            responseContainer = "List")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = HTMLResponseMessages.HTTP_200),
+            @ApiResponse(code = 400, message = HTMLResponseMessages.HTTP_400),
+            @ApiResponse(code = 500, message = HTMLResponseMessages.HTTP_500)})
+    public ResponseEntity<List<Booking>> findBookingHistory(@ModelAttribute BookingSearchCriteria criteria,
+                                                            @ApiParam(value = "Cursor of the last booking already received")
+                                                            @RequestParam(required = false) String after,
+                                                            @ApiParam(value = "Page size, at most " + MAX_PAGE_SIZE)
+                                                            @RequestParam(defaultValue = "20") int size) {
+        if (size <= 0 || isInvalidPeriod(criteria)) {
+            log.warn("Invalid booking history request: {}, size {}", criteria, size);
+            return ResponseEntity.badRequest().build();
+        }
+        LocalDate afterPickUpDate = null;
+        Long afterId = null;
+        if (after != null) {
+            try {
+                int separator = after.lastIndexOf(CURSOR_SEPARATOR);
+                afterPickUpDate = LocalDate.parse(after.substring(0, separator));
+                afterId = Long.parseLong(after.substring(separator + 1));
+            } catch (DateTimeParseException | IndexOutOfBoundsException | NumberFormatException e) {
+                log.warn("Invalid booking history cursor: {}", after);
+                return ResponseEntity.badRequest().build();
+            }
+        }
+        log.info("Retrieve booking history by {} after {} with size {}", criteria, after, size);
+        Slice<Booking> bookingSlice = bookingService.findBookingsAfter(
+                criteria, afterPickUpDate, afterId, Math.min(size, MAX_PAGE_SIZE));
+        if (bookingSlice.isEmpty()) {
+            log.warn("No bookings found by {} after {}.", criteria, after);
+            return ResponseEntity.noContent().build();
+        }
+        HttpHeaders headers = new HttpHeaders();
+        if (bookingSlice.hasNext()) {
+            List<Booking> content = bookingSlice.getContent();
+            Booking last = content.get(content.size() - 1);
+            String nextCursor = last.getPickUpDate() + CURSOR_SEPARATOR + last.getId();
+            headers.add(NEXT_CURSOR_HEADER, nextCursor);
+            headers.add(HttpHeaders.LINK, "<" + ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("after", nextCursor).toUriString() + ">; rel=\"next\"");
+        }
+        log.debug("Booking history page size: {}", bookingSlice.getNumberOfElements());
+        return ResponseEntity.ok().headers(headers).body(bookingSlice.getContent());
+    }
+
+    @GetMapping(value = "/export", produces = NDJSON_MEDIA_TYPE)
+    @ApiOperation(value = "Exports the booking history",
+            notes = "Streams the bookings matching the optional filters, ordered by pick-up date and id, as " +
+                    "newline-delimited JSON, one booking per line")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = HTMLResponseMessages.HTTP_200),
+            @ApiResponse(code = 400, message = HTMLResponseMessages.HTTP_400),
+            @ApiResponse(code = 500, message = HTMLResponseMessages.HTTP_500)})
+    public ResponseEntity<StreamingResponseBody> exportBookings(@ModelAttribute BookingSearchCriteria criteria) {
+        if (isInvalidPeriod(criteria)) {
+            log.warn("Invalid booking export request: {}", criteria);
+            return ResponseEntity.badRequest().build();
+        }
+        log.info("Export bookings by {}", criteria);
+        StreamingResponseBody body = outputStream -> writeBookingsAsNdjson(criteria, outputStream);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON_MEDIA_TYPE))
+                .body(body);
+    }
+
+    private void writeBookingsAsNdjson(BookingSearchCriteria criteria, OutputStream outputStream) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(Booking.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.setRootValueSeparator(null);
+            long exported = bookingService.exportBookings(criteria, booking -> {
+                try {
+                    writer.writeValue(generator, booking);
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            log.debug("Exported booking count: {}", exported);
+        }
+    }
+
+    private boolean isInvalidPeriod(BookingSearchCriteria criteria) {
+        return criteria.getPickUpFrom() != null && criteria.getPickUpTo() != null
+                && criteria.getPickUpFrom().isAfter(criteria.getPickUpTo());
+    }
+
     @PostMapping()
     @ApiOperation(value = "Saves the booking to the database",
+            notes = "The user and the car of the booking must exist in user-service and car-inventory",
             response = Booking.class)
     @ApiResponses(value = {
             @ApiResponse(code = 201, message = HTMLResponseMessages.HTTP_200),
             @ApiResponse(code = 400, message = HTMLResponseMessages.HTTP_400),
             @ApiResponse(code = 404, message = HTMLResponseMessages.HTTP_404),
-            @ApiResponse(code = 500, message = HTMLResponseMessages.HTTP_500)})
+            @ApiResponse(code = 409, message = HTMLResponseMessages.HTTP_409),
+            @ApiResponse(code = 500, message = HTMLResponseMessages.HTTP_500),
+            @ApiResponse(code = 503, message = HTMLResponseMessages.HTTP_503)})
     @ResponseStatus(HttpStatus.CREATED)
     public ResponseEntity<Booking> saveBooking (@Valid @RequestBody Booking booking){
         log.info("Received values {}", booking);
@@ -110,47 +272,76 @@ public class BookingController {
             log.error("Invalid booking dates. Pick-up date must be before drop-off date.");
             throw new IllegalArgumentException("Pick-up date must be before drop-off date.");
         }
-        if (bookingService.hasOverlappingBookings(booking)) {
-            log.error("Overlapping bookings detected.");
-            throw new IllegalArgumentException("Overlapping bookings detected.");
+        try {
+            bookingReferenceValidator.validate(booking);
+        } catch (EntityNotFoundException e) {
+            log.warn("Booking is not saved: {}", e.getMessage());
+            return ResponseEntity.notFound().build();
+        } catch (RestClientException e) {
+            log.error("User {} and car {} of the booking could not be checked: {}",
+                    booking.getUserId(), booking.getCarId(), e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        Optional<Booking> bookingToSave = bookingService.saveBooking(booking);
+        if (bookingToSave.isEmpty()) {
+            log.warn("Car {} is not available between {} and {}",
+                    booking.getCarId(), booking.getPickUpDate(), booking.getDropOffDate());
+            return new ResponseEntity<>(HttpStatus.CONFLICT);
         }
-        Booking bookingToSave = bookingService.saveBooking(booking);
-        log.info("New booking is created: {}", bookingToSave);
-        return new ResponseEntity<>(bookingToSave, HttpStatus.CREATED);
+        log.info("New booking is created: {}", bookingToSave.get());
+        return new ResponseEntity<>(bookingToSave.get(), HttpStatus.CREATED);
     }
 
 
     @PutMapping("/{id}/cancel")
     @ApiOperation(value = "Cancel a booking by ID",
-                  notes = "Updates the booking status to 'Cancelled'",
+                  notes = "Updates the booking status to 'Canceled'. Pending and confirmed bookings can be canceled",
                   response = Booking.class)
     @ApiResponses(value = {
             @ApiResponse(code = 201, message = HTMLResponseMessages.HTTP_201),
             @ApiResponse(code = 400, message = HTMLResponseMessages.HTTP_400),
             @ApiResponse(code = 404, message = HTMLResponseMessages.HTTP_404),
+            @ApiResponse(code = 409, message = HTMLResponseMessages.HTTP_409),
             @ApiResponse(code = 500, message = HTMLResponseMessages.HTTP_500)})
     @ResponseStatus(HttpStatus.ACCEPTED)
     public ResponseEntity<Booking> cancelBooking(@ApiParam(value="id of the booking", required = true)
                                                      @NotNull @PathVariable Long id,
                                                  @Valid @RequestBody Booking booking) {
-        Booking canceledBooking = bookingService.cancelBooking(booking);
-        return new ResponseEntity<>(canceledBooking, HttpStatus.CREATED);
+        try {
+            Booking canceledBooking = bookingService.cancelBooking(booking);
+            return new ResponseEntity<>(canceledBooking, HttpStatus.CREATED);
+        } catch (EntityNotFoundException e) {
+            log.warn("Booking for cancel with id {} is not found.", booking.getId());
+            return ResponseEntity.notFound().build();
+        } catch (IllegalStateException e) {
+            log.warn("Booking with id {} can not be canceled: {}", booking.getId(), e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
     }
 
     @PutMapping("/{id}/confirm")
     @ApiOperation(value = "Confirm a booking by ID",
-            notes = "Updates the booking status to 'Confirmed'",
+            notes = "Updates the booking status to 'Confirmed'. Only pending bookings can be confirmed",
             response = Booking.class)
     @ApiResponses(value = {
             @ApiResponse(code = 201, message = HTMLResponseMessages.HTTP_201),
             @ApiResponse(code = 400, message = HTMLResponseMessages.HTTP_400),
             @ApiResponse(code = 404, message = HTMLResponseMessages.HTTP_404),
+            @ApiResponse(code = 409, message = HTMLResponseMessages.HTTP_409),
             @ApiResponse(code = 500, message = HTMLResponseMessages.HTTP_500)})
     @ResponseStatus(HttpStatus.ACCEPTED)
     public ResponseEntity<Booking> confirmBooking(@ApiParam(value="id of the booking", required = true)
                                                  @NotNull @PathVariable Long id,
                                                  @Valid @RequestBody Booking booking) {
-        Booking confirmedBooking = bookingService.confirmBooking(booking);
-        return new ResponseEntity<>(confirmedBooking, HttpStatus.CREATED);
+        try {
+            Booking confirmedBooking = bookingService.confirmBooking(booking);
+            return new ResponseEntity<>(confirmedBooking, HttpStatus.CREATED);
+        } catch (EntityNotFoundException e) {
+            log.warn("Booking for confirm with id {} is not found.", booking.getId());
+            return ResponseEntity.notFound().build();
+        } catch (IllegalStateException e) {
+            log.warn("Booking with id {} can not be confirmed: {}", booking.getId(), e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
     }
 }
@@ -0,0 +1,17 @@
+package com.rentacar.bookingservice.web;
+
+import com.rentacar.bookingservice.model.BookingStatus;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.stereotype.Component;
+
+/**
+ * Lets request parameters use the same status labels as the JSON bodies, e.g. {@code status=Confirmed}.
+ */
+@Component
+public class StringToBookingStatusConverter implements Converter<String, BookingStatus> {
+
+    @Override
+    public BookingStatus convert(String source) {
+        return BookingStatus.fromLabel(source.trim());
+    }
+}
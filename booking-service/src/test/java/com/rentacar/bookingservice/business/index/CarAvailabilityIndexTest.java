@@ -0,0 +1,155 @@
+package com.rentacar.bookingservice.business.index;
+
+import com.rentacar.bookingservice.business.repository.BookingRepository;
+import com.rentacar.bookingservice.business.repository.model.BookingDAO;
+import com.rentacar.bookingservice.model.Booking;
+import com.rentacar.bookingservice.model.BookingStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CarAvailabilityIndexTest {
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @InjectMocks
+    private CarAvailabilityIndex carAvailabilityIndex;
+
+    private Booking createBooking(Long id, Long carId, int pickUpDay, int dropOffDay) {
+        return Booking.builder()
+                .id(id)
+                .userId(1L)
+                .carId(carId)
+                .pickUpDate(date(pickUpDay))
+                .dropOffDate(date(dropOffDay))
+                .status(BookingStatus.PENDING).build();
+    }
+
+    /** Day relative to today, so the bookings are never behind the first indexed day. */
+    private LocalDate date(int day) {
+        return LocalDate.now().plusDays(day);
+    }
+
+    @Test
+    void rebuild() {
+        BookingDAO bookingDAO = BookingDAO.builder()
+                .id(1L)
+                .carId(3L)
+                .pickUpDate(date(1))
+                .dropOffDate(date(5))
+                .status(BookingStatus.CONFIRMED).build();
+        when(bookingRepository.findCurrentBookings(date(-CarAvailabilityIndex.PAST_DAYS))).thenReturn(List.of(bookingDAO));
+
+        assertFalse(carAvailabilityIndex.isReady());
+        carAvailabilityIndex.rebuild();
+
+        assertTrue(carAvailabilityIndex.isReady());
+        assertTrue(carAvailabilityIndex.isBooked(3L, date(5), date(7)));
+        assertFalse(carAvailabilityIndex.isBooked(3L, date(6), date(7)));
+    }
+
+    @Test
+    void rebuild_clipsBookingsStartedBeforeFirstDay() {
+        BookingDAO bookingDAO = BookingDAO.builder()
+                .id(1L)
+                .carId(3L)
+                .pickUpDate(date(-10))
+                .dropOffDate(date(1))
+                .status(BookingStatus.CONFIRMED).build();
+        when(bookingRepository.findCurrentBookings(date(-CarAvailabilityIndex.PAST_DAYS))).thenReturn(List.of(bookingDAO));
+
+        carAvailabilityIndex.rebuild();
+
+        assertTrue(carAvailabilityIndex.isBooked(3L, date(0), date(0)));
+        assertTrue(carAvailabilityIndex.isBooked(3L, date(1), date(3)));
+        assertFalse(carAvailabilityIndex.isBooked(3L, date(2), date(3)));
+    }
+
+    @Test
+    void covers() {
+        assertFalse(carAvailabilityIndex.covers(date(1)));
+        carAvailabilityIndex.rebuild();
+
+        assertTrue(carAvailabilityIndex.covers(date(1)));
+        assertTrue(carAvailabilityIndex.covers(date(-CarAvailabilityIndex.PAST_DAYS)));
+        assertFalse(carAvailabilityIndex.covers(date(-CarAvailabilityIndex.PAST_DAYS - 1)));
+    }
+
+    @Test
+    void upsert_pastBookingIsNotIndexed() {
+        carAvailabilityIndex.upsert(createBooking(1L, 3L, -20, -CarAvailabilityIndex.PAST_DAYS - 1));
+
+        assertFalse(carAvailabilityIndex.isBooked(3L, date(-20), date(10)));
+    }
+
+    @Test
+    void isBooked() {
+        carAvailabilityIndex.upsert(createBooking(1L, 3L, 10, 12));
+
+        assertTrue(carAvailabilityIndex.isBooked(3L, date(1), date(10)));
+        assertTrue(carAvailabilityIndex.isBooked(3L, date(11), date(11)));
+        assertTrue(carAvailabilityIndex.isBooked(3L, date(1), date(30)));
+        assertFalse(carAvailabilityIndex.isBooked(3L, date(1), date(9)));
+        assertFalse(carAvailabilityIndex.isBooked(3L, date(13), date(20)));
+        assertFalse(carAvailabilityIndex.isBooked(4L, date(10), date(12)));
+    }
+
+    @Test
+    void upsert_movesBooking() {
+        Booking booking = createBooking(1L, 3L, 10, 12);
+        carAvailabilityIndex.upsert(booking);
+        booking.setPickUpDate(date(40));
+        booking.setDropOffDate(date(42));
+
+        carAvailabilityIndex.upsert(booking);
+
+        assertFalse(carAvailabilityIndex.isBooked(3L, date(10), date(12)));
+        assertTrue(carAvailabilityIndex.isBooked(3L, date(40), date(40)));
+    }
+
+    @Test
+    void upsert_canceledBookingIsRemoved() {
+        Booking booking = createBooking(1L, 3L, 10, 12);
+        carAvailabilityIndex.upsert(booking);
+        booking.setStatus(BookingStatus.CANCELED);
+
+        carAvailabilityIndex.upsert(booking);
+
+        assertFalse(carAvailabilityIndex.isBooked(3L, date(10), date(12)));
+    }
+
+    @Test
+    void remove_keepsDaysOfOtherBookings() {
+        carAvailabilityIndex.upsert(createBooking(1L, 3L, 10, 12));
+        carAvailabilityIndex.upsert(createBooking(2L, 3L, 12, 14));
+
+        carAvailabilityIndex.remove(2L);
+
+        assertTrue(carAvailabilityIndex.isBooked(3L, date(12), date(12)));
+        assertFalse(carAvailabilityIndex.isBooked(3L, date(13), date(14)));
+        carAvailabilityIndex.remove(1L);
+        assertFalse(carAvailabilityIndex.isBooked(3L, date(1), date(30)));
+    }
+
+    @Test
+    void findFreeCars() {
+        carAvailabilityIndex.upsert(createBooking(1L, 3L, 10, 12));
+        carAvailabilityIndex.upsert(createBooking(2L, 5L, 20, 22));
+
+        Set<Long> freeCars = carAvailabilityIndex.findFreeCars(List.of(5L, 3L, 4L), date(12), date(15));
+
+        assertEquals(List.of(5L, 4L), List.copyOf(freeCars));
+    }
+}
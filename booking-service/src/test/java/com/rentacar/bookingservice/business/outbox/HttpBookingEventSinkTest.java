@@ -0,0 +1,65 @@
+package com.rentacar.bookingservice.business.outbox;
+
+import com.rentacar.bookingservice.model.BookingEvent;
+import com.rentacar.serviceclients.ServiceTokenProvider;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class HttpBookingEventSinkTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private HttpServer carInventory;
+
+    private HttpBookingEventSink httpBookingEventSink;
+
+    @BeforeEach
+    public void init() throws IOException {
+        // accepts the connection but never answers
+        carInventory = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        carInventory.createContext("/", exchange -> {
+            try (exchange) {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        carInventory.start();
+        ServiceTokenProvider serviceTokenProvider = mock(ServiceTokenProvider.class);
+        when(serviceTokenProvider.getAccessToken()).thenReturn(Optional.empty());
+        httpBookingEventSink = new HttpBookingEventSink();
+        httpBookingEventSink.setServiceTokenProvider(serviceTokenProvider);
+        httpBookingEventSink.setRestClient(RestClient.builder(),
+                "http://localhost:" + carInventory.getAddress().getPort(), Duration.ofSeconds(1), Duration.ofMillis(200));
+    }
+
+    @AfterEach
+    public void stop() {
+        release.countDown();
+        carInventory.stop(0);
+    }
+
+    @Test
+    void publish_carInventoryDoesNotAnswer() {
+        List<BookingEvent> events = List.of(new BookingEvent());
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () ->
+                assertThrows(ResourceAccessException.class, () -> httpBookingEventSink.publish(events)));
+    }
+}
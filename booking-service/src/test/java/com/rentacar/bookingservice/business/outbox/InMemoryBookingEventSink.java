@@ -0,0 +1,38 @@
+package com.rentacar.bookingservice.business.outbox;
+
+import com.rentacar.bookingservice.model.BookingEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * In-process stand-in for a broker: keeps every delivered event and can be told to reject the next batches.
+ */
+class InMemoryBookingEventSink implements BookingEventSink {
+
+    private final List<BookingEvent> events = new ArrayList<>();
+
+    private int failuresLeft;
+
+    @Override
+    public synchronized void publish(List<BookingEvent> batch) {
+        if (failuresLeft > 0) {
+            failuresLeft--;
+            throw new IllegalStateException("Sink is unavailable");
+        }
+        events.addAll(batch);
+    }
+
+    synchronized List<BookingEvent> getEvents() {
+        return List.copyOf(events);
+    }
+
+    synchronized void failNext(int batches) {
+        failuresLeft = batches;
+    }
+
+    synchronized void clear() {
+        events.clear();
+        failuresLeft = 0;
+    }
+}
@@ -0,0 +1,117 @@
+package com.rentacar.bookingservice.business.outbox;
+
+import com.rentacar.bookingservice.business.index.CarAvailabilityIndex;
+import com.rentacar.bookingservice.business.mappers.BookingMapStructMapperImpl;
+import com.rentacar.bookingservice.business.repository.BookingRepository;
+import com.rentacar.bookingservice.business.repository.CarReservationRepository;
+import com.rentacar.bookingservice.business.repository.OutboxEventRepository;
+import com.rentacar.bookingservice.business.service.BookingService;
+import com.rentacar.bookingservice.business.service.impl.BookingServiceImpl;
+import com.rentacar.bookingservice.model.Booking;
+import com.rentacar.bookingservice.model.BookingEvent;
+import com.rentacar.bookingservice.model.BookingStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs booking changes against an embedded database and relays the outbox to an in-memory sink.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "booking-service.outbox.batch-size=2"})
+@Import({BookingServiceImpl.class, BookingMapStructMapperImpl.class, CarAvailabilityIndex.class,
+        BookingOutbox.class, OutboxRelay.class, InMemoryBookingEventSink.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OutboxRelayTest {
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private InMemoryBookingEventSink sink;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private CarReservationRepository carReservationRepository;
+
+    @AfterEach
+    public void cleanUp() {
+        sink.clear();
+        outboxEventRepository.deleteAll();
+        carReservationRepository.deleteAll();
+        bookingRepository.deleteAll();
+    }
+
+    private Booking booking(Long carId) {
+        return Booking.builder()
+                .userId(1L)
+                .carId(carId)
+                .pickUpDate(LocalDate.parse("2024-06-01"))
+                .dropOffDate(LocalDate.parse("2024-06-03")).build();
+    }
+
+    @Test
+    void relay_publishesChangesInOrder() {
+        Booking saved = bookingService.saveBooking(booking(1L)).get();
+        bookingService.confirmBooking(saved);
+        bookingService.cancelBooking(saved);
+
+        assertEquals(3, outboxRelay.relay());
+
+        List<BookingEvent> events = sink.getEvents();
+        assertEquals(List.of(BookingStatus.PENDING, BookingStatus.CONFIRMED, BookingStatus.CANCELED),
+                events.stream().map(BookingEvent::getStatus).collect(Collectors.toList()));
+        assertTrue(events.get(0).getEventId() < events.get(1).getEventId());
+        assertTrue(events.get(1).getEventId() < events.get(2).getEventId());
+        assertEquals(saved.getId(), events.get(2).getBookingId());
+        assertEquals(1L, events.get(2).getCarId());
+        assertEquals(LocalDate.parse("2024-06-03"), events.get(2).getDropOffDate());
+        assertTrue(outboxEventRepository.findAll().stream().allMatch(event -> event.getPublishedAt() != null));
+        assertEquals(0, outboxRelay.relay());
+    }
+
+    @Test
+    void relay_retriesAfterSinkFailure() {
+        bookingService.saveBooking(booking(1L));
+        bookingService.saveBooking(booking(2L));
+        bookingService.saveBooking(booking(3L));
+        sink.failNext(1);
+
+        assertEquals(0, outboxRelay.relay());
+        assertTrue(sink.getEvents().isEmpty());
+
+        assertEquals(3, outboxRelay.relay());
+        assertEquals(3, sink.getEvents().size());
+    }
+
+    @Test
+    void saveBooking_rejectedBookingHasNoEvent() {
+        bookingService.saveBooking(booking(1L));
+        assertTrue(bookingService.saveBooking(booking(1L)).isEmpty());
+
+        assertEquals(1, outboxEventRepository.count());
+    }
+}
@@ -0,0 +1,110 @@
+package com.rentacar.bookingservice.business.reference;
+
+import com.rentacar.bookingservice.model.Booking;
+import com.rentacar.serviceclients.CarInventoryClient;
+import com.rentacar.serviceclients.CarSummary;
+import com.rentacar.serviceclients.UserServiceClient;
+import com.rentacar.serviceclients.UserSummary;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BookingReferenceValidatorTest {
+
+    @Mock
+    private UserServiceClient userServiceClient;
+
+    @Mock
+    private CarInventoryClient carInventoryClient;
+
+    @InjectMocks
+    private BookingReferenceValidator bookingReferenceValidator;
+
+    private Booking booking;
+
+    @BeforeEach
+    public void init() {
+        booking = Booking.builder()
+                .userId(1L)
+                .carId(2L)
+                .pickUpDate(LocalDate.parse("2024-04-01"))
+                .dropOffDate(LocalDate.parse("2024-04-05")).build();
+    }
+
+    @Test
+    void validate_userAndCarExist() {
+        when(userServiceClient.findUserById(1L)).thenReturn(Optional.of(user()));
+        when(carInventoryClient.findCarById(2L)).thenReturn(Optional.of(car()));
+
+        assertDoesNotThrow(() -> bookingReferenceValidator.validate(booking));
+    }
+
+    @Test
+    void validate_userNotFound() {
+        when(userServiceClient.findUserById(1L)).thenReturn(Optional.empty());
+        when(carInventoryClient.findCarById(2L)).thenReturn(Optional.of(car()));
+
+        assertThrows(EntityNotFoundException.class, () -> bookingReferenceValidator.validate(booking));
+    }
+
+    @Test
+    void validate_carNotFound() {
+        when(userServiceClient.findUserById(1L)).thenReturn(Optional.of(user()));
+        when(carInventoryClient.findCarById(2L)).thenReturn(Optional.empty());
+
+        assertThrows(EntityNotFoundException.class, () -> bookingReferenceValidator.validate(booking));
+    }
+
+    @Test
+    void validate_carInventoryUnavailable() {
+        when(userServiceClient.findUserById(1L)).thenReturn(Optional.of(user()));
+        when(carInventoryClient.findCarById(2L)).thenThrow(new ResourceAccessException("No instances available for car-inventory"));
+
+        assertThrows(ResourceAccessException.class, () -> bookingReferenceValidator.validate(booking));
+    }
+
+    @Test
+    void validate_idsNotSet() {
+        booking.setUserId(null);
+        booking.setCarId(null);
+
+        bookingReferenceValidator.validate(booking);
+
+        verify(userServiceClient, never()).findUserById(any());
+        verify(carInventoryClient, never()).findCarById(any());
+    }
+
+    @Test
+    void validate_disabled() {
+        bookingReferenceValidator.setEnabled(false);
+
+        bookingReferenceValidator.validate(booking);
+
+        verifyNoInteractions(userServiceClient, carInventoryClient);
+    }
+
+    private UserSummary user() {
+        return new UserSummary(1L, "user1", "First", "Last", "user1@example.com");
+    }
+
+    private CarSummary car() {
+        return new CarSummary(2L, "Skoda", "Octavia", 2020, 45.0, true);
+    }
+}
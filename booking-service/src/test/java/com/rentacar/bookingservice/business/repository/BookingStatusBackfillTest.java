@@ -0,0 +1,69 @@
+package com.rentacar.bookingservice.business.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BookingStatusBackfillTest {
+
+    private JdbcTemplate jdbcTemplate;
+
+    private BookingStatusBackfill bookingStatusBackfill;
+
+    @BeforeEach
+    public void init() {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:h2:mem:backfill;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", ""));
+        bookingStatusBackfill = new BookingStatusBackfill();
+        bookingStatusBackfill.setJdbcTemplate(jdbcTemplate);
+    }
+
+    @AfterEach
+    public void dropTable() {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS booking");
+    }
+
+    @Test
+    void backfill_legacyRows() {
+        jdbcTemplate.execute("CREATE TABLE booking (booking_id BIGINT PRIMARY KEY, status VARCHAR(255), status_code TINYINT)");
+        jdbcTemplate.update("INSERT INTO booking VALUES (1, 'Pending', NULL), (2, 'Confirmed', NULL), " +
+                "(3, 'Canceled', NULL), (4, 'Pending', 3), (5, NULL, 2)");
+
+        bookingStatusBackfill.backfill();
+
+        assertEquals(Arrays.asList((byte) 1, (byte) 2, (byte) 3, (byte) 3, (byte) 2), statusCodes());
+    }
+
+    @Test
+    void backfill_runsOnce() {
+        jdbcTemplate.execute("CREATE TABLE booking (booking_id BIGINT PRIMARY KEY, status VARCHAR(255), status_code TINYINT)");
+        jdbcTemplate.update("INSERT INTO booking VALUES (1, 'Pending', NULL)");
+        bookingStatusBackfill.backfill();
+        jdbcTemplate.update("UPDATE booking SET status_code = 3");
+
+        bookingStatusBackfill.backfill();
+
+        assertEquals(List.of((byte) 3), statusCodes());
+    }
+
+    @Test
+    void backfill_noLegacyColumn() {
+        jdbcTemplate.execute("CREATE TABLE booking (booking_id BIGINT PRIMARY KEY, status_code TINYINT)");
+        jdbcTemplate.update("INSERT INTO booking VALUES (1, 2)");
+
+        bookingStatusBackfill.backfill();
+
+        assertEquals(List.of((byte) 2), statusCodes());
+    }
+
+    private List<Byte> statusCodes() {
+        return jdbcTemplate.queryForList("SELECT status_code FROM booking ORDER BY booking_id", Byte.class);
+    }
+}
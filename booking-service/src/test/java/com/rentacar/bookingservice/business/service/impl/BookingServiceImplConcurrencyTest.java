@@ -0,0 +1,202 @@
+package com.rentacar.bookingservice.business.service.impl;
+
+import com.rentacar.bookingservice.business.index.CarAvailabilityIndex;
+import com.rentacar.bookingservice.business.mappers.BookingMapStructMapperImpl;
+import com.rentacar.bookingservice.business.outbox.BookingOutbox;
+import com.rentacar.bookingservice.business.repository.BookingRepository;
+import com.rentacar.bookingservice.business.repository.CarReservationRepository;
+import com.rentacar.bookingservice.business.repository.OutboxEventRepository;
+import com.rentacar.bookingservice.business.repository.model.BookingDAO;
+import com.rentacar.bookingservice.business.service.BookingService;
+import com.rentacar.bookingservice.model.Booking;
+import com.rentacar.bookingservice.model.BookingStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Books the same few cars from many threads against an embedded database and checks that no two
+ * bookings of a car share a day.
+ */
+@DataJpaTest(properties = "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect")
+@Import({BookingServiceImpl.class, BookingMapStructMapperImpl.class, CarAvailabilityIndex.class, BookingOutbox.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BookingServiceImplConcurrencyTest {
+
+    private static final int THREADS = 32;
+    private static final int REQUESTS = 2000;
+    private static final int CARS = 5;
+    private static final LocalDate SEASON_START = LocalDate.now().plusMonths(1);
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private CarReservationRepository carReservationRepository;
+
+    @Autowired
+    private CarAvailabilityIndex carAvailabilityIndex;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @AfterEach
+    public void cleanUp() {
+        outboxEventRepository.deleteAll();
+        carReservationRepository.deleteAll();
+        bookingRepository.deleteAll();
+    }
+
+    @Test
+    void saveBooking_sameDatesFromManyThreads() throws Exception {
+        List<Booking> requests = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            requests.add(booking(1L, SEASON_START, SEASON_START.plusDays(3)));
+        }
+
+        List<Boolean> results = runConcurrently(requests);
+
+        assertEquals(1, results.stream().filter(saved -> saved).count());
+        assertEquals(1, bookingRepository.count());
+        assertEquals(4, carReservationRepository.count());
+        assertEquals(1, outboxEventRepository.count());
+    }
+
+    @Test
+    void saveBooking_randomDatesFromManyThreads() throws Exception {
+        Random random = new Random(42);
+        List<Booking> requests = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            LocalDate pickUpDate = SEASON_START.plusDays(random.nextInt(60));
+            requests.add(booking(1L + random.nextInt(CARS), pickUpDate, pickUpDate.plusDays(random.nextInt(5))));
+        }
+
+        List<Boolean> results = runConcurrently(requests);
+
+        List<BookingDAO> bookings = bookingRepository.findAll();
+        assertEquals(results.stream().filter(saved -> saved).count(), bookings.size());
+        assertFalse(bookings.isEmpty());
+        Map<Long, List<BookingDAO>> bookingsByCar = bookings.stream()
+                .collect(Collectors.groupingBy(BookingDAO::getCarId));
+        for (List<BookingDAO> carBookings : bookingsByCar.values()) {
+            for (int i = 0; i < carBookings.size(); i++) {
+                for (int j = i + 1; j < carBookings.size(); j++) {
+                    assertFalse(overlap(carBookings.get(i), carBookings.get(j)),
+                            "Double booking: " + carBookings.get(i) + " and " + carBookings.get(j));
+                }
+            }
+        }
+        long reservedDays = bookings.stream()
+                .mapToLong(b -> b.getDropOffDate().toEpochDay() - b.getPickUpDate().toEpochDay() + 1)
+                .sum();
+        assertEquals(reservedDays, carReservationRepository.count());
+        for (BookingDAO booking : bookings) {
+            assertTrue(carAvailabilityIndex.isBooked(booking.getCarId(), booking.getPickUpDate(), booking.getPickUpDate()));
+        }
+    }
+
+    @Test
+    void cancelBooking_releasesDates() {
+        Booking saved = bookingService.saveBooking(booking(1L, SEASON_START, SEASON_START.plusDays(2))).get();
+        assertTrue(bookingService.saveBooking(booking(1L, SEASON_START, SEASON_START)).isEmpty());
+
+        bookingService.cancelBooking(saved);
+
+        assertTrue(bookingService.saveBooking(booking(1L, SEASON_START, SEASON_START)).isPresent());
+    }
+
+    @Test
+    void cancelBooking_fromManyThreads() throws Exception {
+        Booking saved = bookingService.saveBooking(booking(1L, SEASON_START, SEASON_START.plusDays(2))).get();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Boolean>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        bookingService.cancelBooking(saved);
+                        return true;
+                    } catch (IllegalStateException e) {
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+            int canceled = 0;
+            for (Future<Boolean> future : futures) {
+                canceled += future.get() ? 1 : 0;
+            }
+            assertEquals(1, canceled);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(BookingStatus.CANCELED, bookingRepository.findById(saved.getId()).get().getStatus());
+        assertThrows(IllegalStateException.class, () -> bookingService.confirmBooking(saved));
+        assertEquals(0, carReservationRepository.count());
+    }
+
+    private List<Boolean> runConcurrently(List<Booking> requests) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Boolean>> futures = new ArrayList<>();
+            for (Booking request : requests) {
+                Callable<Boolean> task = () -> {
+                    start.await();
+                    return bookingService.saveBooking(request).isPresent();
+                };
+                futures.add(executor.submit(task));
+            }
+            start.countDown();
+            List<Boolean> results = new ArrayList<>();
+            for (Future<Boolean> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private boolean overlap(BookingDAO first, BookingDAO second) {
+        return !first.getPickUpDate().isAfter(second.getDropOffDate())
+                && !second.getPickUpDate().isAfter(first.getDropOffDate());
+    }
+
+    private Booking booking(Long carId, LocalDate pickUpDate, LocalDate dropOffDate) {
+        return Booking.builder()
+                .userId(1L)
+                .carId(carId)
+                .pickUpDate(pickUpDate)
+                .dropOffDate(dropOffDate).build();
+    }
+}
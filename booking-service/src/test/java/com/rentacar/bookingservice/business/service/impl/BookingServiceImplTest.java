@@ -1,20 +1,39 @@
 package com.rentacar.bookingservice.business.service.impl;
 
+import com.rentacar.bookingservice.business.index.CarAvailabilityIndex;
 import com.rentacar.bookingservice.business.mappers.BookingMapStructMapper;
+import com.rentacar.bookingservice.business.outbox.BookingOutbox;
 import com.rentacar.bookingservice.business.repository.BookingRepository;
+import com.rentacar.bookingservice.business.repository.CarReservationRepository;
 import com.rentacar.bookingservice.business.repository.model.BookingDAO;
+import com.rentacar.bookingservice.business.repository.model.CarReservationDAO;
 import com.rentacar.bookingservice.model.Booking;
+import com.rentacar.bookingservice.model.BookingSearchCriteria;
+import com.rentacar.bookingservice.model.BookingStatus;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -30,6 +49,21 @@ class BookingServiceImplTest {
     @Mock
     BookingMapStructMapper mapper;
 
+    @Mock
+    private CarReservationRepository carReservationRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private CarAvailabilityIndex carAvailabilityIndex;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private BookingOutbox bookingOutbox;
+
     private BookingDAO bookingDAO;
 
     private Booking booking;
@@ -40,6 +74,11 @@ class BookingServiceImplTest {
         bookingDAO = createBookingDAO();
     }
 
+    private void inTransaction() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
     private Booking createBooking() {
         return Booking.builder()
                 .id(1L)
@@ -95,41 +134,237 @@ class BookingServiceImplTest {
         verify(bookingRepository, times(1)).findByUserId(1L);
     }
 
+    @Test
+    void findBookingsAfter() {
+        BookingSearchCriteria criteria = BookingSearchCriteria.builder().userId(1L).build();
+        LocalDate afterPickUpDate = LocalDate.parse("2024-03-01");
+        when(bookingRepository.findBookingsAfter(criteria, afterPickUpDate, 7L, PageRequest.of(0, 2)))
+                .thenReturn(new SliceImpl<>(createBookingDAOList(), PageRequest.of(0, 2), true));
+
+        Slice<Booking> bookingSlice = bookingServiceImpl.findBookingsAfter(criteria, afterPickUpDate, 7L, 2);
+
+        assertEquals(2, bookingSlice.getNumberOfElements());
+        assertTrue(bookingSlice.hasNext());
+    }
+
+    @Test
+    void exportBookings() {
+        BookingSearchCriteria criteria = BookingSearchCriteria.builder().status(BookingStatus.CONFIRMED).build();
+        BookingDAO secondBookingDAO = createBookingDAO2();
+        when(bookingRepository.streamBookings(criteria)).thenReturn(Stream.of(bookingDAO, secondBookingDAO));
+        when(mapper.bookingDAOToBooking(any())).thenReturn(booking);
+        List<Booking> exported = new ArrayList<>();
+
+        assertEquals(2, bookingServiceImpl.exportBookings(criteria, exported::add));
+
+        assertEquals(2, exported.size());
+        verify(entityManager, times(1)).detach(bookingDAO);
+        verify(entityManager, times(1)).detach(secondBookingDAO);
+    }
+
     @Test
     void saveBooking() {
+        inTransaction();
+        bookingDAO.setCarId(3L);
         when(bookingRepository.save(bookingDAO)).thenReturn(bookingDAO);
         when(mapper.bookingDAOToBooking(bookingDAO)).thenReturn(booking);
         when(mapper.bookingToBookingDAO(booking)).thenReturn(bookingDAO);
 
-        Booking bookingSaved = bookingServiceImpl.saveBooking(booking);
+        Optional<Booking> bookingSaved = bookingServiceImpl.saveBooking(booking);
 
-        assertEquals(booking, bookingSaved);
+        assertEquals(booking, bookingSaved.get());
+        assertEquals(BookingStatus.PENDING, booking.getStatus());
         verify(bookingRepository, times(1)).save(bookingDAO);
+        ArgumentCaptor<List<CarReservationDAO>> reservations = ArgumentCaptor.forClass(List.class);
+        verify(carReservationRepository, times(1)).saveAllAndFlush(reservations.capture());
+        assertEquals(5, reservations.getValue().size());
+        assertEquals(LocalDate.parse("2024-04-05"), reservations.getValue().get(4).getReservedDate());
+        verify(carAvailabilityIndex, times(1)).upsert(booking);
+        verify(bookingOutbox, times(1)).append(bookingDAO);
+    }
+
+    @Test
+    void saveBooking_datesAlreadyReserved() {
+        inTransaction();
+        when(bookingRepository.save(bookingDAO)).thenReturn(bookingDAO);
+        when(mapper.bookingToBookingDAO(booking)).thenReturn(bookingDAO);
+        when(carReservationRepository.saveAllAndFlush(anyList()))
+                .thenThrow(new DataIntegrityViolationException("uk_car_reservation_car_day"));
+
+        assertTrue(bookingServiceImpl.saveBooking(booking).isEmpty());
+        verify(carAvailabilityIndex, never()).upsert(any());
+    }
+
+    @Test
+    void saveBooking_overlapsBookingWithoutReservations() {
+        inTransaction();
+        booking.setCarId(3L);
+        when(bookingRepository.existsOverlappingBooking(3L, booking.getPickUpDate(), booking.getDropOffDate()))
+                .thenReturn(true);
+
+        assertTrue(bookingServiceImpl.saveBooking(booking).isEmpty());
+        verify(bookingRepository, never()).save(any());
+    }
+
+    @Test
+    void hasOverlappingBookings() {
+        booking.setCarId(3L);
+        when(bookingRepository.existsOverlappingBooking(3L, booking.getPickUpDate(), booking.getDropOffDate()))
+                .thenReturn(true);
+        assertTrue(bookingServiceImpl.hasOverlappingBookings(booking));
+        verify(bookingRepository, never()).findAll();
+    }
+
+    @Test
+    void hasOverlappingBookings_fromIndex() {
+        booking.setCarId(3L);
+        when(carAvailabilityIndex.covers(booking.getPickUpDate())).thenReturn(true);
+        when(carAvailabilityIndex.isBooked(3L, booking.getPickUpDate(), booking.getDropOffDate())).thenReturn(true);
+        assertTrue(bookingServiceImpl.hasOverlappingBookings(booking));
+        verify(bookingRepository, never()).existsOverlappingBooking(any(), any(), any());
+    }
+
+    @Test
+    void hasOverlappingBookings_carIsFree() {
+        booking.setCarId(3L);
+        assertFalse(bookingServiceImpl.hasOverlappingBookings(booking));
+    }
+
+    @Test
+    void findFreeCars_fromIndex() {
+        LocalDate from = LocalDate.parse("2024-04-01");
+        LocalDate to = LocalDate.parse("2024-04-05");
+        when(carAvailabilityIndex.covers(from)).thenReturn(true);
+        when(carAvailabilityIndex.findFreeCars(List.of(1L, 2L), from, to)).thenReturn(Set.of(2L));
+
+        assertEquals(Set.of(2L), bookingServiceImpl.findFreeCars(List.of(1L, 2L), from, to));
+        verify(bookingRepository, never()).findBookedCarIds(any(), any(), any());
+    }
+
+    @Test
+    void findFreeCars_indexNotReady() {
+        LocalDate from = LocalDate.parse("2024-04-01");
+        LocalDate to = LocalDate.parse("2024-04-05");
+        when(bookingRepository.findBookedCarIds(List.of(1L, 2L, 3L), from, to)).thenReturn(List.of(2L));
+
+        assertEquals(List.of(1L, 3L), List.copyOf(bookingServiceImpl.findFreeCars(List.of(1L, 2L, 3L), from, to)));
+    }
+
+    @Test
+    void findFreeCars_neverBookedCar() {
+        LocalDate from = LocalDate.parse("2024-04-01");
+        LocalDate to = LocalDate.parse("2024-04-05");
+        when(bookingRepository.findBookedCarIds(List.of(1L, 9L), from, to)).thenReturn(List.of(1L));
+
+        assertEquals(Set.of(9L), bookingServiceImpl.findFreeCars(List.of(1L, 9L), from, to));
+    }
+
+    @Test
+    void findFreeCars_noCars() {
+        assertTrue(bookingServiceImpl.findFreeCars(List.of(), LocalDate.parse("2024-04-01"), LocalDate.parse("2024-04-05")).isEmpty());
+        verifyNoInteractions(bookingRepository);
     }
 
     @Test
     void cancelBooking() {
+        inTransaction();
+        bookingDAO.setStatus(BookingStatus.CANCELED);
+        when(bookingRepository.transitionStatus(booking.getId(), BookingStatus.CANCELED)).thenReturn(1);
         when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(bookingDAO));
-        when(bookingRepository.save(any())).thenReturn(bookingDAO);
         when(mapper.bookingDAOToBooking(bookingDAO)).thenReturn(booking);
 
         Booking canceledBooking = bookingServiceImpl.cancelBooking(booking);
 
-        assertEquals(booking.getStatus(), canceledBooking.getStatus());
-        verify(bookingRepository, times(1)).findById(booking.getId());
-        verify(bookingRepository, times(1)).save(bookingDAO);
+        assertEquals(booking, canceledBooking);
+        verify(carReservationRepository, times(1)).deleteByBookingId(booking.getId());
+        verify(carAvailabilityIndex, times(1)).remove(booking.getId());
+        verify(bookingOutbox, times(1)).append(bookingDAO);
+        verify(bookingRepository, never()).save(any());
+    }
+
+    @Test
+    void cancelBooking_alreadyCanceled() {
+        inTransaction();
+        bookingDAO.setStatus(BookingStatus.CANCELED);
+        when(bookingRepository.transitionStatus(booking.getId(), BookingStatus.CANCELED)).thenReturn(0);
+        when(bookingRepository.findById(booking.getId())).thenReturn(Optional.of(bookingDAO));
+
+        assertThrows(IllegalStateException.class, () -> bookingServiceImpl.cancelBooking(booking));
+        verify(carReservationRepository, never()).deleteByBookingId(any());
+        verify(bookingOutbox, never()).append(any());
+    }
+
+    @Test
+    void cancelBooking_notFound() {
+        inTransaction();
+        when(bookingRepository.findById(booking.getId())).thenReturn(Optional.empty());
+
+        assertThrows(EntityNotFoundException.class, () -> bookingServiceImpl.cancelBooking(booking));
     }
 
     @Test
     void confirmBooking() {
+        bookingDAO.setStatus(BookingStatus.CONFIRMED);
+        when(bookingRepository.transitionStatus(booking.getId(), BookingStatus.CONFIRMED)).thenReturn(1);
         when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(bookingDAO));
-        when(bookingRepository.save(any())).thenReturn(bookingDAO);
         when(mapper.bookingDAOToBooking(bookingDAO)).thenReturn(booking);
 
         Booking confirmedBooking = bookingServiceImpl.confirmBooking(booking);
 
-        assertEquals(booking.getStatus(), confirmedBooking.getStatus());
-        verify(bookingRepository, times(1)).findById(booking.getId());
-        verify(bookingRepository, times(1)).save(bookingDAO);
+        assertEquals(booking, confirmedBooking);
+        verify(carAvailabilityIndex, times(1)).upsert(booking);
+        verify(bookingOutbox, times(1)).append(bookingDAO);
+        verify(bookingRepository, never()).save(any());
+    }
+
+    @Test
+    void confirmBooking_canceledBooking() {
+        bookingDAO.setStatus(BookingStatus.CANCELED);
+        when(bookingRepository.transitionStatus(booking.getId(), BookingStatus.CONFIRMED)).thenReturn(0);
+        when(bookingRepository.findById(booking.getId())).thenReturn(Optional.of(bookingDAO));
+
+        assertThrows(IllegalStateException.class, () -> bookingServiceImpl.confirmBooking(booking));
+        verify(carAvailabilityIndex, never()).upsert(any());
+    }
+
+    @Test
+    void saveBooking_indexWaitsForCommit() {
+        inTransaction();
+        bookingDAO.setCarId(3L);
+        when(bookingRepository.save(bookingDAO)).thenReturn(bookingDAO);
+        when(mapper.bookingDAOToBooking(bookingDAO)).thenReturn(booking);
+        when(mapper.bookingToBookingDAO(booking)).thenReturn(bookingDAO);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            bookingServiceImpl.saveBooking(booking);
+
+            verify(carAvailabilityIndex, never()).upsert(any());
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify(carAvailabilityIndex, times(1)).upsert(booking);
+    }
+
+    @Test
+    void confirmBooking_rollbackLeavesIndex() {
+        bookingDAO.setStatus(BookingStatus.CONFIRMED);
+        when(bookingRepository.transitionStatus(booking.getId(), BookingStatus.CONFIRMED)).thenReturn(1);
+        when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(bookingDAO));
+        when(mapper.bookingDAOToBooking(bookingDAO)).thenReturn(booking);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            bookingServiceImpl.confirmBooking(booking);
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verifyNoInteractions(carAvailabilityIndex);
     }
 }
\ No newline at end of file
@@ -1,19 +1,27 @@
 package com.rentacar.bookingservice.web;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rentacar.bookingservice.business.reference.BookingReferenceValidator;
 import com.rentacar.bookingservice.business.service.BookingService;
 import com.rentacar.bookingservice.model.Booking;
+import com.rentacar.bookingservice.model.BookingSearchCriteria;
+import com.rentacar.bookingservice.model.BookingStatus;
+import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.web.client.ResourceAccessException;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
@@ -21,14 +29,25 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.function.Consumer;
 
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.times;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(BookingController.class)
@@ -45,6 +64,9 @@ class BookingControllerTest {
     @MockBean
     private BookingService bookingService;
 
+    @MockBean
+    private BookingReferenceValidator bookingReferenceValidator;
+
     private Booking booking;
 
     @BeforeEach
@@ -155,9 +177,130 @@ class BookingControllerTest {
                 .andExpect(status().isNoContent());
     }
 
+    @Test
+    void findFreeCars() throws Exception {
+        LocalDate from = LocalDate.parse("2024-04-01");
+        LocalDate to = LocalDate.parse("2024-04-05");
+        when(bookingService.findFreeCars(List.of(1L, 2L, 3L), from, to)).thenReturn(new LinkedHashSet<>(List.of(1L, 3L)));
+
+        mockMvc.perform(MockMvcRequestBuilders.get(baseUrl + "/free-cars")
+                        .param("from", "2024-04-01")
+                        .param("to", "2024-04-05")
+                        .param("carIds", "1,2,3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[1]", is(3)));
+    }
+
+    @Test
+    void findFreeCars_withoutCarIds() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get(baseUrl + "/free-cars")
+                        .param("from", "2024-04-01")
+                        .param("to", "2024-04-01"))
+                .andExpect(status().isBadRequest());
+        verify(bookingService, times(0)).findFreeCars(Mockito.any(), Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    void findFreeCars_invalidPeriod() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get(baseUrl + "/free-cars")
+                        .param("from", "2024-04-05")
+                        .param("to", "2024-04-01"))
+                .andExpect(status().isBadRequest());
+        verify(bookingService, times(0)).findFreeCars(Mockito.any(), Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    void findBookingHistory_firstPage() throws Exception {
+        Booking secondBooking = Booking.builder()
+                .id(2L)
+                .pickUpDate(LocalDate.parse("2024-05-01"))
+                .dropOffDate(LocalDate.parse("2024-05-05")).build();
+        BookingSearchCriteria criteria = BookingSearchCriteria.builder().userId(1L).status(BookingStatus.CONFIRMED).build();
+        when(bookingService.findBookingsAfter(criteria, null, null, 2))
+                .thenReturn(new SliceImpl<>(List.of(booking, secondBooking), PageRequest.of(0, 2), true));
+
+        mockMvc.perform(MockMvcRequestBuilders.get(baseUrl + "/history")
+                        .param("userId", "1")
+                        .param("status", "Confirmed")
+                        .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(header().string(BookingController.NEXT_CURSOR_HEADER, "2024-05-01_2"))
+                .andExpect(header().string("Link", containsString("after=2024-05-01_2>; rel=\"next\"")));
+    }
+
+    @Test
+    void findBookingHistory_lastPage() throws Exception {
+        BookingSearchCriteria criteria = BookingSearchCriteria.builder()
+                .pickUpFrom(LocalDate.parse("2024-01-01"))
+                .pickUpTo(LocalDate.parse("2024-12-31")).build();
+        when(bookingService.findBookingsAfter(criteria, LocalDate.parse("2024-03-01"), 7L, 20))
+                .thenReturn(new SliceImpl<>(List.of(booking), PageRequest.of(0, 20), false));
+
+        mockMvc.perform(MockMvcRequestBuilders.get(baseUrl + "/history")
+                        .param("pickUpFrom", "2024-01-01")
+                        .param("pickUpTo", "2024-12-31")
+                        .param("after", "2024-03-01_7"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(header().doesNotExist(BookingController.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void findBookingHistory_invalidCursor() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get(baseUrl + "/history")
+                        .param("after", "7"))
+                .andExpect(status().isBadRequest());
+        verify(bookingService, never()).findBookingsAfter(any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void findBookingHistory_noContent() throws Exception {
+        when(bookingService.findBookingsAfter(any(), any(), any(), anyInt())).thenReturn(new SliceImpl<>(List.of()));
+
+        mockMvc.perform(MockMvcRequestBuilders.get(baseUrl + "/history"))
+                .andExpect(status().isNoContent());
+    }
+
+    @Test
+    void exportBookings_success() throws Exception {
+        Booking secondBooking = Booking.builder()
+                .id(2L)
+                .pickUpDate(LocalDate.parse("2024-05-01"))
+                .dropOffDate(LocalDate.parse("2024-05-05")).build();
+        when(bookingService.exportBookings(any(), any())).thenAnswer(invocation -> {
+            Consumer<Booking> consumer = invocation.getArgument(1);
+            consumer.accept(booking);
+            consumer.accept(secondBooking);
+            return 2L;
+        });
+
+        MvcResult mvcResult = mockMvc.perform(MockMvcRequestBuilders.get(baseUrl + "/export")
+                        .param("userId", "1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", BookingController.NDJSON_MEDIA_TYPE))
+                .andExpect(content().string(mapper.writeValueAsString(booking) + "\n"
+                        + mapper.writeValueAsString(secondBooking) + "\n"));
+        verify(bookingService, times(1))
+                .exportBookings(eq(BookingSearchCriteria.builder().userId(1L).build()), any());
+    }
+
+    @Test
+    void exportBookings_invalidPeriod() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get(baseUrl + "/export")
+                        .param("pickUpFrom", "2024-05-01")
+                        .param("pickUpTo", "2024-04-01"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void saveBooking_success() throws Exception{
-        Mockito.when(bookingService.saveBooking(booking)).thenReturn(booking);
+        Mockito.when(bookingService.saveBooking(booking)).thenReturn(Optional.of(booking));
 
         MockHttpServletRequestBuilder mockRequest = MockMvcRequestBuilders
                 .post(baseUrl)
@@ -170,9 +313,46 @@ class BookingControllerTest {
                 .andExpect(jsonPath("$.pickUpDate",is("2024-04-01")));
     }
 
+    @Test
+    void saveBooking_carAlreadyBooked() throws Exception{
+        Mockito.when(bookingService.saveBooking(booking)).thenReturn(Optional.empty());
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .post(baseUrl)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(booking)))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void saveBooking_userOrCarNotFound() throws Exception{
+        Mockito.doThrow(new EntityNotFoundException("User with id 1 is not found"))
+                .when(bookingReferenceValidator).validate(booking);
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .post(baseUrl)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(booking)))
+                .andExpect(status().isNotFound());
+        verify(bookingService, never()).saveBooking(any());
+    }
+
+    @Test
+    void saveBooking_referencesCannotBeChecked() throws Exception{
+        Mockito.doThrow(new ResourceAccessException("No instances available for user-service"))
+                .when(bookingReferenceValidator).validate(booking);
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .post(baseUrl)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(booking)))
+                .andExpect(status().isServiceUnavailable());
+        verify(bookingService, never()).saveBooking(any());
+    }
+
     @Test
     void cancelBooking() throws Exception{
-        booking.setStatus("Canceled");
+        booking.setStatus(BookingStatus.CANCELED);
         when(bookingService.findBookingById(booking.getId())).thenReturn(Optional.of(booking));
         when(bookingService.cancelBooking(booking)).thenReturn(booking);
 
@@ -189,9 +369,42 @@ class BookingControllerTest {
         verify(bookingService, times(1)).cancelBooking(booking);
     }
 
+    @Test
+    void cancelBooking_notFound() throws Exception {
+        when(bookingService.cancelBooking(booking)).thenThrow(new EntityNotFoundException("Booking not found"));
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .put(baseUrl + "/{id}/cancel", booking.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(booking)))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void cancelBooking_alreadyCanceled() throws Exception {
+        when(bookingService.cancelBooking(booking)).thenThrow(new IllegalStateException("Booking 1 can not move from Canceled to Canceled"));
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .put(baseUrl + "/{id}/cancel", booking.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(booking)))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void confirmBooking_canceledBooking() throws Exception {
+        when(bookingService.confirmBooking(booking)).thenThrow(new IllegalStateException("Booking 1 can not move from Canceled to Confirmed"));
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .put(baseUrl + "/{id}/confirm", booking.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(booking)))
+                .andExpect(status().isConflict());
+    }
+
     @Test
     void confirmBooking() throws Exception{
-        booking.setStatus("Confirmed");
+        booking.setStatus(BookingStatus.CONFIRMED);
         when(bookingService.findBookingById(booking.getId())).thenReturn(Optional.of(booking));
         when(bookingService.confirmBooking(booking)).thenReturn(booking);
 
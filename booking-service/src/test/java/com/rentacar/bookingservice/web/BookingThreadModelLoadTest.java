@@ -0,0 +1,201 @@
+package com.rentacar.bookingservice.web;
+
+import com.rentacar.bookingservice.BookingServiceApplication;
+import com.rentacar.bookingservice.business.repository.BookingRepository;
+import com.rentacar.bookingservice.business.repository.model.BookingDAO;
+import com.rentacar.bookingservice.model.BookingStatus;
+import lombok.extern.log4j.Log4j2;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the booking endpoints on platform threads and on virtual threads against an embedded database that
+ * answers every statement after a fixed delay, the way a busy MySQL would, and logs throughput and latency
+ * of both. More clients than Tomcat has platform worker threads are used, so the platform run queues in
+ * Tomcat while the virtual run queues only for database connections.
+ * <p>
+ * Run with {@code mvn test -Pload-test}.
+ */
+@Log4j2
+@Tag("load")
+class BookingThreadModelLoadTest {
+
+    private static final int CLIENTS = 400;
+    private static final Duration WARM_UP = Duration.ofSeconds(5);
+    private static final Duration MEASUREMENT = Duration.ofSeconds(20);
+    private static final long STATEMENT_LATENCY_MILLIS = 20;
+
+    record Result(String mode, long requests, long errors, double throughput, double p50Millis, double p99Millis) {
+    }
+
+    @Test
+    void compareThreadModels() throws Exception {
+        Result platform = run(false);
+        Result virtual = run(true);
+
+        log.info("Thread model | requests | errors | req/s | p50 ms | p99 ms");
+        for (Result result : List.of(platform, virtual)) {
+            log.info(String.format("%-12s | %8d | %6d | %7.1f | %6.1f | %6.1f", result.mode(), result.requests(),
+                    result.errors(), result.throughput(), result.p50Millis(), result.p99Millis()));
+        }
+        assertEquals(0, platform.errors());
+        assertEquals(0, virtual.errors());
+        assertTrue(platform.requests() > 0 && virtual.requests() > 0);
+    }
+
+    private Result run(boolean virtualThreads) throws Exception {
+        String mode = virtualThreads ? "virtual" : "platform";
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(
+                BookingServiceApplication.class, SlowDatabaseConfig.class)
+                .run(
+                        "--server.port=0",
+                        "--spring.threads.virtual.enabled=" + virtualThreads,
+                        "--spring.datasource.url=jdbc:h2:mem:load-" + mode + ";DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.show-sql=false",
+                        "--eureka.client.enabled=false",
+                        "--jwt-verification.require-token=false",
+                        "--service-clients.service-account.password=test",
+                        "--booking-service.outbox.relay-interval=PT1H",
+                        "--logging.level.root=WARN",
+                        "--logging.level." + BookingThreadModelLoadTest.class.getName() + "=INFO")) {
+            BookingDAO booking = context.getBean(BookingRepository.class).save(BookingDAO.builder()
+                    .userId(1L)
+                    .carId(1L)
+                    .pickUpDate(LocalDate.parse("2024-06-01"))
+                    .dropOffDate(LocalDate.parse("2024-06-03"))
+                    .status(BookingStatus.CONFIRMED).build());
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            List<URI> uris = List.of(
+                    URI.create("http://localhost:" + port + "/api/v1/booking/" + booking.getId()),
+                    URI.create("http://localhost:" + port + "/api/v1/booking/history?userId=1&size=20"));
+            generateLoad(uris, WARM_UP);
+            return measure(mode, uris);
+        }
+    }
+
+    private Result measure(String mode, List<URI> uris) throws Exception {
+        List<long[]> latencies = generateLoad(uris, MEASUREMENT);
+        long errors = latencies.stream().filter(sample -> sample[1] != 200).count();
+        long[] sortedNanos = latencies.stream().mapToLong(sample -> sample[0]).sorted().toArray();
+        return new Result(mode, sortedNanos.length, errors,
+                sortedNanos.length / (double) MEASUREMENT.toSeconds(),
+                percentileMillis(sortedNanos, 0.50), percentileMillis(sortedNanos, 0.99));
+    }
+
+    /**
+     * @return latency in nanoseconds and HTTP status of every request
+     */
+    private List<long[]> generateLoad(List<URI> uris, Duration duration) throws Exception {
+        // HTTP/2 would multiplex every client over one connection, past the stream limit of the server
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        long deadline = System.nanoTime() + duration.toNanos();
+        AtomicLong sequence = new AtomicLong();
+        List<Future<List<long[]>>> futures = new ArrayList<>();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < CLIENTS; i++) {
+                futures.add(clients.submit(() -> {
+                    List<long[]> samples = new ArrayList<>();
+                    while (System.nanoTime() < deadline) {
+                        URI uri = uris.get((int) (sequence.getAndIncrement() % uris.size()));
+                        long start = System.nanoTime();
+                        int status;
+                        try {
+                            status = client.send(HttpRequest.newBuilder(uri).build(),
+                                    HttpResponse.BodyHandlers.discarding()).statusCode();
+                        } catch (Exception e) {
+                            status = -1;
+                        }
+                        samples.add(new long[]{System.nanoTime() - start, status});
+                    }
+                    return samples;
+                }));
+            }
+            List<long[]> latencies = new ArrayList<>();
+            for (Future<List<long[]>> future : futures) {
+                latencies.addAll(future.get());
+            }
+            return latencies;
+        }
+    }
+
+    private double percentileMillis(long[] sortedNanos, double percentile) {
+        if (sortedNanos.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(0, index)] / 1_000_000.0;
+    }
+
+    /**
+     * Delays every statement by {@link #STATEMENT_LATENCY_MILLIS}, so a request holds its connection as long
+     * as it would against a remote database.
+     */
+    @Configuration
+    static class SlowDatabaseConfig {
+
+        @Bean
+        static BeanPostProcessor slowDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? slow(dataSource, DataSource.class) : bean;
+                }
+            };
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> T slow(T target, Class<T> type) {
+            return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+                if (type == PreparedStatement.class && method.getName().startsWith("execute")) {
+                    Thread.sleep(STATEMENT_LATENCY_MILLIS);
+                }
+                try {
+                    Object result = method.invoke(target, args);
+                    if (result instanceof Connection connection && type == DataSource.class) {
+                        return slow(connection, Connection.class);
+                    }
+                    if (result instanceof PreparedStatement statement && type == Connection.class) {
+                        return slow(statement, PreparedStatement.class);
+                    }
+                    return result;
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            });
+        }
+    }
+}
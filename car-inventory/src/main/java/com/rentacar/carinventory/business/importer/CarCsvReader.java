@@ -0,0 +1,117 @@
+package com.rentacar.carinventory.business.importer;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.rentacar.carinventory.model.Car;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reads cars from CSV one row at a time, so the upload is never held in memory as a whole.
+ * The first row is a header naming the columns; {@code make}, {@code model}, {@code gearbox},
+ * {@code fuel}, {@code year} and {@code price} are required, {@code available} is optional.
+ */
+public class CarCsvReader {
+
+    public interface RowHandler {
+        void onCar(int row, Car car);
+
+        void onError(int row, String message);
+    }
+
+    private static final List<String> REQUIRED_COLUMNS = List.of("make", "model", "gearbox", "fuel", "year", "price");
+
+    private static final CsvMapper CSV_MAPPER = CsvMapper.builder()
+            .enable(CsvParser.Feature.WRAP_AS_ARRAY)
+            .enable(CsvParser.Feature.TRIM_SPACES)
+            .enable(CsvParser.Feature.SKIP_EMPTY_LINES)
+            .build();
+
+    private CarCsvReader() {
+    }
+
+    public static void read(InputStream inputStream, RowHandler handler) throws IOException {
+        try (MappingIterator<String[]> rows = CSV_MAPPER.readerFor(String[].class).readValues(inputStream)) {
+            if (!rows.hasNext()) {
+                return;
+            }
+            Map<String, Integer> columns = readHeader(rows.next());
+            int row = 0;
+            while (rows.hasNext()) {
+                row++;
+                String[] values = rows.next();
+                try {
+                    handler.onCar(row, toCar(columns, values));
+                } catch (IllegalArgumentException e) {
+                    handler.onError(row, e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static Map<String, Integer> readHeader(String[] header) {
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.length; i++) {
+            columns.put(header[i].toLowerCase(Locale.ROOT), i);
+        }
+        for (String column : REQUIRED_COLUMNS) {
+            if (!columns.containsKey(column)) {
+                throw new IllegalArgumentException("CSV header is missing column: " + column);
+            }
+        }
+        return columns;
+    }
+
+    private static Car toCar(Map<String, Integer> columns, String[] values) {
+        String available = value(columns, values, "available");
+        if (available != null && !available.equalsIgnoreCase("true") && !available.equalsIgnoreCase("false")) {
+            throw new IllegalArgumentException("available must be true or false: " + available);
+        }
+        return Car.builder()
+                .make(value(columns, values, "make"))
+                .model(value(columns, values, "model"))
+                .gearbox(value(columns, values, "gearbox"))
+                .fuel(value(columns, values, "fuel"))
+                .year(parseInt(value(columns, values, "year"), "year"))
+                .price(parseDouble(value(columns, values, "price"), "price"))
+                .available(Boolean.parseBoolean(available))
+                .build();
+    }
+
+    private static String value(Map<String, Integer> columns, String[] values, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= values.length || values[index].isEmpty()) {
+            return null;
+        }
+        return values[index];
+    }
+
+    private static int parseInt(String value, String column) {
+        try {
+            return Integer.parseInt(requireValue(value, column));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(column + " is not a whole number: " + value);
+        }
+    }
+
+    private static double parseDouble(String value, String column) {
+        try {
+            return Double.parseDouble(requireValue(value, column));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(column + " is not a number: " + value);
+        }
+    }
+
+    private static String requireValue(String value, String column) {
+        if (value == null) {
+            throw new IllegalArgumentException(column + " must not be empty");
+        }
+        return value;
+    }
+}
@@ -0,0 +1,132 @@
+package com.rentacar.carinventory.business.index;
+
+import com.rentacar.carinventory.business.mappers.CarInventoryMapStructMapper;
+import com.rentacar.carinventory.business.repository.CarInventoryRepository;
+import com.rentacar.carinventory.model.Car;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory view of the available cars ordered by {@code (price, id)}.
+ * <p>
+ * Reads are lock-free range scans over a skip list, so returning the first k cars costs O(log n + k).
+ * Writes are serialised and keep a second map from id to the current key so a car can be moved when
+ * its price or availability changes. Cars are copied on the way in and out, so a caller that changes its
+ * car cannot change the view. The view is built when the application is ready and rebuilt on a fixed delay,
+ * which bounds staleness caused by writes handled by other instances.
+ */
+@Log4j2
+@Component
+public class AvailableCarPriceIndex {
+
+    record PriceKey(double price, long id) implements Comparable<PriceKey> {
+        @Override
+        public int compareTo(PriceKey other) {
+            int byPrice = Double.compare(price, other.price);
+            return byPrice != 0 ? byPrice : Long.compare(id, other.id);
+        }
+    }
+
+    private CarInventoryRepository carInventoryRepository;
+
+    private CarInventoryMapStructMapper carInventoryMapStructMapper;
+
+    /** A lock rather than synchronized, so a virtual thread waiting for a rebuild does not pin its carrier. */
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private volatile ConcurrentSkipListMap<PriceKey, Car> carsByPrice = new ConcurrentSkipListMap<>();
+
+    private volatile Map<Long, PriceKey> keysById = new ConcurrentHashMap<>();
+
+    private volatile boolean ready;
+
+    @Autowired
+    public void setCarInventoryRepository(CarInventoryRepository carInventoryRepository) {
+        this.carInventoryRepository = carInventoryRepository;
+    }
+
+    @Autowired
+    public void setCarInventoryMapStructMapper(CarInventoryMapStructMapper carInventoryMapStructMapper) {
+        this.carInventoryMapStructMapper = carInventoryMapStructMapper;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${car-inventory.available-index.refresh-interval:PT5M}",
+            initialDelayString = "${car-inventory.available-index.refresh-interval:PT5M}")
+    public void rebuild() {
+        writeLock.lock();
+        try {
+            ConcurrentSkipListMap<PriceKey, Car> rebuiltCarsByPrice = new ConcurrentSkipListMap<>();
+            Map<Long, PriceKey> rebuiltKeysById = new ConcurrentHashMap<>();
+            carInventoryRepository.findByAvailableTrue().forEach(carDAO -> {
+                PriceKey key = new PriceKey(carDAO.getPrice(), carDAO.getId());
+                rebuiltCarsByPrice.put(key, carInventoryMapStructMapper.carDAOToCar(carDAO));
+                rebuiltKeysById.put(carDAO.getId(), key);
+            });
+            carsByPrice = rebuiltCarsByPrice;
+            keysById = rebuiltKeysById;
+            ready = true;
+            log.info("Available car price index is built. Size is: {}", rebuiltKeysById.size());
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void upsert(Car car) {
+        writeLock.lock();
+        try {
+            PriceKey previousKey = keysById.remove(car.getId());
+            if (previousKey != null) {
+                carsByPrice.remove(previousKey);
+            }
+            if (car.isAvailable()) {
+                PriceKey key = new PriceKey(car.getPrice(), car.getId());
+                carsByPrice.put(key, car.toBuilder().build());
+                keysById.put(car.getId(), key);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        writeLock.lock();
+        try {
+            PriceKey previousKey = keysById.remove(id);
+            if (previousKey != null) {
+                carsByPrice.remove(previousKey);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public List<Car> findSortedByPrice(Sort.Direction direction, int limit) {
+        NavigableMap<PriceKey, Car> view = direction.isAscending() ? carsByPrice : carsByPrice.descendingMap();
+        List<Car> cars = new ArrayList<>(Math.min(limit, view.size()));
+        for (Car car : view.values()) {
+            if (cars.size() >= limit) {
+                break;
+            }
+            cars.add(car.toBuilder().build());
+        }
+        return cars;
+    }
+}
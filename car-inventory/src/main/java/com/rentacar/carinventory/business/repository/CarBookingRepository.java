@@ -0,0 +1,31 @@
+package com.rentacar.carinventory.business.repository;
+
+import com.rentacar.carinventory.business.repository.model.CarBookingDAO;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface CarBookingRepository extends JpaRepository<CarBookingDAO, Long> {
+
+    /**
+     * Checks whether the car is out with an active booking on the given day.
+     */
+    default boolean isBookedOn(Long carId, LocalDate day) {
+        return existsByCarIdAndActiveTrueAndPickUpDateLessThanEqualAndDropOffDateGreaterThanEqual(carId, day, day);
+    }
+
+    boolean existsByCarIdAndActiveTrueAndPickUpDateLessThanEqualAndDropOffDateGreaterThanEqual(
+            Long carId, LocalDate pickUpDate, LocalDate dropOffDate);
+
+    /**
+     * Finds the cars whose availability may change on the given day: a booking starts that day or ended
+     * the day before.
+     */
+    @Query("SELECT DISTINCT b.carId FROM CarBookingDAO b WHERE b.pickUpDate = :day OR b.dropOffDate = :previousDay")
+    List<Long> findCarIdsChangingOn(@Param("day") LocalDate day, @Param("previousDay") LocalDate previousDay);
+}
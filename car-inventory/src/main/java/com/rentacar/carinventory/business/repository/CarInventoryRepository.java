@@ -1,9 +1,79 @@
 package com.rentacar.carinventory.business.repository;
 
 import com.rentacar.carinventory.business.repository.model.CarDAO;
+import com.rentacar.carinventory.model.ResourceVersion;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
 @Repository
-public interface CarInventoryRepository extends JpaRepository<CarDAO, Long> {
+public interface CarInventoryRepository extends JpaRepository<CarDAO, Long>, JpaSpecificationExecutor<CarDAO> {
+    String EXPORT_FETCH_SIZE = "1000";
+
+    List<CarDAO> findByAvailableTrue();
+
+    List<CarDAO> findByAvailableTrue(Sort sort);
+
+    Slice<CarDAO> findByAvailableTrue(Pageable pageable);
+
+    @Query("SELECT new com.rentacar.carinventory.model.ResourceVersion(c.version, c.updatedAt) " +
+            "FROM CarDAO c WHERE c.id = :id")
+    Optional<ResourceVersion> findVersionById(@Param("id") Long id);
+
+    /**
+     * Overwrites the car in one statement, without loading it first. The version is compared only when
+     * the given car carries one.
+     *
+     * @return number of updated rows, 0 if the car does not exist or its version has changed
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE CarDAO c SET c.make = :#{#car.make}, c.model = :#{#car.model}, " +
+            "c.gearbox = :#{#car.gearbox}, c.fuel = :#{#car.fuel}, c.year = :#{#car.year}, " +
+            "c.price = :#{#car.price}, c.available = :#{#car.available}, " +
+            "c.version = c.version + 1, c.updatedAt = :#{#car.updatedAt} " +
+            "WHERE c.id = :#{#car.id} AND (:#{#car.version} IS NULL OR c.version = :#{#car.version})")
+    int updateCar(@Param("car") CarDAO car);
+
+    /**
+     * Sets the availability flag in one statement, without loading the car first.
+     *
+     * @return 1 if the flag changed, 0 if the car does not exist or already had that availability
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE CarDAO c SET c.available = :available, c.version = c.version + 1, c.updatedAt = :updatedAt " +
+            "WHERE c.id = :id AND c.available <> :available")
+    int updateAvailability(@Param("id") Long id,
+                           @Param("available") boolean available,
+                           @Param("updatedAt") Instant updatedAt);
+
+    /**
+     * Deletes the car in one statement, without loading it first.
+     *
+     * @return number of deleted rows, 0 if the car does not exist
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM CarDAO c WHERE c.id = :id")
+    int deleteCarById(@Param("id") Long id);
+
+    Slice<CarDAO> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("SELECT c FROM CarDAO c ORDER BY c.id")
+    Stream<CarDAO> streamAllOrderById();
 }
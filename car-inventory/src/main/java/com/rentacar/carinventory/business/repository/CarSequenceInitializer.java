@@ -0,0 +1,56 @@
+package com.rentacar.carinventory.business.repository;
+
+import com.rentacar.carinventory.business.repository.model.CarDAO;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.log4j.Log4j2;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Moves the {@code car_seq} table past the ids of existing cars.
+ * <p>
+ * Car ids used to be IDENTITY values, and {@code ddl-auto=update} creates the sequence table starting at 1,
+ * so a database with cars in it would hand out ids that are already taken. Hibernate starts a pooled block
+ * at {@code next_val - allocationSize + 1}, so the table is raised to {@code max(car_id) + allocationSize}.
+ * The update only ever raises the value, which keeps it safe when several instances start at once.
+ */
+@Log4j2
+@Component
+public class CarSequenceInitializer {
+
+    private JdbcTemplate jdbcTemplate;
+
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    public void setJdbcTemplate(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /** Also makes sure Hibernate has created the table before it is seeded. */
+    @Autowired
+    public void setEntityManagerFactory(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @PostConstruct
+    public void seed() {
+        if (entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect()
+                .getSequenceSupport().supportsSequences()) {
+            log.debug("car_seq is a database sequence, nothing to seed");
+            return;
+        }
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(car_id) FROM car", Long.class);
+        if (maxId == null) {
+            return;
+        }
+        long nextValue = maxId + CarDAO.ID_ALLOCATION_SIZE;
+        int updated = jdbcTemplate.update("UPDATE car_seq SET next_val = ? WHERE next_val < ?", nextValue, nextValue);
+        if (updated > 0) {
+            log.info("Moved car_seq past the existing car ids to {}", nextValue);
+        }
+    }
+}
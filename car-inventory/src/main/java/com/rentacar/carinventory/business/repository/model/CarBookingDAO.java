@@ -0,0 +1,49 @@
+package com.rentacar.carinventory.business.repository.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Local copy of a booking, kept up to date from booking events. {@code lastEventId} is the id of the newest
+ * event applied to the row, so redelivered and out-of-date events can be recognised and ignored.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Builder
+@Table(name = "car_booking", indexes = {
+        @Index(name = "idx_car_booking_car_dates", columnList = "car_id, pickup_date, dropoff_date, active"),
+        @Index(name = "idx_car_booking_pickup", columnList = "pickup_date"),
+        @Index(name = "idx_car_booking_dropoff", columnList = "dropoff_date")
+})
+public class CarBookingDAO {
+
+    @Id
+    @Column(name = "booking_id")
+    private Long bookingId;
+
+    @Column(name = "car_id", nullable = false)
+    private Long carId;
+
+    @Column(name = "pickup_date", nullable = false)
+    private LocalDate pickUpDate;
+
+    @Column(name = "dropoff_date", nullable = false)
+    private LocalDate dropOffDate;
+
+    @Column(name = "active", nullable = false)
+    private boolean active;
+
+    @Column(name = "last_event_id", nullable = false)
+    private Long lastEventId;
+}
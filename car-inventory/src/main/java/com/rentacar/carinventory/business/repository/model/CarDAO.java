@@ -6,22 +6,41 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.Instant;
 
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
 @Builder
-@Table(name = "car")
+@Table(name = "car", indexes = {
+        @Index(name = "idx_car_available_price", columnList = "available, price"),
+        @Index(name = "idx_car_make_model_year", columnList = "make, model, year"),
+        @Index(name = "idx_car_fuel_gearbox_price", columnList = "fuel, gearbox, price")
+})
 public class CarDAO {
 
+    public static final int ID_ALLOCATION_SIZE = 100;
+
+    /**
+     * Pooled sequence ids let Hibernate batch inserts, which IDENTITY columns prevent. MySQL has no
+     * sequences, so Hibernate keeps the next value in the {@code car_seq} table and reserves
+     * {@code allocationSize} ids per round trip. Cars saved before the table existed keep their ids, see
+     * {@link com.rentacar.carinventory.business.repository.CarSequenceInitializer}.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "car_seq")
+    @SequenceGenerator(name = "car_seq", sequenceName = "car_seq", allocationSize = ID_ALLOCATION_SIZE)
     @Column(name = "car_id")
     private Long id;
 
@@ -45,4 +64,12 @@ public class CarDAO {
 
     @Column(name="available")
     private boolean available;
+
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private Instant updatedAt;
 }
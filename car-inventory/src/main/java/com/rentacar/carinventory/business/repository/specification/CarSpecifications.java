@@ -0,0 +1,50 @@
+package com.rentacar.carinventory.business.repository.specification;
+
+import com.rentacar.carinventory.business.repository.model.CarDAO;
+import com.rentacar.carinventory.model.CarSearchCriteria;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public final class CarSpecifications {
+
+    private CarSpecifications() {
+    }
+
+    /**
+     * Builds a conjunction of equality and range predicates for every filter set in the criteria.
+     * Only plain column comparisons are used so that the composite indexes on {@link CarDAO} apply.
+     */
+    public static Specification<CarDAO> matching(CarSearchCriteria criteria) {
+        return (root, query, criteriaBuilder) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (criteria.getMake() != null) {
+                predicates.add(criteriaBuilder.equal(root.get("make"), criteria.getMake()));
+            }
+            if (criteria.getModel() != null) {
+                predicates.add(criteriaBuilder.equal(root.get("model"), criteria.getModel()));
+            }
+            if (criteria.getGearbox() != null) {
+                predicates.add(criteriaBuilder.equal(root.get("gearbox"), criteria.getGearbox()));
+            }
+            if (criteria.getFuel() != null) {
+                predicates.add(criteriaBuilder.equal(root.get("fuel"), criteria.getFuel()));
+            }
+            if (criteria.getYear() != null) {
+                predicates.add(criteriaBuilder.equal(root.get("year"), criteria.getYear()));
+            }
+            if (criteria.getMinPrice() != null) {
+                predicates.add(criteriaBuilder.greaterThanOrEqualTo(root.get("price"), criteria.getMinPrice()));
+            }
+            if (criteria.getMaxPrice() != null) {
+                predicates.add(criteriaBuilder.lessThanOrEqualTo(root.get("price"), criteria.getMaxPrice()));
+            }
+            if (criteria.getAvailable() != null) {
+                predicates.add(criteriaBuilder.equal(root.get("available"), criteria.getAvailable()));
+            }
+            return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+}
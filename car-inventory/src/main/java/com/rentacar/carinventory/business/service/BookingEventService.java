@@ -0,0 +1,19 @@
+package com.rentacar.carinventory.business.service;
+
+import com.rentacar.carinventory.model.BookingEvent;
+
+import java.util.List;
+
+public interface BookingEventService {
+
+    /**
+     * Applies the booking events and updates the availability of the affected cars. Events already applied,
+     * or older than one already applied to the same booking, are skipped, so a batch can be delivered more
+     * than once.
+     *
+     * @return number of events that changed the local bookings
+     */
+    int applyBookingEvents(List<BookingEvent> events);
+
+    void refreshAvailability();
+}
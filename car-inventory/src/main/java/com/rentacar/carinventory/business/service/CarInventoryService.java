@@ -1,22 +1,52 @@
 package com.rentacar.carinventory.business.service;
 
 import com.rentacar.carinventory.model.Car;
-
+import com.rentacar.carinventory.model.CarImportResult;
+import com.rentacar.carinventory.model.CarSearchCriteria;
+import com.rentacar.carinventory.model.ResourceVersion;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface CarInventoryService {
+
+    int NO_LIMIT = Integer.MAX_VALUE;
+
     Car saveCar(Car car);
 
     Car updateCar(Car car);
 
+    CarImportResult importCars(List<Car> cars);
+
+    CarImportResult importCarsFromCsv(InputStream inputStream) throws IOException;
+
     List<Car> findAllCars();
 
+    Page<Car> findCarsPage(int page, int size);
+
+    Slice<Car> findCarsAfterId(Long afterId, int size);
+
+    long exportCars(Consumer<Car> consumer);
+
+    Page<Car> searchCars(CarSearchCriteria criteria, Pageable pageable);
+
     Optional<Car> findCarById(Long id);
 
-    void deleteCarById(Long id);
+    Optional<ResourceVersion> findCarVersionById(Long id);
+
+    boolean deleteCarById(Long id);
 
     List<Car> findAvailableCars();
 
-    List<Car> findAllAvailableCarsSortedByPriceAsc();
+    /**
+     * @param limit maximum number of cars to return, or {@link #NO_LIMIT} for all of them
+     */
+    List<Car> findAvailableCarsSortedByPrice(Sort.Direction direction, int limit);
 }
@@ -0,0 +1,151 @@
+package com.rentacar.carinventory.business.service.impl;
+
+import com.rentacar.carinventory.business.index.AvailableCarPriceIndex;
+import com.rentacar.carinventory.business.mappers.CarInventoryMapStructMapper;
+import com.rentacar.carinventory.business.repository.CarBookingRepository;
+import com.rentacar.carinventory.business.repository.CarInventoryRepository;
+import com.rentacar.carinventory.business.repository.model.CarBookingDAO;
+import com.rentacar.carinventory.business.service.BookingEventService;
+import com.rentacar.carinventory.config.CacheConfig;
+import com.rentacar.carinventory.model.BookingEvent;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static com.rentacar.carinventory.business.service.impl.TransactionCallbacks.afterCommit;
+
+/**
+ * Keeps {@code car.available} in line with bookings: a car is unavailable while an active booking covers
+ * the current day. Events only touch the cars whose current day they affect, and a daily run handles the
+ * cars whose bookings start or end with the new day, so no full reconciliation is needed.
+ * <p>
+ * The car cache and the price index are only told about changed cars once the transaction commits: earlier,
+ * a concurrent read could cache the old row again, and a rollback would leave the index ahead of the table.
+ */
+@Log4j2
+@Service
+public class BookingEventServiceImpl implements BookingEventService {
+
+    private CarBookingRepository carBookingRepository;
+
+    private CarInventoryRepository carInventoryRepository;
+
+    private CarInventoryMapStructMapper carInventoryMapStructMapper;
+
+    private AvailableCarPriceIndex availableCarPriceIndex;
+
+    private CacheManager cacheManager;
+
+    @Autowired
+    public void setCarBookingRepository(CarBookingRepository carBookingRepository) {
+        this.carBookingRepository = carBookingRepository;
+    }
+
+    @Autowired
+    public void setCarInventoryRepository(CarInventoryRepository carInventoryRepository) {
+        this.carInventoryRepository = carInventoryRepository;
+    }
+
+    @Autowired
+    public void setCarInventoryMapStructMapper(CarInventoryMapStructMapper carInventoryMapStructMapper) {
+        this.carInventoryMapStructMapper = carInventoryMapStructMapper;
+    }
+
+    @Autowired
+    public void setAvailableCarPriceIndex(AvailableCarPriceIndex availableCarPriceIndex) {
+        this.availableCarPriceIndex = availableCarPriceIndex;
+    }
+
+    @Autowired
+    public void setCacheManager(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    @Override
+    @Transactional
+    public int applyBookingEvents(List<BookingEvent> events) {
+        LocalDate today = LocalDate.now();
+        Set<Long> affectedCarIds = new LinkedHashSet<>();
+        int applied = 0;
+        for (BookingEvent event : events) {
+            CarBookingDAO carBooking = carBookingRepository.findById(event.getBookingId()).orElse(null);
+            if (carBooking != null && carBooking.getLastEventId() >= event.getEventId()) {
+                log.debug("Skip booking event {}, booking {} is at event {}",
+                        event.getEventId(), event.getBookingId(), carBooking.getLastEventId());
+                continue;
+            }
+            if (carBooking == null) {
+                carBooking = CarBookingDAO.builder().bookingId(event.getBookingId()).build();
+            } else if (covers(carBooking, today)) {
+                affectedCarIds.add(carBooking.getCarId());
+            }
+            carBooking.setCarId(event.getCarId());
+            carBooking.setPickUpDate(event.getPickUpDate());
+            carBooking.setDropOffDate(event.getDropOffDate());
+            carBooking.setActive(!BookingEvent.CANCELED_STATUS.equalsIgnoreCase(event.getStatus()));
+            carBooking.setLastEventId(event.getEventId());
+            carBookingRepository.save(carBooking);
+            if (covers(carBooking, today)) {
+                affectedCarIds.add(carBooking.getCarId());
+            }
+            applied++;
+        }
+        Set<Long> changedCarIds = refreshAvailability(affectedCarIds, today);
+        afterCommit(() -> publishChangedCars(changedCarIds));
+        log.info("Applied {} of {} booking events, {} cars affected today", applied, events.size(), affectedCarIds.size());
+        return applied;
+    }
+
+    @Override
+    @Transactional
+    @Scheduled(cron = "${car-inventory.booking-events.availability-cron:0 0 0 * * *}")
+    public void refreshAvailability() {
+        LocalDate today = LocalDate.now();
+        List<Long> carIds = carBookingRepository.findCarIdsChangingOn(today, today.minusDays(1));
+        Set<Long> changedCarIds = refreshAvailability(carIds, today);
+        afterCommit(() -> publishChangedCars(changedCarIds));
+        log.info("Refreshed availability of {} cars for {}", carIds.size(), today);
+    }
+
+    /**
+     * @return the cars whose availability has changed
+     */
+    private Set<Long> refreshAvailability(Collection<Long> carIds, LocalDate today) {
+        Set<Long> changedCarIds = new LinkedHashSet<>();
+        for (Long carId : carIds) {
+            boolean available = !carBookingRepository.isBookedOn(carId, today);
+            if (carInventoryRepository.updateAvailability(carId, available, Instant.now()) > 0) {
+                log.debug("Car {} is now {}", carId, available ? "available" : "unavailable");
+                changedCarIds.add(carId);
+            }
+        }
+        return changedCarIds;
+    }
+
+    private void publishChangedCars(Set<Long> carIds) {
+        Cache cache = cacheManager.getCache(CacheConfig.CARS_CACHE);
+        for (Long carId : carIds) {
+            if (cache != null) {
+                cache.evict(carId);
+            }
+            carInventoryRepository.findById(carId)
+                    .map(carInventoryMapStructMapper::carDAOToCar)
+                    .ifPresent(availableCarPriceIndex::upsert);
+        }
+    }
+
+    private boolean covers(CarBookingDAO carBooking, LocalDate day) {
+        return !carBooking.getPickUpDate().isAfter(day) && !carBooking.getDropOffDate().isBefore(day);
+    }
+}
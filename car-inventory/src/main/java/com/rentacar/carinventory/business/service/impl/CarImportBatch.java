@@ -0,0 +1,92 @@
+package com.rentacar.carinventory.business.service.impl;
+
+import com.rentacar.carinventory.model.Car;
+import com.rentacar.carinventory.model.CarImportError;
+import com.rentacar.carinventory.model.CarImportResult;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.dao.DataAccessException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Collects validated import rows and hands them to the writer in fixed size chunks, so each chunk is
+ * saved as one JDBC batch in its own transaction. A chunk that fails to save is reported row by row.
+ */
+@Log4j2
+class CarImportBatch {
+
+    private final int chunkSize;
+
+    private final Validator validator;
+
+    private final Consumer<List<Car>> chunkWriter;
+
+    private final List<Car> chunk;
+
+    private final List<Integer> chunkRows;
+
+    private final CarImportResult result = new CarImportResult();
+
+    CarImportBatch(int chunkSize, Validator validator, Consumer<List<Car>> chunkWriter) {
+        this.chunkSize = chunkSize;
+        this.validator = validator;
+        this.chunkWriter = chunkWriter;
+        this.chunk = new ArrayList<>(chunkSize);
+        this.chunkRows = new ArrayList<>(chunkSize);
+    }
+
+    void add(int row, Car car) {
+        if (car == null) {
+            reject(row, "row is empty");
+            return;
+        }
+        if (car.getId() != null) {
+            reject(row, "id must not be set for imported cars");
+            return;
+        }
+        Set<ConstraintViolation<Car>> violations = validator.validate(car);
+        if (!violations.isEmpty()) {
+            reject(row, violations.stream()
+                    .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", ")));
+            return;
+        }
+        chunk.add(car);
+        chunkRows.add(row);
+        if (chunk.size() >= chunkSize) {
+            flush();
+        }
+    }
+
+    void reject(int row, String message) {
+        result.getErrors().add(new CarImportError(row, message));
+        result.setFailed(result.getFailed() + 1);
+    }
+
+    CarImportResult finish() {
+        flush();
+        return result;
+    }
+
+    private void flush() {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try {
+            chunkWriter.accept(List.copyOf(chunk));
+            result.setImported(result.getImported() + chunk.size());
+        } catch (DataAccessException e) {
+            log.error("Car import chunk of rows {}-{} failed", chunkRows.get(0), chunkRows.get(chunkRows.size() - 1), e);
+            chunkRows.forEach(row -> reject(row, "could not be saved: " + e.getMostSpecificCause().getMessage()));
+        }
+        chunk.clear();
+        chunkRows.clear();
+    }
+}
@@ -1,28 +1,62 @@
 package com.rentacar.carinventory.business.service.impl;
 
+import com.rentacar.carinventory.business.importer.CarCsvReader;
+import com.rentacar.carinventory.business.index.AvailableCarPriceIndex;
 import com.rentacar.carinventory.business.mappers.CarInventoryMapStructMapper;
 import com.rentacar.carinventory.business.repository.CarInventoryRepository;
 import com.rentacar.carinventory.business.repository.model.CarDAO;
+import com.rentacar.carinventory.business.repository.specification.CarSpecifications;
 import com.rentacar.carinventory.business.service.CarInventoryService;
+import com.rentacar.carinventory.config.CacheConfig;
 import com.rentacar.carinventory.model.Car;
+import com.rentacar.carinventory.model.CarImportResult;
+import com.rentacar.carinventory.model.CarSearchCriteria;
+import com.rentacar.carinventory.model.ResourceVersion;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.validation.Validator;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
-import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.rentacar.carinventory.business.service.impl.TransactionCallbacks.afterCommit;
 
 @Log4j2
 @Service
 public class CarInventoryServiceImpl implements CarInventoryService {
+    /** Matches hibernate.jdbc.batch_size so every chunk goes out as a single JDBC batch. */
+    static final int IMPORT_CHUNK_SIZE = 500;
+
     private CarInventoryRepository carInventoryRepository;
 
     private CarInventoryMapStructMapper carInventoryMapStructMapper;
 
+    private EntityManager entityManager;
+
+    private AvailableCarPriceIndex availableCarPriceIndex;
+
+    private Validator validator;
+
+    private CacheManager cacheManager;
+
     @Autowired
     public void setCarInventoryRepository(CarInventoryRepository carInventoryRepository){
         this.carInventoryRepository = carInventoryRepository;
@@ -33,25 +67,111 @@ public class CarInventoryServiceImpl implements CarInventoryService {
         this.carInventoryMapStructMapper = carInventoryMapStructMapper;
     }
 
+    @Autowired
+    public void setEntityManager(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Autowired
+    public void setAvailableCarPriceIndex(AvailableCarPriceIndex availableCarPriceIndex) {
+        this.availableCarPriceIndex = availableCarPriceIndex;
+    }
+
+    @Autowired
+    public void setValidator(Validator validator) {
+        this.validator = validator;
+    }
+
+    @Autowired
+    public void setCacheManager(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
     @Override
     public Car saveCar(Car car) {
         CarDAO carDAO = carInventoryMapStructMapper.carToCarDAO(car);
         CarDAO savedCar = carInventoryRepository.save(carDAO);
         log.info("New car is saved: {}", savedCar);
-        return carInventoryMapStructMapper.carDAOToCar(carDAO);
+        Car result = carInventoryMapStructMapper.carDAOToCar(carDAO);
+        afterCommit(() -> {
+            putCachedCar(result);
+            availableCarPriceIndex.upsert(result);
+        });
+        return result;
     }
 
+    /**
+     * The cache and the price index only see the new version once it is committed, so a rollback or a lost
+     * version race leaves them as they were.
+     */
     @Override
+    @Transactional
     public Car updateCar(Car car) {
         Long id = car.getId();
-        if (!carInventoryRepository.findById(id).isPresent()) {
-            log.error("Car is not found by id: {}", HttpStatus.BAD_REQUEST);
+        CarDAO carDAO = carInventoryMapStructMapper.carToCarDAO(car);
+        Long expectedVersion = carDAO.getVersion();
+        carDAO.setUpdatedAt(Instant.now());
+        if (carInventoryRepository.updateCar(carDAO) == 0) {
+            if (expectedVersion != null && carInventoryRepository.existsById(id)) {
+                log.warn("Car with id {} is not at version {}", id, expectedVersion);
+                throw new ObjectOptimisticLockingFailureException(CarDAO.class, id);
+            }
+            log.error("Car is not found by id: {}", id);
             throw new EntityNotFoundException("Car is not found by id");
         }
-        CarDAO updatedCar =
-                carInventoryRepository.save(carInventoryMapStructMapper.carToCarDAO(car));
-        log.info("Car updated: {}", () -> updatedCar);
-        return carInventoryMapStructMapper.carDAOToCar(updatedCar);
+        // without If-Match the new version is unknown, so the cached copy is evicted instead of replaced
+        carDAO.setVersion(expectedVersion == null ? null : expectedVersion + 1);
+        log.info("Car updated: {}", () -> carDAO);
+        Car result = carInventoryMapStructMapper.carDAOToCar(carDAO);
+        afterCommit(() -> {
+            if (result.getVersion() == null) {
+                evictCachedCar(id);
+            } else {
+                putCachedCar(result);
+            }
+            availableCarPriceIndex.upsert(result);
+        });
+        return result;
+    }
+
+    @Override
+    public CarImportResult importCars(List<Car> cars) {
+        CarImportBatch batch = new CarImportBatch(IMPORT_CHUNK_SIZE, validator, this::saveImportChunk);
+        for (int i = 0; i < cars.size(); i++) {
+            batch.add(i + 1, cars.get(i));
+        }
+        CarImportResult result = batch.finish();
+        log.info("Car import finished. Imported: {}, failed: {}", result.getImported(), result.getFailed());
+        return result;
+    }
+
+    @Override
+    public CarImportResult importCarsFromCsv(InputStream inputStream) throws IOException {
+        CarImportBatch batch = new CarImportBatch(IMPORT_CHUNK_SIZE, validator, this::saveImportChunk);
+        CarCsvReader.read(inputStream, new CarCsvReader.RowHandler() {
+            @Override
+            public void onCar(int row, Car car) {
+                batch.add(row, car);
+            }
+
+            @Override
+            public void onError(int row, String message) {
+                batch.reject(row, message);
+            }
+        });
+        CarImportResult result = batch.finish();
+        log.info("Car CSV import finished. Imported: {}, failed: {}", result.getImported(), result.getFailed());
+        return result;
+    }
+
+    private void saveImportChunk(List<Car> cars) {
+        List<CarDAO> carDAOs = cars.stream()
+                .map(carInventoryMapStructMapper::carToCarDAO)
+                .collect(Collectors.toList());
+        List<CarDAO> savedCarDAOs = carInventoryRepository.saveAll(carDAOs);
+        List<Car> savedCars = savedCarDAOs.stream().map(carInventoryMapStructMapper::carDAOToCar).toList();
+        afterCommit(() -> savedCars.forEach(availableCarPriceIndex::upsert));
+        log.debug("Saved car import chunk. Size is: {}", savedCarDAOs.size());
     }
 
     @Override
@@ -61,34 +181,127 @@ public class CarInventoryServiceImpl implements CarInventoryService {
         return carDAOList.stream().map(carInventoryMapStructMapper::carDAOToCar).collect(Collectors.toList());
     }
 
+    @Override
+    public Page<Car> findCarsPage(int page, int size) {
+        Page<CarDAO> carDAOPage = carInventoryRepository.findAll(PageRequest.of(page, size, Sort.by("id")));
+        log.info("Get car page {} of {}. Size is: {}", page, carDAOPage.getTotalPages(), carDAOPage.getNumberOfElements());
+        return carDAOPage.map(carInventoryMapStructMapper::carDAOToCar);
+    }
+
+    @Override
+    public Slice<Car> findCarsAfterId(Long afterId, int size) {
+        Slice<CarDAO> carDAOSlice = carInventoryRepository.findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.of(0, size));
+        log.info("Get car list after id {}. Size is: {}", afterId, carDAOSlice.getNumberOfElements());
+        return carDAOSlice.map(carInventoryMapStructMapper::carDAOToCar);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportCars(Consumer<Car> consumer) {
+        long exported = 0;
+        try (Stream<CarDAO> carDAOStream = carInventoryRepository.streamAllOrderById()) {
+            for (CarDAO carDAO : (Iterable<CarDAO>) carDAOStream::iterator) {
+                consumer.accept(carInventoryMapStructMapper.carDAOToCar(carDAO));
+                // keep the persistence context from growing with the size of the fleet
+                entityManager.detach(carDAO);
+                exported++;
+            }
+        }
+        log.info("Exported {} cars", exported);
+        return exported;
+    }
+
+    @Override
+    public Page<Car> searchCars(CarSearchCriteria criteria, Pageable pageable) {
+        // id as the last sort key keeps page boundaries stable when sort values repeat
+        Sort sort = pageable.getSort();
+        Pageable stablePageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(),
+                sort.getOrderFor("id") == null ? sort.and(Sort.by("id")) : sort);
+        Page<CarDAO> carDAOPage = carInventoryRepository.findAll(CarSpecifications.matching(criteria), stablePageable);
+        log.info("Search cars by {}. Found {} of {}", criteria, carDAOPage.getNumberOfElements(),
+                carDAOPage.getTotalElements());
+        return carDAOPage.map(carInventoryMapStructMapper::carDAOToCar);
+    }
+
+    /**
+     * Reads through the car cache. The cache keeps its own copy of a car, so a caller that changes the
+     * returned car cannot change what other callers get.
+     */
     @Override
     public Optional<Car> findCarById(Long id) {
+        Cache cache = cacheManager.getCache(CacheConfig.CARS_CACHE);
+        Car cachedCar = cache == null ? null : cache.get(id, Car.class);
+        if (cachedCar != null) {
+            log.debug("Car with id {} is found in the cache", id);
+            return Optional.of(cachedCar.toBuilder().build());
+        }
         Optional<Car> carById = carInventoryRepository.findById(id)
                 .flatMap(car -> Optional.ofNullable(carInventoryMapStructMapper.carDAOToCar(car)));
+        carById.ifPresent(this::putCachedCar);
         log.info("Car with id {} is {}", id, carById);
         return carById;
     }
 
     @Override
-    public void deleteCarById(Long id) {
-        carInventoryRepository.deleteById(id);
+    public Optional<ResourceVersion> findCarVersionById(Long id) {
+        Optional<ResourceVersion> version = carInventoryRepository.findVersionById(id);
+        log.debug("Car with id {} has version {}", id, version);
+        return version;
+    }
+
+    @Override
+    @Transactional
+    public boolean deleteCarById(Long id) {
+        if (carInventoryRepository.deleteCarById(id) == 0) {
+            log.warn("Car with id {} is not found for deletion", id);
+            return false;
+        }
+        afterCommit(() -> {
+            evictCachedCar(id);
+            availableCarPriceIndex.remove(id);
+        });
         log.info("Car with id {} is deleted", id);
+        return true;
     }
 
     @Override
     public List<Car> findAvailableCars() {
-        return carInventoryRepository.findAll().stream()
-                .filter(CarDAO::isAvailable)
+        List<CarDAO> availableCarDAOs = carInventoryRepository.findByAvailableTrue();
+        log.info("Get available car list. Size is: {}", availableCarDAOs::size);
+        return availableCarDAOs.stream()
                 .map(carInventoryMapStructMapper::carDAOToCar)
                 .collect(Collectors.toList());
     }
 
     @Override
-    public List<Car> findAllAvailableCarsSortedByPriceAsc() {
-        List<CarDAO> sortedCarDAOs = carInventoryRepository.findAll(Sort.by(Sort.Direction.ASC, "price"));
+    public List<Car> findAvailableCarsSortedByPrice(Sort.Direction direction, int limit) {
+        if (availableCarPriceIndex.isReady()) {
+            List<Car> sortedCars = availableCarPriceIndex.findSortedByPrice(direction, limit);
+            log.info("Get available car list sorted by price {} from index. Size is: {}", direction, sortedCars.size());
+            return sortedCars;
+        }
+        Sort byPrice = Sort.by(direction, "price").and(Sort.by(direction, "id"));
+        // a slice reads one row more than its size, which overflows when there is no limit
+        List<CarDAO> sortedCarDAOs = limit == NO_LIMIT
+                ? carInventoryRepository.findByAvailableTrue(byPrice)
+                : carInventoryRepository.findByAvailableTrue(PageRequest.of(0, limit, byPrice)).getContent();
+        log.info("Get available car list sorted by price {}. Size is: {}", direction, sortedCarDAOs.size());
         return sortedCarDAOs.stream()
-                .filter(car -> car.isAvailable())
                 .map(carInventoryMapStructMapper::carDAOToCar)
                 .collect(Collectors.toList());
     }
+
+    private void putCachedCar(Car car) {
+        Cache cache = cacheManager.getCache(CacheConfig.CARS_CACHE);
+        if (cache != null) {
+            cache.put(car.getId(), car.toBuilder().build());
+        }
+    }
+
+    private void evictCachedCar(Long id) {
+        Cache cache = cacheManager.getCache(CacheConfig.CARS_CACHE);
+        if (cache != null) {
+            cache.evict(id);
+        }
+    }
 }
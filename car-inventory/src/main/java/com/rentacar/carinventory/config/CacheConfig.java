@@ -0,0 +1,15 @@
+package com.rentacar.carinventory.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Enables the Caffeine backed car cache. Size, TTL and statistics recording are set with
+ * {@code spring.cache.caffeine.spec}; hit, miss and eviction counters are published by actuator
+ * under the {@code cache.*} metrics.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    public static final String CARS_CACHE = "cars";
+}
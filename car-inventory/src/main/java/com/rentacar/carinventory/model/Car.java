@@ -1,5 +1,6 @@
 package com.rentacar.carinventory.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import io.swagger.annotations.ApiModel;
 import io.swagger.annotations.ApiModelProperty;
 import jakarta.validation.constraints.NotNull;
@@ -8,11 +9,13 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.Instant;
+
 @ApiModel(description = "Model of car data")
 @NoArgsConstructor
 @AllArgsConstructor
 @Data
-@Builder
+@Builder(toBuilder = true)
 public class Car {
 
     @ApiModelProperty(notes = "The unique id of the car")
@@ -44,4 +47,12 @@ public class Car {
 
     @ApiModelProperty(notes = "Availability")
     private boolean available;
+
+    @ApiModelProperty(hidden = true)
+    @JsonIgnore
+    private Long version;
+
+    @ApiModelProperty(hidden = true)
+    @JsonIgnore
+    private Instant updatedAt;
 }
@@ -0,0 +1,22 @@
+package com.rentacar.carinventory.model;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@ApiModel(description = "Rejected row of a car import")
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+public class CarImportError {
+
+    @ApiModelProperty(notes = "One-based number of the rejected row, not counting the CSV header")
+    private int row;
+
+    @ApiModelProperty(notes = "Reason why the row was rejected")
+    private String message;
+}
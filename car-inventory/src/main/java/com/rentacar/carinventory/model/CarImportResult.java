@@ -0,0 +1,29 @@
+package com.rentacar.carinventory.model;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@ApiModel(description = "Summary of a car import")
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+public class CarImportResult {
+
+    @ApiModelProperty(notes = "Number of cars saved")
+    private int imported;
+
+    @ApiModelProperty(notes = "Number of rows rejected")
+    private int failed;
+
+    @ApiModelProperty(notes = "Rejected rows with the reason")
+    @Builder.Default
+    private List<CarImportError> errors = new ArrayList<>();
+}
@@ -0,0 +1,40 @@
+package com.rentacar.carinventory.model;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@ApiModel(description = "Optional filters for car search. Filters that are not set are ignored")
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+public class CarSearchCriteria {
+
+    @ApiModelProperty(notes = "The manufacturer brand of the vehicle")
+    private String make;
+
+    @ApiModelProperty(notes = "Model of a car")
+    private String model;
+
+    @ApiModelProperty(notes = "Type of transmission")
+    private String gearbox;
+
+    @ApiModelProperty(notes = "Fuel type")
+    private String fuel;
+
+    @ApiModelProperty(notes = "The manufacture year of a car")
+    private Integer year;
+
+    @ApiModelProperty(notes = "Lowest rental price in euro per day, inclusive")
+    private Double minPrice;
+
+    @ApiModelProperty(notes = "Highest rental price in euro per day, inclusive")
+    private Double maxPrice;
+
+    @ApiModelProperty(notes = "Availability")
+    private Boolean available;
+}
@@ -9,12 +9,20 @@ public class HTMLResponseMessages {
             "with this response code. Example data can be seen below";
     public static final String HTTP_204_WITHOUT_DATA = "Successful request deletes requested data and returns this " +
             "response code";
+    public static final String HTTP_304 = "Conditional request responds with this code without a body when the " +
+            "resource still matches the ETag or has not changed since the date sent by the client";
     public static final String HTTP_400 = "Unsuccessful request responds with this code. Passed data has errors - " +
             "fields have incorrect values or there are missing fields";
+    public static final String HTTP_401 = "Unsuccessful request responds with this code. No valid bearer token is " +
+            "sent in the Authorization header";
+    public static final String HTTP_403 = "Unsuccessful request responds with this code. The user of the bearer " +
+            "token is not allowed to make this request";
     public static final String HTTP_404 = "Unsuccessful request responds with this code. Requested resource has not " +
             "been found";
     public static final String HTTP_409 = "Unsuccessful request responds with this code. Passed data is conflicting " +
             "with already existent data";
+    public static final String HTTP_412 = "Unsuccessful request responds with this code. The resource has been " +
+            "changed since the version sent in the If-Match header";
     public static final String HTTP_500 = "Unsuccessful request responds with this code. Internal server error. " +
             "Check the response headers for information";
 }
@@ -0,0 +1,65 @@
+package com.rentacar.carinventory.web;
+
+import com.rentacar.carinventory.business.service.BookingEventService;
+import com.rentacar.carinventory.model.BookingEvent;
+import com.rentacar.carinventory.swagger.DescriptionVariables;
+import com.rentacar.carinventory.swagger.HTMLResponseMessages;
+import com.rentacar.jwtverification.JwtPrincipal;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import springfox.documentation.annotations.ApiIgnore;
+
+import java.util.List;
+
+@Api(tags = {DescriptionVariables.CAR_INVENTORY})
+@Log4j2
+@RestController
+@RequestMapping("/api/v1/car/booking-events")
+public class BookingEventController {
+
+    private BookingEventService bookingEventService;
+
+    @Autowired
+    public void setBookingEventService(BookingEventService bookingEventService) {
+        this.bookingEventService = bookingEventService;
+    }
+
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+    @ApiOperation(value = "Applies booking events published by booking-service",
+            notes = "Updates the availability of the booked cars. Delivery is at least once: events that were " +
+                    "already applied are skipped. Returns the number of events that changed anything",
+            response = Integer.class)
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = HTMLResponseMessages.HTTP_200),
+            @ApiResponse(code = 400, message = HTMLResponseMessages.HTTP_400),
+            @ApiResponse(code = 401, message = HTMLResponseMessages.HTTP_401),
+            @ApiResponse(code = 403, message = HTMLResponseMessages.HTTP_403),
+            @ApiResponse(code = 500, message = HTMLResponseMessages.HTTP_500)})
+    public ResponseEntity<Integer> applyBookingEvents(@RequestBody List<BookingEvent> events,
+                                                      @ApiIgnore JwtPrincipal principal) {
+        if (!principal.hasRole(JwtPrincipal.SERVICE_ROLE)) {
+            log.warn("User {} is not allowed to apply booking events", principal.username());
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        for (BookingEvent event : events) {
+            if (event.getEventId() == null || event.getBookingId() == null || event.getCarId() == null
+                    || event.getPickUpDate() == null || event.getDropOffDate() == null) {
+                log.warn("Rejected incomplete booking event: {}", event);
+                return ResponseEntity.badRequest().build();
+            }
+        }
+        log.info("Received {} booking events", events.size());
+        return ResponseEntity.ok(bookingEventService.applyBookingEvents(events));
+    }
+}
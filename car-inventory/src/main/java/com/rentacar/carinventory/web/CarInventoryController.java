@@ -1,7 +1,14 @@
 package com.rentacar.carinventory.web;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.rentacar.carinventory.business.service.CarInventoryService;
 import com.rentacar.carinventory.model.Car;
+import com.rentacar.carinventory.model.CarImportResult;
+import com.rentacar.carinventory.model.CarSearchCriteria;
+import com.rentacar.carinventory.model.ResourceVersion;
 import com.rentacar.carinventory.swagger.DescriptionVariables;
 import com.rentacar.carinventory.swagger.HTMLResponseMessages;
 
@@ -10,27 +17,54 @@ import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiResponses;
 import io.swagger.annotations.ApiResponse;
 import io.swagger.annotations.ApiParam;
+import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.lang.NonNull;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+
+import static com.rentacar.serviceclients.ConditionalRequests.checkNotModified;
+import static com.rentacar.serviceclients.ConditionalRequests.isConditional;
+import static com.rentacar.serviceclients.ConditionalRequests.parseIfMatch;
+import static com.rentacar.serviceclients.ConditionalRequests.withVersionHeaders;
 
 @Api(tags = {DescriptionVariables.CAR_INVENTORY})
 @Log4j2
@@ -38,13 +72,26 @@ import java.util.Optional;
 @Validated
 @RequestMapping("/api/v1/car")
 public class CarInventoryController {
+    public static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final Set<String> SORTABLE_PROPERTIES = Set.of("id", "make", "model", "gearbox", "fuel", "year", "price");
+
     private CarInventoryService carInventoryService;
 
+    private ObjectMapper objectMapper;
+
     @Autowired
     public void setCarInventoryService(CarInventoryService carInventoryService) {
         this.carInventoryService = carInventoryService;
     }
 
+    @Autowired
+    public void setObjectMapper(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
     @GetMapping
     @ApiOperation(value = "Finds all cars",
             notes = "Returns the list of cars",
@@ -65,6 +112,165 @@ public class CarInventoryController {
         log.debug("Car list size: {}", carList.size());
         return ResponseEntity.ok(carList);
     }
+
+    @GetMapping(params = "page")
+    @ApiOperation(value = "Finds a page of cars",
+            notes = "Returns one page of cars ordered by id. Total count is returned in the X-Total-Count header " +
+                    "and navigation links in the Link header",
+            response = Car.class,
+            responseContainer = "List")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = HTMLResponseMessages.HTTP_200),
+            @ApiResponse(code = 400, message = HTMLResponseMessages.HTTP_400),
+            @ApiResponse(code = 404, message = HTMLResponseMessages.HTTP_404),
+            @ApiResponse(code = 500, message = HTMLResponseMessages.HTTP_500)})
+    public ResponseEntity<List<Car>> findCarsPage(@ApiParam(value = "Zero-based page number", required = true)
+                                                  @RequestParam int page,
+                                                  @ApiParam(value = "Page size, at most " + MAX_PAGE_SIZE)
+                                                  @RequestParam(defaultValue = "20") int size) {
+        if (page < 0 || size <= 0) {
+            log.warn("Invalid page request: page {}, size {}", page, size);
+            return ResponseEntity.badRequest().build();
+        }
+        log.info("Retrieve page {} of cars with size {}", page, size);
+        Page<Car> carPage = carInventoryService.findCarsPage(page, Math.min(size, MAX_PAGE_SIZE));
+        if (carPage.isEmpty()) {
+            log.warn("Car page {} is empty.", page);
+            return ResponseEntity.noContent().build();
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(TOTAL_COUNT_HEADER, String.valueOf(carPage.getTotalElements()));
+        headers.add(HttpHeaders.LINK, pageLinks(carPage));
+        log.debug("Car page {} size: {}", page, carPage.getNumberOfElements());
+        return ResponseEntity.ok().headers(headers).body(carPage.getContent());
+    }
+
+    @GetMapping(params = {"after", "!page"})
+    @ApiOperation(value = "Finds cars after the given id",
+            notes = "Keyset pagination ordered by id. Pass 0 to get the first page, then the value of the " +
+                    "X-Next-Cursor header to get the next one. The header is absent on the last page",
+            response = Car.class,
+            responseContainer = "List")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = HTMLResponseMessages.HTTP_200),
+            @ApiResponse(code = 400, message = HTMLResponseMessages.HTTP_400),
+            @ApiResponse(code = 404, message = HTMLResponseMessages.HTTP_404),
+            @ApiResponse(code = 500, message = HTMLResponseMessages.HTTP_500)})
+    public ResponseEntity<List<Car>> findCarsAfterId(@ApiParam(value = "Id of the last car already received", required = true)
+                                                     @RequestParam Long after,
+                                                     @ApiParam(value = "Page size, at most " + MAX_PAGE_SIZE)
+                                                     @RequestParam(defaultValue = "20") int size) {
+        if (after < 0 || size <= 0) {
+            log.warn("Invalid keyset request: after {}, size {}", after, size);
+            return ResponseEntity.badRequest().build();
+        }
+        log.info("Retrieve cars after id {} with size {}", after, size);
+        Slice<Car> carSlice = carInventoryService.findCarsAfterId(after, Math.min(size, MAX_PAGE_SIZE));
+        if (carSlice.isEmpty()) {
+            log.warn("No cars found after id {}.", after);
+            return ResponseEntity.noContent().build();
+        }
+        HttpHeaders headers = new HttpHeaders();
+        if (carSlice.hasNext()) {
+            List<Car> content = carSlice.getContent();
+            String nextCursor = String.valueOf(content.get(content.size() - 1).getId());
+            headers.add(NEXT_CURSOR_HEADER, nextCursor);
+            headers.add(HttpHeaders.LINK, link(ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("after", nextCursor).toUriString(), "next"));
+        }
+        log.debug("Car list size after id {}: {}", after, carSlice.getNumberOfElements());
+        return ResponseEntity.ok().headers(headers).body(carSlice.getContent());
+    }
+
+    @GetMapping("/search")
+    @ApiOperation(value = "Searches cars by the given filters",
+            notes = "All filters are optional. Supports paging with page and size and sorting with " +
+                    "sort=property,asc|desc on id, make, model, gearbox, fuel, year and price. Total count is " +
+                    "returned in the X-Total-Count header and navigation links in the Link header",
+            response = Car.class,
+            responseContainer = "List")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = HTMLResponseMessages.HTTP_200),
+            @ApiResponse(code = 400, message = HTMLResponseMessages.HTTP_400),
+            @ApiResponse(code = 404, message = HTMLResponseMessages.HTTP_404),
+            @ApiResponse(code = 500, message = HTMLResponseMessages.HTTP_500)})
+    public ResponseEntity<List<Car>> searchCars(@ModelAttribute CarSearchCriteria criteria,
+                                                @PageableDefault(size = 20, sort = "price") Pageable pageable) {
+        for (Sort.Order order : pageable.getSort()) {
+            if (!SORTABLE_PROPERTIES.contains(order.getProperty())) {
+                log.warn("Car search is not sortable by {}", order.getProperty());
+                return ResponseEntity.badRequest().build();
+            }
+        }
+        if (criteria.getMinPrice() != null && criteria.getMaxPrice() != null
+                && criteria.getMinPrice() > criteria.getMaxPrice()) {
+            log.warn("Invalid price range: {} - {}", criteria.getMinPrice(), criteria.getMaxPrice());
+            return ResponseEntity.badRequest().build();
+        }
+        log.info("Search cars by {} with {}", criteria, pageable);
+        Page<Car> carPage = carInventoryService.searchCars(criteria, pageable);
+        if (carPage.isEmpty()) {
+            log.warn("No cars found by {}.", criteria);
+            return ResponseEntity.noContent().build();
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(TOTAL_COUNT_HEADER, String.valueOf(carPage.getTotalElements()));
+        headers.add(HttpHeaders.LINK, pageLinks(carPage));
+        log.debug("Found car list size: {}", carPage.getNumberOfElements());
+        return ResponseEntity.ok().headers(headers).body(carPage.getContent());
+    }
+
+    @GetMapping(value = "/export", produces = NDJSON_MEDIA_TYPE)
+    @ApiOperation(value = "Exports all cars",
+            notes = "Streams every car ordered by id as newline-delimited JSON, one car per line")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = HTMLResponseMessages.HTTP_200),
+            @ApiResponse(code = 500, message = HTMLResponseMessages.HTTP_500)})
+    public ResponseEntity<StreamingResponseBody> exportCars() {
+        log.info("Export all cars");
+        StreamingResponseBody body = this::writeCarsAsNdjson;
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON_MEDIA_TYPE))
+                .body(body);
+    }
+
+    private void writeCarsAsNdjson(OutputStream outputStream) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(Car.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.setRootValueSeparator(null);
+            long exported = carInventoryService.exportCars(car -> {
+                try {
+                    writer.writeValue(generator, car);
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            log.debug("Exported car count: {}", exported);
+        }
+    }
+
+    private String pageLinks(Page<?> page) {
+        List<String> links = new ArrayList<>();
+        links.add(link(pageUri(0), "first"));
+        if (page.hasPrevious()) {
+            links.add(link(pageUri(page.getNumber() - 1), "prev"));
+        }
+        if (page.hasNext()) {
+            links.add(link(pageUri(page.getNumber() + 1), "next"));
+        }
+        links.add(link(pageUri(Math.max(page.getTotalPages() - 1, 0)), "last"));
+        return String.join(", ", links);
+    }
+
+    private String pageUri(int page) {
+        return ServletUriComponentsBuilder.fromCurrentRequest().replaceQueryParam("page", page).toUriString();
+    }
+
+    private String link(String uri, String rel) {
+        return "<" + uri + ">; rel=\"" + rel + "\"";
+    }
     @GetMapping("/available")
     @ApiOperation(value = "Finds all available cars",
             notes = "Returns the list of cars that are available for renting",
@@ -92,25 +298,36 @@ public class CarInventoryController {
             response = Car.class)
     @ApiResponses(value = {
             @ApiResponse(code = 200, message = HTMLResponseMessages.HTTP_200),
+            @ApiResponse(code = 304, message = HTMLResponseMessages.HTTP_304),
             @ApiResponse(code = 400, message = HTMLResponseMessages.HTTP_400),
             @ApiResponse(code = 404, message = HTMLResponseMessages.HTTP_404),
             @ApiResponse(code = 500, message = HTMLResponseMessages.HTTP_500)})
     public ResponseEntity<Optional<Car>> findCarById(@ApiParam(value = "id of the car", required = true)
-                                                     @NonNull @PathVariable Long id) {
+                                                     @NonNull @PathVariable Long id,
+                                                     WebRequest webRequest) {
         log.info("Find car by passing ID of the car, where car ID is :{} ", id);
+        if (isConditional(webRequest)) {
+            Optional<ResourceVersion> version = carInventoryService.findCarVersionById(id);
+            if (version.isPresent() && checkNotModified(webRequest, version.get().version(),
+                    version.get().updatedAt())) {
+                log.debug("Car with id {} is not modified", id);
+                return null;
+            }
+        }
         Optional<Car> car = carInventoryService.findCarById(id);
         if (!car.isPresent()) {
             log.warn("Car with id {} is not found.", id);
             return ResponseEntity.notFound().build();
         } else {
             log.debug("Car with id {} is found: {}", id, car);
-            return ResponseEntity.ok(car);
+            return withVersionHeaders(ResponseEntity.ok(), car.get().getVersion(), car.get().getUpdatedAt()).body(car);
         }
     }
 
-    @GetMapping("/available/sortedByPrice") //ascend, for descending ",desc"
+    @GetMapping("/available/sortedByPrice")
     @ApiOperation(value = "Finds all available cars sorted by price",
-            notes = "Returns the list of cars that are available for renting, sorted by price in ascending order",
+            notes = "Returns the list of cars that are available for renting, sorted by price in ascending order. " +
+                    "Pass direction=desc for descending order and limit to get only the top N cars",
             response = Car.class,
             responseContainer = "List")
     @ApiResponses(value = {
@@ -118,9 +335,18 @@ public class CarInventoryController {
             @ApiResponse(code = 400, message = HTMLResponseMessages.HTTP_400),
             @ApiResponse(code = 404, message = HTMLResponseMessages.HTTP_404),
             @ApiResponse(code = 500, message = HTMLResponseMessages.HTTP_500)})
-    public ResponseEntity<List<Car>> findAvailableCarsSortedByPrice () {
-        log.info("Retrieve list of available cars sorted by price");
-        List<Car> sortedCars = carInventoryService.findAllAvailableCarsSortedByPriceAsc();
+    public ResponseEntity<List<Car>> findAvailableCarsSortedByPrice(@ApiParam(value = "Sort direction, asc or desc")
+                                                                    @RequestParam(defaultValue = "asc") String direction,
+                                                                    @ApiParam(value = "Maximum number of cars to return")
+                                                                    @RequestParam(required = false) Integer limit) {
+        Optional<Sort.Direction> sortDirection = Sort.Direction.fromOptionalString(direction);
+        if (sortDirection.isEmpty() || (limit != null && limit <= 0)) {
+            log.warn("Invalid sort request: direction {}, limit {}", direction, limit);
+            return ResponseEntity.badRequest().build();
+        }
+        log.info("Retrieve list of available cars sorted by price {}", sortDirection.get());
+        List<Car> sortedCars = carInventoryService.findAvailableCarsSortedByPrice(sortDirection.get(),
+                limit == null ? CarInventoryService.NO_LIMIT : limit);
         if (sortedCars.isEmpty()) {
             log.warn("No available cars found.");
             return ResponseEntity.noContent().build();
@@ -146,6 +372,46 @@ public class CarInventoryController {
         return new ResponseEntity<>(carToSave, HttpStatus.CREATED);
     }
 
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @ApiOperation(value = "Imports a list of cars",
+            notes = "Validates every car and saves the valid ones in batches. Rejected rows are reported " +
+                    "with their one-based position in the list",
+            response = CarImportResult.class)
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = HTMLResponseMessages.HTTP_200),
+            @ApiResponse(code = 400, message = HTMLResponseMessages.HTTP_400),
+            @ApiResponse(code = 500, message = HTMLResponseMessages.HTTP_500)})
+    public ResponseEntity<CarImportResult> importCars(@RequestBody List<Car> cars) {
+        log.info("Import {} cars", cars.size());
+        CarImportResult result = carInventoryService.importCars(cars);
+        log.info("Car import result. Imported: {}, failed: {}", result.getImported(), result.getFailed());
+        return ResponseEntity.ok(result);
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @ApiOperation(value = "Imports cars from a CSV file",
+            notes = "The first line is a header with the columns make, model, gearbox, fuel, year, price and " +
+                    "optionally available. Valid rows are saved in batches, rejected rows are reported with " +
+                    "their one-based number not counting the header",
+            response = CarImportResult.class)
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = HTMLResponseMessages.HTTP_200),
+            @ApiResponse(code = 400, message = HTMLResponseMessages.HTTP_400),
+            @ApiResponse(code = 500, message = HTMLResponseMessages.HTTP_500)})
+    public ResponseEntity<CarImportResult> importCarsFromCsv(@ApiParam(value = "CSV file with cars", required = true)
+                                                             @RequestParam("file") MultipartFile file) throws IOException {
+        log.info("Import cars from CSV file {} of {} bytes", file.getOriginalFilename(), file.getSize());
+        CarImportResult result;
+        try (InputStream inputStream = file.getInputStream()) {
+            result = carInventoryService.importCarsFromCsv(inputStream);
+        } catch (IllegalArgumentException e) {
+            log.warn("CSV file is rejected: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+        log.info("Car CSV import result. Imported: {}, failed: {}", result.getImported(), result.getFailed());
+        return ResponseEntity.ok(result);
+    }
+
     @PutMapping("/{id}")
     @ApiOperation(value = "Updates the car by id",
     notes = "Updates the car if provided id exists",
@@ -154,10 +420,13 @@ public class CarInventoryController {
             @ApiResponse(code = 201, message = HTMLResponseMessages.HTTP_201),
             @ApiResponse(code = 400, message = HTMLResponseMessages.HTTP_400),
             @ApiResponse(code = 404, message = HTMLResponseMessages.HTTP_404),
+            @ApiResponse(code = 412, message = HTMLResponseMessages.HTTP_412),
             @ApiResponse(code = 500, message = HTMLResponseMessages.HTTP_500)})
     @ResponseStatus(HttpStatus.ACCEPTED)
     public ResponseEntity<Car> updateCarById(@ApiParam(value="id of the car", required = true)
                                              @NotNull @PathVariable Long id,
+                                             @ApiParam(value = "ETag of the car version being updated")
+                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
                                              @Valid @RequestBody Car car){
         if (id <= 0) {
             log.warn("Provided car id {} is wrong", id);
@@ -167,10 +436,26 @@ public class CarInventoryController {
             log.warn("Car for update with id {} is not found", id);
             return ResponseEntity.notFound().build();
         }
+        Optional<Long> expectedVersion = parseIfMatch(ifMatch);
+        if (ifMatch != null && !ifMatch.trim().equals("*") && expectedVersion.isEmpty()) {
+            log.warn("Car with id {} can not match ETag {}", id, ifMatch);
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        }
+        car.setVersion(expectedVersion.orElse(null));
         log.info("Update existing car with Id: {} and new body: {}", id, car);
-        carInventoryService.updateCar(car);
+        Car updatedCar;
+        try {
+            updatedCar = carInventoryService.updateCar(car);
+        } catch (EntityNotFoundException e) {
+            log.warn("Car for update with id {} is not found", id);
+            return ResponseEntity.notFound().build();
+        } catch (OptimisticLockingFailureException e) {
+            log.warn("Car with id {} was modified since version {}", id, ifMatch);
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        }
         log.debug("Car with id {} is updated: {}", id, car);
-        return new ResponseEntity<>(car, HttpStatus.CREATED);
+        return withVersionHeaders(ResponseEntity.status(HttpStatus.CREATED), updatedCar.getVersion(),
+                updatedCar.getUpdatedAt()).body(car);
     }
 
     @DeleteMapping("/{id}")
@@ -188,12 +473,10 @@ public class CarInventoryController {
             log.warn("Invalid car id: {}", id);
             return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
         }
-        Optional<Car> car = carInventoryService.findCarById(id);
-        if (!car.isPresent()) {
+        if (!carInventoryService.deleteCarById(id)) {
             log.warn("Car with id {} is not found", id);
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
-        carInventoryService.deleteCarById(id);
         log.info("Car with id {} is deleted", id);
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
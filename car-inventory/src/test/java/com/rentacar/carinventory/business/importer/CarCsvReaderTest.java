@@ -0,0 +1,79 @@
+package com.rentacar.carinventory.business.importer;
+
+import com.rentacar.carinventory.model.Car;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CarCsvReaderTest {
+
+    private final List<Car> cars = new ArrayList<>();
+
+    private final List<String> errors = new ArrayList<>();
+
+    private void read(String csv) throws IOException {
+        CarCsvReader.read(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), new CarCsvReader.RowHandler() {
+            @Override
+            public void onCar(int row, Car car) {
+                cars.add(car);
+            }
+
+            @Override
+            public void onError(int row, String message) {
+                errors.add(row + ": " + message);
+            }
+        });
+    }
+
+    @Test
+    void read_success() throws IOException {
+        read("make,model,gearbox,fuel,year,price,available\n" +
+                "Volvo,v60,automatic,gasoline,2018,70.00,true\n" +
+                "\"Skoda\", \"Karoq\" ,manual,diesel,2020,85.5,false\n");
+
+        assertEquals(2, cars.size());
+        assertTrue(errors.isEmpty());
+        assertEquals(Car.builder().make("Volvo").model("v60").gearbox("automatic").fuel("gasoline")
+                .year(2018).price(70.00).available(true).build(), cars.get(0));
+        assertEquals("Karoq", cars.get(1).getModel());
+        assertEquals(85.5, cars.get(1).getPrice());
+    }
+
+    @Test
+    void read_columnsInAnyOrderWithoutAvailable() throws IOException {
+        read("price,year,fuel,gearbox,model,make\n" +
+                "70,2018,gasoline,automatic,v60,Volvo\n");
+
+        assertEquals(1, cars.size());
+        assertEquals("Volvo", cars.get(0).getMake());
+        assertEquals(70.00, cars.get(0).getPrice());
+    }
+
+    @Test
+    void read_reportsInvalidRows() throws IOException {
+        read("make,model,gearbox,fuel,year,price,available\n" +
+                "Volvo,v60,automatic,gasoline,two thousand,70.00,true\n" +
+                "Volvo,v60,automatic,gasoline,2018,,true\n" +
+                "Volvo,v60,automatic,gasoline,2018,70.00,maybe\n" +
+                "Volvo,v60,automatic,gasoline,2018,70.00,true\n");
+
+        assertEquals(1, cars.size());
+        assertEquals(List.of(
+                "1: year is not a whole number: two thousand",
+                "2: price must not be empty",
+                "3: available must be true or false: maybe"), errors);
+    }
+
+    @Test
+    void read_missingColumn() {
+        assertThrows(IllegalArgumentException.class, () -> read("make,model,gearbox,fuel,year\n"));
+    }
+}
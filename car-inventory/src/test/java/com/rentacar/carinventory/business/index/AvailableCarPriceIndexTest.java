@@ -0,0 +1,111 @@
+package com.rentacar.carinventory.business.index;
+
+import com.rentacar.carinventory.business.mappers.CarInventoryMapStructMapper;
+import com.rentacar.carinventory.business.repository.CarInventoryRepository;
+import com.rentacar.carinventory.business.repository.model.CarDAO;
+import com.rentacar.carinventory.model.Car;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AvailableCarPriceIndexTest {
+    @Mock
+    private CarInventoryRepository carInventoryRepository;
+
+    @Mock
+    private CarInventoryMapStructMapper mapper;
+
+    @InjectMocks
+    private AvailableCarPriceIndex availableCarPriceIndex;
+
+    private Car createCar(Long id, double price, boolean available) {
+        return Car.builder()
+                .id(id)
+                .make("Volvo")
+                .model("v60")
+                .gearbox("automatic")
+                .fuel("gasoline")
+                .year(2018)
+                .price(price)
+                .available(available).build();
+    }
+
+    private List<Long> ids(List<Car> cars) {
+        return cars.stream().map(Car::getId).toList();
+    }
+
+    @Test
+    void rebuild() {
+        CarDAO carDAO = CarDAO.builder().id(1L).price(70.00).available(true).build();
+        Car car = createCar(1L, 70.00, true);
+        when(carInventoryRepository.findByAvailableTrue()).thenReturn(List.of(carDAO));
+        when(mapper.carDAOToCar(carDAO)).thenReturn(car);
+
+        assertFalse(availableCarPriceIndex.isReady());
+        availableCarPriceIndex.rebuild();
+
+        assertTrue(availableCarPriceIndex.isReady());
+        assertEquals(List.of(car), availableCarPriceIndex.findSortedByPrice(Sort.Direction.ASC, 10));
+    }
+
+    @Test
+    void findSortedByPrice_ordersByPriceThenId() {
+        availableCarPriceIndex.upsert(createCar(3L, 45.00, true));
+        availableCarPriceIndex.upsert(createCar(1L, 70.00, true));
+        availableCarPriceIndex.upsert(createCar(2L, 45.00, true));
+
+        assertEquals(List.of(2L, 3L, 1L), ids(availableCarPriceIndex.findSortedByPrice(Sort.Direction.ASC, 10)));
+        assertEquals(List.of(1L, 3L, 2L), ids(availableCarPriceIndex.findSortedByPrice(Sort.Direction.DESC, 10)));
+        assertEquals(List.of(1L), ids(availableCarPriceIndex.findSortedByPrice(Sort.Direction.DESC, 1)));
+    }
+
+    @Test
+    void findSortedByPrice_callersCannotChangeIndexedCars() {
+        Car car = createCar(1L, 70.00, true);
+        availableCarPriceIndex.upsert(car);
+
+        car.setPrice(1.00);
+        availableCarPriceIndex.findSortedByPrice(Sort.Direction.ASC, 10).get(0).setPrice(2.00);
+
+        assertEquals(70.00, availableCarPriceIndex.findSortedByPrice(Sort.Direction.ASC, 10).get(0).getPrice());
+    }
+
+    @Test
+    void upsert_movesCarWhenPriceChanges() {
+        availableCarPriceIndex.upsert(createCar(1L, 70.00, true));
+        availableCarPriceIndex.upsert(createCar(2L, 45.00, true));
+        availableCarPriceIndex.upsert(createCar(1L, 30.00, true));
+
+        List<Car> cars = availableCarPriceIndex.findSortedByPrice(Sort.Direction.ASC, 10);
+        assertEquals(List.of(1L, 2L), ids(cars));
+        assertEquals(30.00, cars.get(0).getPrice());
+    }
+
+    @Test
+    void upsert_dropsCarThatIsNoLongerAvailable() {
+        availableCarPriceIndex.upsert(createCar(1L, 70.00, true));
+        availableCarPriceIndex.upsert(createCar(1L, 70.00, false));
+
+        assertTrue(availableCarPriceIndex.findSortedByPrice(Sort.Direction.ASC, 10).isEmpty());
+    }
+
+    @Test
+    void remove() {
+        availableCarPriceIndex.upsert(createCar(1L, 70.00, true));
+        availableCarPriceIndex.upsert(createCar(2L, 45.00, true));
+        availableCarPriceIndex.remove(1L);
+
+        assertEquals(List.of(2L), ids(availableCarPriceIndex.findSortedByPrice(Sort.Direction.ASC, 10)));
+    }
+}
@@ -0,0 +1,72 @@
+package com.rentacar.carinventory.business.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CarSequenceInitializerTest {
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    @Mock(answer = Answers.RETURNS_DEEP_STUBS)
+    private SessionFactoryImplementor sessionFactory;
+
+    @InjectMocks
+    private CarSequenceInitializer carSequenceInitializer;
+
+    @BeforeEach
+    public void init() {
+        when(entityManagerFactory.unwrap(SessionFactoryImplementor.class)).thenReturn(sessionFactory);
+    }
+
+    private void sequenceTable() {
+        when(sessionFactory.getJdbcServices().getDialect().getSequenceSupport().supportsSequences()).thenReturn(false);
+    }
+
+    @Test
+    void seed_existingCars() {
+        sequenceTable();
+        when(jdbcTemplate.queryForObject("SELECT MAX(car_id) FROM car", Long.class)).thenReturn(1234L);
+
+        carSequenceInitializer.seed();
+
+        verify(jdbcTemplate).update("UPDATE car_seq SET next_val = ? WHERE next_val < ?", 1334L, 1334L);
+    }
+
+    @Test
+    void seed_noCars() {
+        sequenceTable();
+        when(jdbcTemplate.queryForObject("SELECT MAX(car_id) FROM car", Long.class)).thenReturn(null);
+
+        carSequenceInitializer.seed();
+
+        verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+    }
+
+    @Test
+    void seed_databaseSequence() {
+        when(sessionFactory.getJdbcServices().getDialect().getSequenceSupport().supportsSequences()).thenReturn(true);
+
+        carSequenceInitializer.seed();
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
@@ -0,0 +1,194 @@
+package com.rentacar.carinventory.business.service.impl;
+
+import com.rentacar.carinventory.business.index.AvailableCarPriceIndex;
+import com.rentacar.carinventory.business.mappers.CarInventoryMapStructMapper;
+import com.rentacar.carinventory.business.repository.CarBookingRepository;
+import com.rentacar.carinventory.business.repository.CarInventoryRepository;
+import com.rentacar.carinventory.business.repository.model.CarBookingDAO;
+import com.rentacar.carinventory.business.repository.model.CarDAO;
+import com.rentacar.carinventory.config.CacheConfig;
+import com.rentacar.carinventory.model.BookingEvent;
+import com.rentacar.carinventory.model.Car;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.anyBoolean;
+import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BookingEventServiceImplTest {
+    @Mock
+    private CarBookingRepository carBookingRepository;
+
+    @Mock
+    private CarInventoryRepository carInventoryRepository;
+
+    @Mock
+    private CarInventoryMapStructMapper mapper;
+
+    @Mock
+    private AvailableCarPriceIndex availableCarPriceIndex;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private Cache cache;
+
+    @InjectMocks
+    private BookingEventServiceImpl bookingEventServiceImpl;
+
+    private BookingEvent event(Long eventId, String status, LocalDate pickUpDate, LocalDate dropOffDate) {
+        return BookingEvent.builder()
+                .eventId(eventId)
+                .bookingId(7L)
+                .carId(3L)
+                .pickUpDate(pickUpDate)
+                .dropOffDate(dropOffDate)
+                .status(status).build();
+    }
+
+    @Test
+    void applyBookingEvents_bookingStartsToday() {
+        LocalDate today = LocalDate.now();
+        CarDAO carDAO = CarDAO.builder().id(3L).available(false).build();
+        Car car = Car.builder().id(3L).available(false).build();
+        when(carBookingRepository.findById(7L)).thenReturn(Optional.empty());
+        when(carBookingRepository.isBookedOn(3L, today)).thenReturn(true);
+        when(carInventoryRepository.updateAvailability(eq(3L), eq(false), any())).thenReturn(1);
+        when(carInventoryRepository.findById(3L)).thenReturn(Optional.of(carDAO));
+        when(mapper.carDAOToCar(carDAO)).thenReturn(car);
+        when(cacheManager.getCache(CacheConfig.CARS_CACHE)).thenReturn(cache);
+
+        assertEquals(1, bookingEventServiceImpl.applyBookingEvents(
+                List.of(event(10L, "Pending", today, today.plusDays(2)))));
+
+        ArgumentCaptor<CarBookingDAO> saved = ArgumentCaptor.forClass(CarBookingDAO.class);
+        verify(carBookingRepository, times(1)).save(saved.capture());
+        assertTrue(saved.getValue().isActive());
+        assertEquals(10L, saved.getValue().getLastEventId());
+        verify(cache, times(1)).evict(3L);
+        verify(availableCarPriceIndex, times(1)).upsert(car);
+    }
+
+    @Test
+    void applyBookingEvents_cacheAndIndexWaitForCommit() {
+        LocalDate today = LocalDate.now();
+        CarDAO carDAO = CarDAO.builder().id(3L).available(false).build();
+        Car car = Car.builder().id(3L).available(false).build();
+        when(carBookingRepository.findById(7L)).thenReturn(Optional.empty());
+        when(carBookingRepository.isBookedOn(3L, today)).thenReturn(true);
+        when(carInventoryRepository.updateAvailability(eq(3L), eq(false), any())).thenReturn(1);
+        when(carInventoryRepository.findById(3L)).thenReturn(Optional.of(carDAO));
+        when(mapper.carDAOToCar(carDAO)).thenReturn(car);
+        when(cacheManager.getCache(CacheConfig.CARS_CACHE)).thenReturn(cache);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            bookingEventServiceImpl.applyBookingEvents(List.of(event(10L, "Pending", today, today.plusDays(2))));
+
+            verify(cache, never()).evict(any());
+            verify(availableCarPriceIndex, never()).upsert(any());
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify(cache, times(1)).evict(3L);
+        verify(availableCarPriceIndex, times(1)).upsert(car);
+    }
+
+    @Test
+    void applyBookingEvents_rollbackLeavesCacheAndIndex() {
+        LocalDate today = LocalDate.now();
+        when(carBookingRepository.findById(7L)).thenReturn(Optional.empty());
+        when(carBookingRepository.isBookedOn(3L, today)).thenReturn(true);
+        when(carInventoryRepository.updateAvailability(eq(3L), eq(false), any())).thenReturn(1);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            bookingEventServiceImpl.applyBookingEvents(List.of(event(10L, "Pending", today, today.plusDays(2))));
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify(cacheManager, never()).getCache(any());
+        verify(availableCarPriceIndex, never()).upsert(any());
+    }
+
+    @Test
+    void applyBookingEvents_futureBookingLeavesAvailability() {
+        LocalDate nextWeek = LocalDate.now().plusDays(7);
+        when(carBookingRepository.findById(7L)).thenReturn(Optional.empty());
+
+        assertEquals(1, bookingEventServiceImpl.applyBookingEvents(
+                List.of(event(10L, "Confirmed", nextWeek, nextWeek.plusDays(2)))));
+
+        verify(carInventoryRepository, never()).updateAvailability(any(), anyBoolean(), any());
+    }
+
+    @Test
+    void applyBookingEvents_cancelReleasesCar() {
+        LocalDate today = LocalDate.now();
+        CarBookingDAO carBooking = CarBookingDAO.builder()
+                .bookingId(7L).carId(3L).pickUpDate(today).dropOffDate(today).active(true).lastEventId(10L).build();
+        when(carBookingRepository.findById(7L)).thenReturn(Optional.of(carBooking));
+        when(carBookingRepository.isBookedOn(3L, today)).thenReturn(false);
+
+        assertEquals(1, bookingEventServiceImpl.applyBookingEvents(List.of(event(11L, "Canceled", today, today))));
+
+        assertFalse(carBooking.isActive());
+        verify(carInventoryRepository, times(1)).updateAvailability(eq(3L), eq(true), any());
+    }
+
+    @Test
+    void applyBookingEvents_redeliveredEventIsSkipped() {
+        LocalDate today = LocalDate.now();
+        CarBookingDAO carBooking = CarBookingDAO.builder()
+                .bookingId(7L).carId(3L).pickUpDate(today).dropOffDate(today).active(false).lastEventId(11L).build();
+        when(carBookingRepository.findById(7L)).thenReturn(Optional.of(carBooking));
+
+        assertEquals(0, bookingEventServiceImpl.applyBookingEvents(List.of(
+                event(10L, "Pending", today, today),
+                event(11L, "Canceled", today, today))));
+
+        assertFalse(carBooking.isActive());
+        verify(carBookingRepository, never()).save(any());
+        verify(carInventoryRepository, never()).updateAvailability(any(), anyBoolean(), any());
+    }
+
+    @Test
+    void refreshAvailability() {
+        LocalDate today = LocalDate.now();
+        when(carBookingRepository.findCarIdsChangingOn(today, today.minusDays(1))).thenReturn(List.of(3L, 4L));
+        when(carBookingRepository.isBookedOn(3L, today)).thenReturn(true);
+
+        bookingEventServiceImpl.refreshAvailability();
+
+        verify(carInventoryRepository, times(1)).updateAvailability(eq(3L), eq(false), any());
+        verify(carInventoryRepository, times(1)).updateAvailability(eq(4L), eq(true), any());
+    }
+}
@@ -0,0 +1,179 @@
+package com.rentacar.carinventory.business.service.impl;
+
+import com.rentacar.carinventory.business.index.AvailableCarPriceIndex;
+import com.rentacar.carinventory.business.mappers.CarInventoryMapStructMapper;
+import com.rentacar.carinventory.business.repository.CarInventoryRepository;
+import com.rentacar.carinventory.business.repository.model.CarDAO;
+import com.rentacar.carinventory.business.service.CarInventoryService;
+import com.rentacar.carinventory.config.CacheConfig;
+import com.rentacar.carinventory.model.Car;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringJUnitConfig(CarInventoryServiceImplCacheTest.TestConfig.class)
+class CarInventoryServiceImplCacheTest {
+
+    @Configuration
+    @Import({CacheConfig.class, CarInventoryServiceImpl.class})
+    static class TestConfig {
+        @Bean
+        CacheManager cacheManager() {
+            return new CaffeineCacheManager(CacheConfig.CARS_CACHE);
+        }
+    }
+
+    @Autowired
+    private CarInventoryService carInventoryService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @MockBean
+    private CarInventoryRepository carInventoryRepository;
+
+    @MockBean
+    private CarInventoryMapStructMapper mapper;
+
+    @MockBean
+    private EntityManager entityManager;
+
+    @MockBean
+    private AvailableCarPriceIndex availableCarPriceIndex;
+
+    @MockBean
+    private Validator validator;
+
+    private CarDAO carDAO;
+
+    private Car car;
+
+    @BeforeEach
+    public void init() {
+        cacheManager.getCache(CacheConfig.CARS_CACHE).clear();
+        carDAO = CarDAO.builder()
+                .id(1L)
+                .make("Volvo")
+                .model("v60")
+                .gearbox("automatic")
+                .fuel("gasoline")
+                .year(2018)
+                .price(70.00)
+                .available(true).build();
+        car = Car.builder()
+                .id(1L)
+                .make("Volvo")
+                .model("v60")
+                .gearbox("automatic")
+                .fuel("gasoline")
+                .year(2018)
+                .price(70.00)
+                .available(true).build();
+    }
+
+    @Test
+    void findCarById_readsRepositoryOnce() {
+        when(carInventoryRepository.findById(1L)).thenReturn(Optional.of(carDAO));
+        when(mapper.carDAOToCar(carDAO)).thenReturn(car);
+
+        carInventoryService.findCarById(1L);
+        Optional<Car> cachedCar = carInventoryService.findCarById(1L);
+
+        assertEquals(car, cachedCar.get());
+        verify(carInventoryRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void findCarById_callersCannotChangeCachedCar() {
+        when(carInventoryRepository.findById(1L)).thenReturn(Optional.of(carDAO));
+        when(mapper.carDAOToCar(carDAO)).thenReturn(car);
+
+        carInventoryService.findCarById(1L).get().setPrice(1.00);
+        carInventoryService.findCarById(1L).get().setPrice(2.00);
+
+        assertEquals(70.00, carInventoryService.findCarById(1L).get().getPrice());
+        verify(carInventoryRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void findCarById_missingCarIsNotCached() {
+        when(carInventoryRepository.findById(2L)).thenReturn(Optional.empty());
+
+        carInventoryService.findCarById(2L);
+        Optional<Car> missingCar = carInventoryService.findCarById(2L);
+
+        assertTrue(missingCar.isEmpty());
+        verify(carInventoryRepository, times(2)).findById(2L);
+    }
+
+    @Test
+    void updateCar_refreshesCachedCar() {
+        Car updatedCar = Car.builder()
+                .id(1L)
+                .make("Volvo")
+                .model("v60")
+                .gearbox("automatic")
+                .fuel("gasoline")
+                .year(2018)
+                .price(90.00)
+                .available(false)
+                .version(3L).build();
+        when(carInventoryRepository.findById(1L)).thenReturn(Optional.of(carDAO));
+        when(mapper.carDAOToCar(carDAO)).thenReturn(car);
+        carInventoryService.findCarById(1L);
+
+        when(mapper.carToCarDAO(updatedCar)).thenReturn(carDAO);
+        when(carInventoryRepository.updateCar(any())).thenReturn(1);
+        when(mapper.carDAOToCar(carDAO)).thenReturn(updatedCar);
+        carInventoryService.updateCar(updatedCar);
+
+        assertEquals(updatedCar, carInventoryService.findCarById(1L).get());
+        verify(carInventoryRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void updateCar_withoutVersionEvictsCachedCar() {
+        when(carInventoryRepository.findById(1L)).thenReturn(Optional.of(carDAO));
+        when(mapper.carDAOToCar(carDAO)).thenReturn(car);
+        carInventoryService.findCarById(1L);
+
+        when(mapper.carToCarDAO(car)).thenReturn(carDAO);
+        when(carInventoryRepository.updateCar(any())).thenReturn(1);
+        carInventoryService.updateCar(car);
+        carInventoryService.findCarById(1L);
+
+        verify(carInventoryRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    void deleteCarById_evictsCachedCar() {
+        when(carInventoryRepository.findById(1L)).thenReturn(Optional.of(carDAO));
+        when(mapper.carDAOToCar(carDAO)).thenReturn(car);
+        carInventoryService.findCarById(1L);
+
+        when(carInventoryRepository.deleteCarById(1L)).thenReturn(1);
+        carInventoryService.deleteCarById(1L);
+        when(carInventoryRepository.findById(1L)).thenReturn(Optional.empty());
+
+        assertTrue(carInventoryService.findCarById(1L).isEmpty());
+        verify(carInventoryRepository, times(2)).findById(1L);
+    }
+}
@@ -1,28 +1,64 @@
 package com.rentacar.carinventory.business.service.impl;
 
+import com.rentacar.carinventory.business.index.AvailableCarPriceIndex;
 import com.rentacar.carinventory.business.mappers.CarInventoryMapStructMapper;
 import com.rentacar.carinventory.business.repository.CarInventoryRepository;
 import com.rentacar.carinventory.business.repository.model.CarDAO;
+import com.rentacar.carinventory.business.service.CarInventoryService;
+import com.rentacar.carinventory.config.CacheConfig;
 import com.rentacar.carinventory.model.Car;
+import com.rentacar.carinventory.model.CarImportResult;
+import com.rentacar.carinventory.model.CarSearchCriteria;
+import com.rentacar.carinventory.model.ResourceVersion;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.anyList;
 import static org.mockito.Mockito.anyLong;
+import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verifyNoInteractions;
 
 
 @ExtendWith(MockitoExtension.class)
@@ -36,6 +72,21 @@ class CarInventoryServiceImplTest {
     @Mock
     CarInventoryMapStructMapper mapper;
 
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private AvailableCarPriceIndex availableCarPriceIndex;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private Cache cache;
+
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
     private CarDAO carDAO;
 
     private Car car;
@@ -104,14 +155,113 @@ class CarInventoryServiceImplTest {
 
     @Test
     void updateCar() {
-        when(carInventoryRepository.save(any())).thenReturn(carDAO);
+        when(carInventoryRepository.updateCar(carDAO)).thenReturn(1);
         when(mapper.carDAOToCar(carDAO)).thenReturn(car);
         when(mapper.carToCarDAO(car)).thenReturn(carDAO);
-        when(carInventoryRepository.findById(anyLong())).thenReturn(Optional.of(carDAO));
-        Optional<Car> carOptional = carInventoryServiceImpl.findCarById(car.getId());
         Car updatedCar = carInventoryServiceImpl.updateCar(car);
         assertEquals(car.getId(), updatedCar.getId());
-        verify(carInventoryRepository, times(1)).save(carDAO);
+        verify(carInventoryRepository, times(1)).updateCar(carDAO);
+        verify(carInventoryRepository, times(0)).findById(anyLong());
+        verify(carInventoryRepository, times(0)).save(any());
+    }
+
+    @Test
+    void updateCar_incrementsExpectedVersion() {
+        carDAO.setVersion(3L);
+        when(carInventoryRepository.updateCar(carDAO)).thenReturn(1);
+        when(mapper.carToCarDAO(car)).thenReturn(carDAO);
+        when(mapper.carDAOToCar(carDAO)).thenReturn(car);
+
+        carInventoryServiceImpl.updateCar(car);
+
+        assertEquals(4L, carDAO.getVersion());
+        assertNotNull(carDAO.getUpdatedAt());
+    }
+
+    @Test
+    void updateCar_notFound() {
+        when(mapper.carToCarDAO(car)).thenReturn(carDAO);
+        when(carInventoryRepository.updateCar(carDAO)).thenReturn(0);
+
+        assertThrows(EntityNotFoundException.class, () -> carInventoryServiceImpl.updateCar(car));
+        verify(carInventoryRepository, times(0)).existsById(anyLong());
+        verify(availableCarPriceIndex, times(0)).upsert(any());
+    }
+
+    @Test
+    void updateCar_staleVersion() {
+        carDAO.setVersion(3L);
+        when(mapper.carToCarDAO(car)).thenReturn(carDAO);
+        when(carInventoryRepository.updateCar(carDAO)).thenReturn(0);
+        when(carInventoryRepository.existsById(1L)).thenReturn(true);
+
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> carInventoryServiceImpl.updateCar(car));
+    }
+
+    @Test
+    void importCars() {
+        Car invalidCar = Car.builder().model("v60").build();
+        Car carWithId = createCar();
+        Car newCar = createCar();
+        newCar.setId(null);
+        List<Car> cars = new ArrayList<>();
+        for (int i = 0; i < CarInventoryServiceImpl.IMPORT_CHUNK_SIZE + 1; i++) {
+            cars.add(newCar);
+        }
+        cars.add(invalidCar);
+        cars.add(carWithId);
+        when(mapper.carToCarDAO(newCar)).thenReturn(carDAO);
+        when(carInventoryRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        CarImportResult result = carInventoryServiceImpl.importCars(cars);
+
+        assertEquals(CarInventoryServiceImpl.IMPORT_CHUNK_SIZE + 1, result.getImported());
+        assertEquals(2, result.getFailed());
+        assertEquals(CarInventoryServiceImpl.IMPORT_CHUNK_SIZE + 2, result.getErrors().get(0).getRow());
+        assertEquals("fuel must not be null, gearbox must not be null, make must not be null",
+                result.getErrors().get(0).getMessage());
+        assertEquals(CarInventoryServiceImpl.IMPORT_CHUNK_SIZE + 3, result.getErrors().get(1).getRow());
+        verify(carInventoryRepository, times(2)).saveAll(anyList());
+        verify(carInventoryRepository, times(0)).save(any());
+    }
+
+    @Test
+    void importCars_failedChunkIsReportedPerRow() {
+        Car newCar = createCar();
+        newCar.setId(null);
+        when(mapper.carToCarDAO(newCar)).thenReturn(carDAO);
+        when(carInventoryRepository.saveAll(anyList())).thenThrow(new DataIntegrityViolationException("duplicate"));
+
+        CarImportResult result = carInventoryServiceImpl.importCars(List.of(newCar, newCar));
+
+        assertEquals(0, result.getImported());
+        assertEquals(2, result.getFailed());
+        assertEquals(1, result.getErrors().get(0).getRow());
+        assertEquals(2, result.getErrors().get(1).getRow());
+    }
+
+    @Test
+    void importCarsFromCsv() throws IOException {
+        String csv = "make,model,gearbox,fuel,year,price,available\n" +
+                "Volvo,v60,automatic,gasoline,2018,70.00,true\n" +
+                "Volvo,v60,automatic,gasoline,2018,cheap,true\n";
+        when(mapper.carToCarDAO(any())).thenReturn(carDAO);
+        when(carInventoryRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        CarImportResult result = carInventoryServiceImpl.importCarsFromCsv(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(1, result.getImported());
+        assertEquals(1, result.getFailed());
+        assertEquals(2, result.getErrors().get(0).getRow());
+    }
+
+    @Test
+    void findCarVersionById() {
+        ResourceVersion version = new ResourceVersion(2L, Instant.parse("2024-04-01T10:15:30Z"));
+        when(carInventoryRepository.findVersionById(1L)).thenReturn(Optional.of(version));
+        assertEquals(version, carInventoryServiceImpl.findCarVersionById(1L).get());
+        verify(carInventoryRepository, times(0)).findById(anyLong());
     }
 
     @Test
@@ -122,6 +272,68 @@ class CarInventoryServiceImplTest {
         verify(carInventoryRepository, times(1)).findAll();
     }
 
+    @Test
+    void findCarsPage() {
+        PageRequest pageRequest = PageRequest.of(0, 2, Sort.by("id"));
+        when(carInventoryRepository.findAll(pageRequest))
+                .thenReturn(new PageImpl<>(createCarDAOList(), pageRequest, 5));
+        Page<Car> carPage = carInventoryServiceImpl.findCarsPage(0, 2);
+        assertEquals(2, carPage.getNumberOfElements());
+        assertEquals(5, carPage.getTotalElements());
+        assertTrue(carPage.hasNext());
+        verify(carInventoryRepository, times(0)).findAll();
+    }
+
+    @Test
+    void findCarsAfterId() {
+        PageRequest pageRequest = PageRequest.of(0, 2);
+        when(carInventoryRepository.findByIdGreaterThanOrderByIdAsc(0L, pageRequest))
+                .thenReturn(new SliceImpl<>(createCarDAOList(), pageRequest, true));
+        Slice<Car> carSlice = carInventoryServiceImpl.findCarsAfterId(0L, 2);
+        assertEquals(2, carSlice.getNumberOfElements());
+        assertTrue(carSlice.hasNext());
+        verify(carInventoryRepository, times(1)).findByIdGreaterThanOrderByIdAsc(0L, pageRequest);
+    }
+
+    @Test
+    void exportCars() {
+        when(carInventoryRepository.streamAllOrderById()).thenReturn(createCarDAOList().stream());
+        when(mapper.carDAOToCar(any())).thenReturn(car);
+        List<Car> exportedCars = new ArrayList<>();
+        long exported = carInventoryServiceImpl.exportCars(exportedCars::add);
+        assertEquals(2, exported);
+        assertEquals(2, exportedCars.size());
+        verify(entityManager, times(2)).detach(any());
+        verify(carInventoryRepository, times(0)).findAll();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void searchCars() {
+        CarSearchCriteria criteria = CarSearchCriteria.builder().make("Volvo").maxPrice(80.0).build();
+        PageRequest expectedPageRequest = PageRequest.of(0, 10,
+                Sort.by(Sort.Direction.DESC, "price").and(Sort.by("id")));
+        when(carInventoryRepository.findAll(any(Specification.class), eq(expectedPageRequest)))
+                .thenReturn(new PageImpl<>(createCarDAOList(), expectedPageRequest, 2));
+        Page<Car> carPage = carInventoryServiceImpl.searchCars(criteria,
+                PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "price")));
+        assertEquals(2, carPage.getNumberOfElements());
+        verify(carInventoryRepository, times(0)).findAll();
+    }
+
+    @Test
+    void searchCars_alreadySortedById() {
+        CarSearchCriteria criteria = CarSearchCriteria.builder().make("Volvo").build();
+        PageRequest pageRequest = PageRequest.of(0, 10,
+                Sort.by(Sort.Direction.DESC, "id").and(Sort.by("price")));
+        when(carInventoryRepository.findAll(any(Specification.class), eq(pageRequest)))
+                .thenReturn(new PageImpl<>(createCarDAOList(), pageRequest, 2));
+
+        Page<Car> carPage = carInventoryServiceImpl.searchCars(criteria, pageRequest);
+
+        assertEquals(2, carPage.getNumberOfElements());
+    }
+
     @Test
     void findCarById() {
         when(carInventoryRepository.findById(anyLong())).thenReturn(Optional.of(carDAO));
@@ -135,21 +347,134 @@ class CarInventoryServiceImplTest {
     @Test
     void deleteCarById() {
         Long id = createCar().getId();
-        carInventoryServiceImpl.deleteCarById(id);
-        verify(carInventoryRepository, times(1)).deleteById(id);
+        when(carInventoryRepository.deleteCarById(id)).thenReturn(1);
+        assertTrue(carInventoryServiceImpl.deleteCarById(id));
+        verify(carInventoryRepository, times(1)).deleteCarById(id);
+        verify(carInventoryRepository, times(0)).findById(anyLong());
+    }
+
+    @Test
+    void deleteCarById_notFound() {
+        when(carInventoryRepository.deleteCarById(5L)).thenReturn(0);
+        assertFalse(carInventoryServiceImpl.deleteCarById(5L));
+        verify(availableCarPriceIndex, times(0)).remove(anyLong());
     }
 
     @Test
     void findAvailableCars() {
-        when(carInventoryRepository.findAll()).thenReturn(createCarDAOList());
+        when(carInventoryRepository.findByAvailableTrue()).thenReturn(createCarDAOList());
         List<Car> availableCars = carInventoryServiceImpl.findAvailableCars();
         assertEquals(2,availableCars.size());
+        verify(carInventoryRepository, times(1)).findByAvailableTrue();
+        verify(carInventoryRepository, times(0)).findAll();
     }
 
     @Test
-    void findAllAvailableCarsSortedByPriceAsc() {
-        when(carInventoryRepository.findAll(Sort.by(Sort.Direction.ASC, "price"))).thenReturn(createCarDAOList());
-        List<Car> availableCarsSortedByPrice = carInventoryServiceImpl.findAllAvailableCarsSortedByPriceAsc();
+    void findAvailableCarsSortedByPrice_fromIndex() {
+        when(availableCarPriceIndex.isReady()).thenReturn(true);
+        when(availableCarPriceIndex.findSortedByPrice(Sort.Direction.DESC, 2)).thenReturn(List.of(car));
+        List<Car> availableCarsSortedByPrice = carInventoryServiceImpl.findAvailableCarsSortedByPrice(Sort.Direction.DESC, 2);
+        assertEquals(1, availableCarsSortedByPrice.size());
+        verify(carInventoryRepository, times(0)).findByAvailableTrue(any(PageRequest.class));
+    }
+
+    @Test
+    void findAvailableCarsSortedByPrice_indexNotReady() {
+        PageRequest pageRequest = PageRequest.of(0, 2, Sort.by(Sort.Direction.ASC, "price").and(Sort.by("id")));
+        when(availableCarPriceIndex.isReady()).thenReturn(false);
+        when(carInventoryRepository.findByAvailableTrue(pageRequest))
+                .thenReturn(new SliceImpl<>(createCarDAOList(), pageRequest, false));
+        List<Car> availableCarsSortedByPrice = carInventoryServiceImpl.findAvailableCarsSortedByPrice(Sort.Direction.ASC, 2);
         assertEquals(2,availableCarsSortedByPrice.size());
+        verify(carInventoryRepository, times(1)).findByAvailableTrue(pageRequest);
+    }
+
+    @Test
+    void findAvailableCarsSortedByPrice_indexNotReady_noLimit() {
+        Sort sort = Sort.by(Sort.Direction.ASC, "price").and(Sort.by("id"));
+        when(availableCarPriceIndex.isReady()).thenReturn(false);
+        when(carInventoryRepository.findByAvailableTrue(sort)).thenReturn(createCarDAOList());
+        List<Car> availableCarsSortedByPrice = carInventoryServiceImpl.findAvailableCarsSortedByPrice(Sort.Direction.ASC, CarInventoryService.NO_LIMIT);
+        assertEquals(2,availableCarsSortedByPrice.size());
+        verify(carInventoryRepository, times(0)).findByAvailableTrue(any(PageRequest.class));
+    }
+
+    @Test
+    void saveCar_updatesAvailableCarIndex() {
+        when(carInventoryRepository.save(carDAO)).thenReturn(carDAO);
+        when(mapper.carDAOToCar(carDAO)).thenReturn(car);
+        when(mapper.carToCarDAO(car)).thenReturn(carDAO);
+        carInventoryServiceImpl.saveCar(car);
+        verify(availableCarPriceIndex, times(1)).upsert(car);
+    }
+
+    @Test
+    void deleteCarById_updatesAvailableCarIndex() {
+        when(carInventoryRepository.deleteCarById(1L)).thenReturn(1);
+        carInventoryServiceImpl.deleteCarById(1L);
+        verify(availableCarPriceIndex, times(1)).remove(1L);
+    }
+
+    @Test
+    void updateCar_cacheAndIndexWaitForCommit() {
+        carDAO.setVersion(3L);
+        Car updatedCar = createCar();
+        updatedCar.setVersion(4L);
+        when(carInventoryRepository.updateCar(carDAO)).thenReturn(1);
+        when(mapper.carToCarDAO(car)).thenReturn(carDAO);
+        when(mapper.carDAOToCar(carDAO)).thenReturn(updatedCar);
+        when(cacheManager.getCache(CacheConfig.CARS_CACHE)).thenReturn(cache);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            carInventoryServiceImpl.updateCar(car);
+
+            verify(cache, never()).put(any(), any());
+            verify(availableCarPriceIndex, never()).upsert(any());
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify(cache, times(1)).put(1L, updatedCar);
+        verify(availableCarPriceIndex, times(1)).upsert(updatedCar);
+    }
+
+    @Test
+    void updateCar_rollbackLeavesCacheAndIndex() {
+        when(carInventoryRepository.updateCar(carDAO)).thenReturn(1);
+        when(mapper.carToCarDAO(car)).thenReturn(carDAO);
+        when(mapper.carDAOToCar(carDAO)).thenReturn(car);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            carInventoryServiceImpl.updateCar(car);
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verifyNoInteractions(cacheManager, availableCarPriceIndex);
+    }
+
+    @Test
+    void deleteCarById_cacheAndIndexWaitForCommit() {
+        when(carInventoryRepository.deleteCarById(1L)).thenReturn(1);
+        when(cacheManager.getCache(CacheConfig.CARS_CACHE)).thenReturn(cache);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            carInventoryServiceImpl.deleteCarById(1L);
+
+            verify(availableCarPriceIndex, never()).remove(anyLong());
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify(cache, times(1)).evict(1L);
+        verify(availableCarPriceIndex, times(1)).remove(1L);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,114 @@
+package com.rentacar.carinventory.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rentacar.carinventory.business.service.BookingEventService;
+import com.rentacar.carinventory.model.BookingEvent;
+import com.rentacar.jwtverification.JwtPrincipal;
+import com.rentacar.jwtverification.JwtPrincipalArgumentResolver;
+import com.rentacar.jwtverification.JwtVerificationFilter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(BookingEventController.class)
+class BookingEventControllerTest {
+
+    @TestConfiguration
+    static class PrincipalConfig implements WebMvcConfigurer {
+
+        @Override
+        public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+            resolvers.add(new JwtPrincipalArgumentResolver());
+        }
+    }
+
+    public static String baseUrl = "/api/v1/car/booking-events";
+
+    private static final JwtPrincipal SERVICE = new JwtPrincipal("booking-service",
+            Set.of(JwtPrincipal.SERVICE_ROLE), Instant.now().plusSeconds(900));
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper mapper;
+
+    @MockBean
+    private BookingEventService bookingEventService;
+
+    private BookingEvent event() {
+        return BookingEvent.builder()
+                .eventId(10L)
+                .bookingId(7L)
+                .carId(3L)
+                .pickUpDate(LocalDate.parse("2024-06-01"))
+                .dropOffDate(LocalDate.parse("2024-06-03"))
+                .status("Pending").build();
+    }
+
+    @Test
+    void applyBookingEvents_success() throws Exception {
+        List<BookingEvent> events = List.of(event());
+        when(bookingEventService.applyBookingEvents(events)).thenReturn(1);
+
+        mockMvc.perform(MockMvcRequestBuilders.post(baseUrl)
+                        .requestAttr(JwtVerificationFilter.PRINCIPAL_ATTRIBUTE, SERVICE)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(events)))
+                .andExpect(status().isOk())
+                .andExpect(content().string("1"));
+    }
+
+    @Test
+    void applyBookingEvents_anonymous() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.post(baseUrl)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(List.of(event()))))
+                .andExpect(status().isUnauthorized());
+        verify(bookingEventService, never()).applyBookingEvents(any());
+    }
+
+    @Test
+    void applyBookingEvents_notAService() throws Exception {
+        JwtPrincipal user = new JwtPrincipal("john", Set.of("USER"), Instant.now().plusSeconds(900));
+
+        mockMvc.perform(MockMvcRequestBuilders.post(baseUrl)
+                        .requestAttr(JwtVerificationFilter.PRINCIPAL_ATTRIBUTE, user)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(List.of(event()))))
+                .andExpect(status().isForbidden());
+        verify(bookingEventService, never()).applyBookingEvents(any());
+    }
+
+    @Test
+    void applyBookingEvents_incompleteEvent() throws Exception {
+        BookingEvent event = event();
+        event.setEventId(null);
+
+        mockMvc.perform(MockMvcRequestBuilders.post(baseUrl)
+                        .requestAttr(JwtVerificationFilter.PRINCIPAL_ATTRIBUTE, SERVICE)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(List.of(event))))
+                .andExpect(status().isBadRequest());
+        verify(bookingEventService, never()).applyBookingEvents(any());
+    }
+}
@@ -3,32 +3,56 @@ package com.rentacar.carinventory.web;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.rentacar.carinventory.business.service.CarInventoryService;
 import com.rentacar.carinventory.model.Car;
+import com.rentacar.carinventory.model.CarImportError;
+import com.rentacar.carinventory.model.CarImportResult;
+import com.rentacar.carinventory.model.CarSearchCriteria;
+import com.rentacar.carinventory.model.ResourceVersion;
+import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.hasSize;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.times;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 
@@ -99,6 +123,145 @@ class CarInventoryControllerTest {
                 .andExpect(status().isNoContent());
     }
 
+    @Test
+    void findCarsPage_success() throws Exception {
+        Mockito.when(carInventoryService.findCarsPage(0, 1))
+                .thenReturn(new PageImpl<>(List.of(car), PageRequest.of(0, 1), 3));
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get(baseUrl)
+                        .param("page", "0")
+                        .param("size", "1")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].make", is("Volvo")))
+                .andExpect(header().string(CarInventoryController.TOTAL_COUNT_HEADER, "3"))
+                .andExpect(header().string("Link", containsString("page=1>; rel=\"next\"")))
+                .andExpect(header().string("Link", containsString("page=2>; rel=\"last\"")));
+    }
+
+    @Test
+    void findCarsPage_invalidPage() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get(baseUrl)
+                        .param("page", "-1")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void findCarsAfterId_success() throws Exception {
+        Mockito.when(carInventoryService.findCarsAfterId(0L, 1))
+                .thenReturn(new SliceImpl<>(List.of(car), PageRequest.of(0, 1), true));
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get(baseUrl)
+                        .param("after", "0")
+                        .param("size", "1")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(header().string(CarInventoryController.NEXT_CURSOR_HEADER, "1"))
+                .andExpect(header().string("Link", containsString("after=1>; rel=\"next\"")));
+    }
+
+    @Test
+    void findCarsAfterId_lastPage() throws Exception {
+        Mockito.when(carInventoryService.findCarsAfterId(0L, 20))
+                .thenReturn(new SliceImpl<>(List.of(car), PageRequest.of(0, 20), false));
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get(baseUrl)
+                        .param("after", "0")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(CarInventoryController.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void exportCars_success() throws Exception {
+        Car secondCar = Car.builder()
+                .id(2L)
+                .make("Skoda")
+                .model("Karoq")
+                .gearbox("automatic")
+                .fuel("diesel")
+                .year(2020)
+                .price(85.00)
+                .available(true)
+                .build();
+        when(carInventoryService.exportCars(any())).thenAnswer(invocation -> {
+            Consumer<Car> consumer = invocation.getArgument(0);
+            consumer.accept(car);
+            consumer.accept(secondCar);
+            return 2L;
+        });
+
+        MvcResult mvcResult = mockMvc.perform(MockMvcRequestBuilders.get(baseUrl + "/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", CarInventoryController.NDJSON_MEDIA_TYPE))
+                .andExpect(content().string(mapper.writeValueAsString(car) + "\n"
+                        + mapper.writeValueAsString(secondCar) + "\n"));
+    }
+
+    @Test
+    void searchCars_success() throws Exception {
+        CarSearchCriteria criteria = CarSearchCriteria.builder().make("Volvo").fuel("gasoline").minPrice(50.0).build();
+        Pageable pageable = PageRequest.of(0, 5, Sort.by(Sort.Direction.DESC, "year"));
+        when(carInventoryService.searchCars(eq(criteria), eq(pageable)))
+                .thenReturn(new PageImpl<>(List.of(car), pageable, 1));
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get(baseUrl + "/search")
+                        .param("make", "Volvo")
+                        .param("fuel", "gasoline")
+                        .param("minPrice", "50")
+                        .param("size", "5")
+                        .param("sort", "year,desc")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].make", is("Volvo")))
+                .andExpect(header().string(CarInventoryController.TOTAL_COUNT_HEADER, "1"));
+    }
+
+    @Test
+    void searchCars_noContent() throws Exception {
+        when(carInventoryService.searchCars(any(), any())).thenReturn(Page.empty());
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get(baseUrl + "/search")
+                        .param("make", "Lada")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNoContent());
+    }
+
+    @Test
+    void searchCars_unsupportedSort() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get(baseUrl + "/search")
+                        .param("sort", "available")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+        verify(carInventoryService, times(0)).searchCars(any(), any());
+    }
+
+    @Test
+    void searchCars_invalidPriceRange() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get(baseUrl + "/search")
+                        .param("minPrice", "90")
+                        .param("maxPrice", "10")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+        verify(carInventoryService, times(0)).searchCars(any(), any());
+    }
+
     @Test
     void findAvailableCars_success() throws Exception{
         Car availableCar = Car.builder()
@@ -146,6 +309,63 @@ class CarInventoryControllerTest {
                 .andExpect(jsonPath("$.make", is("Volvo")));
     }
 
+    @Test
+    void findCarById_versionHeaders() throws Exception {
+        car.setVersion(3L);
+        car.setUpdatedAt(Instant.parse("2024-04-01T10:15:30Z"));
+        Mockito.when(carInventoryService.findCarById(car.getId())).thenReturn(Optional.of(car));
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get(baseUrl + "/{id}", car.getId())
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+                .andExpect(header().string(HttpHeaders.LAST_MODIFIED, "Mon, 01 Apr 2024 10:15:30 GMT"))
+                .andExpect(jsonPath("$.version").doesNotExist());
+    }
+
+    @Test
+    void findCarById_notModified() throws Exception {
+        when(carInventoryService.findCarVersionById(car.getId()))
+                .thenReturn(Optional.of(new ResourceVersion(3L, Instant.parse("2024-04-01T10:15:30Z"))));
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get(baseUrl + "/{id}", car.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verify(carInventoryService, times(0)).findCarById(car.getId());
+    }
+
+    @Test
+    void findCarById_notModifiedSince() throws Exception {
+        when(carInventoryService.findCarVersionById(car.getId()))
+                .thenReturn(Optional.of(new ResourceVersion(3L, Instant.parse("2024-04-01T10:15:30Z"))));
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get(baseUrl + "/{id}", car.getId())
+                        .header(HttpHeaders.IF_MODIFIED_SINCE, "Mon, 01 Apr 2024 10:15:30 GMT"))
+                .andExpect(status().isNotModified());
+
+        verify(carInventoryService, times(0)).findCarById(car.getId());
+    }
+
+    @Test
+    void findCarById_modifiedSinceETag() throws Exception {
+        car.setVersion(4L);
+        when(carInventoryService.findCarVersionById(car.getId()))
+                .thenReturn(Optional.of(new ResourceVersion(4L, Instant.parse("2024-04-02T10:15:30Z"))));
+        when(carInventoryService.findCarById(car.getId())).thenReturn(Optional.of(car));
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get(baseUrl + "/{id}", car.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""))
+                .andExpect(jsonPath("$.make", is("Volvo")));
+    }
+
     @Test
     void findCarById_notFound() throws Exception{
         Long id = 5L;
@@ -170,7 +390,8 @@ class CarInventoryControllerTest {
                 .build();
 
         List<Car> sortedCarsList = new ArrayList<>(Arrays.asList(car,car2));
-        Mockito.when(carInventoryService.findAllAvailableCarsSortedByPriceAsc()).thenReturn(sortedCarsList);
+        Mockito.when(carInventoryService.findAvailableCarsSortedByPrice(Sort.Direction.ASC, CarInventoryService.NO_LIMIT))
+                .thenReturn(sortedCarsList);
 
         mockMvc.perform(MockMvcRequestBuilders
                         .get(baseUrl + "/available/sortedByPrice")
@@ -184,7 +405,8 @@ class CarInventoryControllerTest {
     @Test
     void findAvailableCarsSortedByPrice_noContent() throws Exception {
         List<Car> emptyList = new ArrayList<>();
-        Mockito.when(carInventoryService.findAllAvailableCarsSortedByPriceAsc()).thenReturn(emptyList);
+        Mockito.when(carInventoryService.findAvailableCarsSortedByPrice(Sort.Direction.ASC, CarInventoryService.NO_LIMIT))
+                .thenReturn(emptyList);
 
         mockMvc.perform(MockMvcRequestBuilders
                         .get(baseUrl + "/available/sortedByPrice")
@@ -192,6 +414,30 @@ class CarInventoryControllerTest {
                 .andExpect(status().isNoContent());
     }
 
+    @Test
+    void findAvailableCarsSortedByPrice_descendingTopN() throws Exception {
+        Mockito.when(carInventoryService.findAvailableCarsSortedByPrice(Sort.Direction.DESC, 1))
+                .thenReturn(List.of(car));
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get(baseUrl + "/available/sortedByPrice")
+                        .param("direction", "desc")
+                        .param("limit", "1")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].make", is("Volvo")));
+    }
+
+    @Test
+    void findAvailableCarsSortedByPrice_invalidDirection() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get(baseUrl + "/available/sortedByPrice")
+                        .param("direction", "sideways")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void saveCar_success() throws Exception {
         Mockito.when(carInventoryService.saveCar(car)).thenReturn(car);
@@ -207,6 +453,48 @@ class CarInventoryControllerTest {
                 .andExpect(jsonPath("$.make",is("Volvo")));
     }
 
+    @Test
+    void importCars_success() throws Exception {
+        CarImportResult result = CarImportResult.builder()
+                .imported(1)
+                .failed(1)
+                .errors(List.of(new CarImportError(2, "make must not be null")))
+                .build();
+        when(carInventoryService.importCars(List.of(car, new Car()))).thenReturn(result);
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .post(baseUrl + "/import")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(List.of(car, new Car()))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported", is(1)))
+                .andExpect(jsonPath("$.failed", is(1)))
+                .andExpect(jsonPath("$.errors[0].row", is(2)));
+    }
+
+    @Test
+    void importCarsFromCsv_success() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "cars.csv", "text/csv",
+                "make,model,gearbox,fuel,year,price\nVolvo,v60,automatic,gasoline,2018,70\n".getBytes());
+        when(carInventoryService.importCarsFromCsv(any()))
+                .thenReturn(CarImportResult.builder().imported(1).build());
+
+        mockMvc.perform(MockMvcRequestBuilders.multipart(baseUrl + "/import").file(file))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported", is(1)))
+                .andExpect(jsonPath("$.errors", hasSize(0)));
+    }
+
+    @Test
+    void importCarsFromCsv_invalidHeader() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "cars.csv", "text/csv", "make\n".getBytes());
+        when(carInventoryService.importCarsFromCsv(any()))
+                .thenThrow(new IllegalArgumentException("CSV header is missing column: model"));
+
+        mockMvc.perform(MockMvcRequestBuilders.multipart(baseUrl + "/import").file(file))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void updateCarById_success() throws Exception {
         Car updatedCar = Car.builder()
@@ -235,6 +523,63 @@ class CarInventoryControllerTest {
         verify(carInventoryService, times(1)).updateCar(updatedCar);
     }
 
+    @Test
+    void updateCarById_ifMatch() throws Exception {
+        Car updatedCar = Car.builder()
+                .id(1L)
+                .make("Volvo")
+                .model("v60")
+                .gearbox("automatic")
+                .fuel("gasoline")
+                .year(2018)
+                .price(75.00)
+                .available(true)
+                .version(3L).build();
+        Car savedCar = Car.builder()
+                .id(1L)
+                .make("Volvo")
+                .model("v60")
+                .gearbox("automatic")
+                .fuel("gasoline")
+                .year(2018)
+                .price(75.00)
+                .available(true)
+                .version(4L).build();
+        when(carInventoryService.updateCar(updatedCar)).thenReturn(savedCar);
+
+        mockMvc.perform(put(baseUrl + "/{id}", 1L)
+                        .header(HttpHeaders.IF_MATCH, "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(updatedCar)))
+                .andExpect(status().isCreated())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""));
+
+        verify(carInventoryService, times(1)).updateCar(updatedCar);
+    }
+
+    @Test
+    void updateCarById_staleIfMatch() throws Exception {
+        when(carInventoryService.updateCar(any()))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Car.class, 1L));
+
+        mockMvc.perform(put(baseUrl + "/{id}", 1L)
+                        .header(HttpHeaders.IF_MATCH, "\"2\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(car)))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void updateCarById_weakIfMatch() throws Exception {
+        mockMvc.perform(put(baseUrl + "/{id}", 1L)
+                        .header(HttpHeaders.IF_MATCH, "W/\"2\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(car)))
+                .andExpect(status().isPreconditionFailed());
+
+        verify(carInventoryService, times(0)).updateCar(any());
+    }
+
     @Test
     public void updateCarById_invalidId() throws Exception {
         Long invalidId = 0L;
@@ -256,18 +601,29 @@ class CarInventoryControllerTest {
         verify(carInventoryService, times(0)).updateCar(car);
     }
 
+    @Test
+    public void updateCarById_missingCar() throws Exception {
+        when(carInventoryService.updateCar(any())).thenThrow(new EntityNotFoundException("Car is not found by id"));
+        mockMvc.perform(put(baseUrl + "/{id}", car.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(car)))
+                .andExpect(status().isNotFound());
+        verify(carInventoryService, times(0)).findCarById(car.getId());
+    }
+
     @Test
     void deleteCarById_success() throws Exception{
         Long id = car.getId();
-        when(carInventoryService.findCarById(id)).thenReturn(Optional.of(new Car()));
+        when(carInventoryService.deleteCarById(id)).thenReturn(true);
         mockMvc.perform(delete(baseUrl + "/{id}", id))
                 .andExpect(status().isNoContent());
+        verify(carInventoryService, times(0)).findCarById(id);
     }
 
     @Test
     void deleteCarById_notExistingId() throws Exception{
         Long id = car.getId();
-        when(carInventoryService.findCarById(id)).thenReturn(Optional.empty());
+        when(carInventoryService.deleteCarById(id)).thenReturn(false);
         mockMvc.perform(delete(baseUrl + "/{id}", id))
                 .andExpect(status().isNotFound());
     }
@@ -2,20 +2,83 @@ package com.rentacar.discoverysecurityservice.config;
 
 import com.rentacar.discoverysecurityservice.user.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.CachingUserDetailsService;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.factory.PasswordEncoderFactories;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 
 @Configuration
+@EnableConfigurationProperties(JwtProperties.class)
 @RequiredArgsConstructor
 public class ApplicationConfig {
 
     private final UserRepository repository;
 
+    private final UserDetailsCache userDetailsCache;
+
+    /**
+     * Cached lookup for requests that already proved who they are with a token, such as a refresh. Passwords
+     * are never checked against it, see {@link #authenticationManager(PasswordEncoder)}.
+     */
     @Bean
     public UserDetailsService userDetailsService(){
-        return username -> repository.findByUsername(username)
+        CachingUserDetailsService userDetailsService = new CachingUserDetailsService(this::findUser);
+        userDetailsService.setUserCache(userDetailsCache);
+        return userDetailsService;
+    }
+
+    /**
+     * Matches {@code {id}}-prefixed hashes with their encoder. user-service encodes every password it stores,
+     * so a password without a prefix never matches instead of being compared as plain text.
+     */
+    @Bean
+    public PasswordEncoder passwordEncoder() {
+        DelegatingPasswordEncoder passwordEncoder =
+                (DelegatingPasswordEncoder) PasswordEncoderFactories.createDelegatingPasswordEncoder();
+        passwordEncoder.setDefaultPasswordEncoderForMatches(new UnencodedPasswordEncoder());
+        return passwordEncoder;
+    }
+
+    /**
+     * Checks passwords against the user as stored right now. user-service changes passwords in another JVM,
+     * where no entity listener of this service sees it, so a cached user would keep accepting the old password
+     * until its entry expires.
+     */
+    @Bean
+    public AuthenticationManager authenticationManager(PasswordEncoder passwordEncoder) {
+        DaoAuthenticationProvider authenticationProvider = new DaoAuthenticationProvider(passwordEncoder);
+        authenticationProvider.setUserDetailsService(this::findUser);
+        return new ProviderManager(authenticationProvider);
+    }
+
+    private UserDetails findUser(String username) {
+        return repository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
     }
+
+    /**
+     * Rejects stored passwords without an encoder prefix; the delegating encoder would throw on them and
+     * turn a failed sign-in into a server error.
+     */
+    private static final class UnencodedPasswordEncoder implements PasswordEncoder {
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            throw new UnsupportedOperationException("Passwords are encoded with the delegating encoder");
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return false;
+        }
+    }
 }
@@ -0,0 +1,134 @@
+package com.rentacar.discoverysecurityservice.config;
+
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.security.Jwk;
+import io.jsonwebtoken.security.JwkSet;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.PrivateJwk;
+import io.jsonwebtoken.security.PublicJwk;
+import io.jsonwebtoken.security.SecretJwk;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.Key;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Keys that sign and verify tokens, indexed by their {@code kid}.
+ * <p>
+ * The key set is parsed once; verification looks up the key named by the token header, so several keys
+ * can be valid at the same time while one of them signs new tokens. The signature algorithm follows the
+ * key: EdDSA for Ed25519, RS256 for 2048-bit RSA and HS256 for 256-bit secrets. Public parts of the
+ * asymmetric keys are published as a JWK set, so other services can verify tokens without calling back;
+ * secret keys are never published.
+ */
+@Log4j2
+@Component
+public class JwtKeyRing extends LocatorAdapter<Key> {
+
+    private final Map<String, Key> verificationKeysById;
+
+    private final String signingKeyId;
+
+    private final Key signingKey;
+
+    private final String publicKeySetJson;
+
+    public JwtKeyRing(JwtProperties jwtProperties) throws IOException {
+        JwkSet keySet = jwtProperties.getKeySet() == null ? generatedKeySet(jwtProperties) : read(jwtProperties);
+        Map<String, Key> verificationKeys = new HashMap<>();
+        Map<String, Key> signingKeys = new HashMap<>();
+        List<PublicJwk<?>> publicJwks = new ArrayList<>();
+        for (Jwk<?> jwk : keySet) {
+            String keyId = jwk.getId();
+            if (keyId == null || verificationKeys.containsKey(keyId)) {
+                throw new IllegalStateException("Every key of the JWT key set needs a unique kid, found: " + keyId);
+            }
+            if (jwk instanceof PrivateJwk<?, ?, ?> privateJwk) {
+                verificationKeys.put(keyId, privateJwk.toPublicJwk().toKey());
+                signingKeys.put(keyId, privateJwk.toKey());
+                publicJwks.add(privateJwk.toPublicJwk());
+            } else if (jwk instanceof PublicJwk<?> publicJwk) {
+                verificationKeys.put(keyId, publicJwk.toKey());
+                publicJwks.add(publicJwk);
+            } else if (jwk instanceof SecretJwk secretJwk) {
+                verificationKeys.put(keyId, secretJwk.toKey());
+                signingKeys.put(keyId, secretJwk.toKey());
+            }
+        }
+        this.verificationKeysById = Map.copyOf(verificationKeys);
+        this.signingKeyId = selectSigningKeyId(jwtProperties.getSigningKeyId(), signingKeys);
+        this.signingKey = signingKeys.get(signingKeyId);
+        this.publicKeySetJson = publicJwks.stream()
+                .map(Jwks::json)
+                .collect(Collectors.joining(",", "{\"keys\":[", "]}"));
+        log.info("JWT key ring is loaded. Keys: {}, signing key: {}", verificationKeysById.keySet(), signingKeyId);
+    }
+
+    public String getSigningKeyId() {
+        return signingKeyId;
+    }
+
+    public Key getSigningKey() {
+        return signingKey;
+    }
+
+    /**
+     * @return public keys of the ring as a JWK set document
+     */
+    public String getPublicKeySetJson() {
+        return publicKeySetJson;
+    }
+
+    @Override
+    protected Key locate(JwsHeader header) {
+        String keyId = header.getKeyId();
+        Key key = keyId == null ? null : verificationKeysById.get(keyId);
+        if (key == null) {
+            throw new UnsupportedJwtException("Token is not signed by a key of the ring: " + keyId);
+        }
+        return key;
+    }
+
+    private static JwkSet read(JwtProperties jwtProperties) throws IOException {
+        try (InputStream inputStream = jwtProperties.getKeySet().getInputStream()) {
+            return Jwks.setParser().build().parse(inputStream);
+        }
+    }
+
+    private static JwkSet generatedKeySet(JwtProperties jwtProperties) {
+        if (!jwtProperties.isGenerateKeySet()) {
+            throw new IllegalStateException("No JWT key set is configured. Set security.jwt.key-set, or "
+                    + "security.jwt.generate-key-set=true (the dev profile) to sign with a key of this run only");
+        }
+        log.warn("No JWT key set is configured, tokens are signed with a key generated for this run only");
+        return Jwks.set()
+                .add(Jwks.builder()
+                        .keyPair(Jwks.CRV.Ed25519.keyPair().build())
+                        .idFromThumbprint()
+                        .publicKeyUse("sig")
+                        .build())
+                .build();
+    }
+
+    private static String selectSigningKeyId(String configuredKeyId, Map<String, Key> signingKeys) {
+        if (configuredKeyId != null) {
+            if (!signingKeys.containsKey(configuredKeyId)) {
+                throw new IllegalStateException("JWT signing key " + configuredKeyId + " is not a private or secret key of the key set");
+            }
+            return configuredKeyId;
+        }
+        if (signingKeys.size() != 1) {
+            throw new IllegalStateException("security.jwt.signing-key-id must name one of the signing keys " + signingKeys.keySet());
+        }
+        return signingKeys.keySet().iterator().next();
+    }
+}
@@ -0,0 +1,38 @@
+package com.rentacar.discoverysecurityservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.core.io.Resource;
+
+import java.time.Duration;
+
+/**
+ * Token settings under {@code security.jwt}.
+ */
+@Data
+@ConfigurationProperties(prefix = "security.jwt")
+public class JwtProperties {
+
+    /** Value of the {@code iss} claim; tokens from any other issuer are rejected. */
+    private String issuer = "discovery-security-service";
+
+    private Duration accessTokenLifetime = Duration.ofMinutes(15);
+
+    private Duration refreshTokenLifetime = Duration.ofDays(7);
+
+    /**
+     * JWK set with the keys of the ring. Private and secret keys can sign, public keys only verify, which
+     * is how a retired key stays valid until the tokens it signed expire. Required unless
+     * {@link #generateKeySet} is on.
+     */
+    private Resource keySet;
+
+    /**
+     * Generates an Ed25519 key at startup when no key set is configured. For development only: tokens do not
+     * survive a restart and instances do not accept each other's tokens.
+     */
+    private boolean generateKeySet;
+
+    /** {@code kid} of the key that signs new tokens; may be left out when the set has a single signing key. */
+    private String signingKeyId;
+}
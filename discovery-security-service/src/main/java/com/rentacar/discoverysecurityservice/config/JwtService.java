@@ -1,22 +1,83 @@
 package com.rentacar.discoverysecurityservice.config;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
-import java.security.Key;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
+/**
+ * Issues and verifies access and refresh tokens signed by the keys of the {@link JwtKeyRing}.
+ * <p>
+ * The parser is built once and picks the verification key named by the token header; it is immutable and
+ * shared by all requests. Verified claims are kept in a bounded cache keyed by the SHA-256 hash of the token until the token
+ * expires, so a repeated token costs a hash and a lookup instead of a signature check and a JSON parse.
+ * Tokens that fail verification are never cached.
+ */
 @Service
 public class JwtService {
-    private static final String SECRET_KEY = "6ffffb04cf31de0949c9c5c8b9c2395770cad1cd41ee7a03074ac42f0006761a";
+    /** Claim with the names of the granted authorities, so requests can be authorised from the token alone. */
+    public static final String AUTHORITIES_CLAIM = "roles";
+
+    /** Claim that tells access tokens from refresh tokens, so one cannot be used in place of the other. */
+    public static final String TOKEN_USE_CLAIM = "token_use";
+
+    public static final String ACCESS_TOKEN = "access";
+
+    public static final String REFRESH_TOKEN = "refresh";
+
+    static final String VERIFIED_TOKEN_CACHE = "verifiedTokens";
+
+    /** Longest time a verified token is trusted without checking its signature again. */
+    private static final Duration MAX_CACHED_LIFETIME = Duration.ofMinutes(5);
+
+    private final JwtKeyRing jwtKeyRing;
+
+    private final JwtProperties jwtProperties;
+
+    private final JwtParser jwtParser;
+
+    private final Cache<String, Claims> verifiedTokens;
+
+    public JwtService(JwtKeyRing jwtKeyRing,
+                      JwtProperties jwtProperties,
+                      @Value("${security.jwt.verified-token-cache.maximum-size:10000}") long maximumSize,
+                      MeterRegistry meterRegistry) {
+        this.jwtKeyRing = jwtKeyRing;
+        this.jwtProperties = jwtProperties;
+        this.jwtParser = Jwts.parser()
+                .keyLocator(jwtKeyRing)
+                .requireIssuer(jwtProperties.getIssuer())
+                .build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new UntilTokenExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, VERIFIED_TOKEN_CACHE);
+    }
 
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
@@ -35,40 +96,105 @@ public class JwtService {
             Map<String, Object> extraClaims,
             UserDetails userDetails
     ){
-        return Jwts
+        return sign(Jwts
                 .builder()
-                .setClaims(extraClaims)
-                .setSubject(userDetails.getUsername())
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + 1000 * 60))
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
-                .compact();
+                .claims(extraClaims)
+                .claim(AUTHORITIES_CLAIM, userDetails.getAuthorities().stream()
+                        .map(GrantedAuthority::getAuthority)
+                        .toList())
+                .claim(TOKEN_USE_CLAIM, ACCESS_TOKEN), userDetails, jwtProperties.getAccessTokenLifetime());
+    }
+
+    /**
+     * @return token that can only be exchanged for a new access token; it carries no authorities
+     */
+    public String generateRefreshToken(UserDetails userDetails){
+        return sign(Jwts
+                .builder()
+                .claim(TOKEN_USE_CLAIM, REFRESH_TOKEN), userDetails, jwtProperties.getRefreshTokenLifetime());
     }
 
     public boolean isTokenValid(String token, UserDetails userDetails){
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+        final Claims claims = extractAllClaims(token);
+        return (claims.getSubject().equals(userDetails.getUsername())) && isAccessToken(claims) && !isTokenExpired(claims);
+    }
+
+    public boolean isAccessToken(Claims claims) {
+        return ACCESS_TOKEN.equals(claims.get(TOKEN_USE_CLAIM, String.class));
+    }
+
+    public boolean isRefreshToken(Claims claims) {
+        return REFRESH_TOKEN.equals(claims.get(TOKEN_USE_CLAIM, String.class));
+    }
+
+    /**
+     * Verifies the token once and returns all of its claims. The returned claims are shared with other
+     * requests carrying the same token and must not be modified.
+     *
+     * @throws io.jsonwebtoken.JwtException if the token is malformed, badly signed or expired
+     */
+    public Claims extractAllClaims(String token){
+        return verifiedTokens.get(hash(token), tokenHash -> jwtParser.parseSignedClaims(token).getPayload());
+    }
+
+    /**
+     * @return authorities listed in the {@value #AUTHORITIES_CLAIM} claim, or none if the claim is absent
+     */
+    public List<GrantedAuthority> extractAuthorities(Claims claims) {
+        List<?> authorities = claims.get(AUTHORITIES_CLAIM, List.class);
+        if (authorities == null) {
+            return List.of();
+        }
+        return authorities.stream()
+                .map(authority -> (GrantedAuthority) new SimpleGrantedAuthority(String.valueOf(authority)))
+                .toList();
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    private String sign(JwtBuilder builder, UserDetails userDetails, Duration lifetime) {
+        Instant now = Instant.now();
+        return builder
+                .header().keyId(jwtKeyRing.getSigningKeyId()).and()
+                .issuer(jwtProperties.getIssuer())
+                .subject(userDetails.getUsername())
+                .issuedAt(Date.from(now))
+                .expiration(Date.from(now.plus(lifetime)))
+                .signWith(jwtKeyRing.getSigningKey())
+                .compact();
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    private boolean isTokenExpired(Claims claims) {
+        return claims.getExpiration() != null && claims.getExpiration().before(new Date());
     }
 
-    private Claims extractAllClaims(String token){
-        return Jwts
-                .parserBuilder()
-                .setSigningKey(getSignInKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
     }
 
-    private Key getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(SECRET_KEY);
-        return Keys.hmacShaKeyFor(keyBytes);
+    /** Keeps verified claims until the token expires, but no longer than {@link #MAX_CACHED_LIFETIME}. */
+    private static class UntilTokenExpiry implements Expiry<String, Claims> {
+
+        @Override
+        public long expireAfterCreate(String tokenHash, Claims claims, long currentTime) {
+            if (claims.getExpiration() == null) {
+                return MAX_CACHED_LIFETIME.toNanos();
+            }
+            long remainingMillis = claims.getExpiration().getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, Math.min(remainingMillis, MAX_CACHED_LIFETIME.toMillis())));
+        }
+
+        @Override
+        public long expireAfterUpdate(String tokenHash, Claims claims, long currentTime, long currentDuration) {
+            return expireAfterCreate(tokenHash, claims, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String tokenHash, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
@@ -0,0 +1,57 @@
+package com.rentacar.discoverysecurityservice.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Bounded, time-limited cache of loaded users for the token-based lookups that still go to the database, such
+ * as a refresh. Requests carrying a valid access token never reach it, because their authorities come from
+ * the token, and passwords are always checked against the database. Users changed or removed through this
+ * service are evicted by {@link UserDetailsCacheInvalidator}; changes made elsewhere are picked up when the
+ * entry expires.
+ */
+@Component
+public class UserDetailsCache implements UserCache {
+
+    static final String USER_DETAILS_CACHE = "userDetails";
+
+    private final Cache<String, UserDetails> usersByUsername;
+
+    public UserDetailsCache(@Value("${security.user-details-cache.maximum-size:10000}") long maximumSize,
+                            @Value("${security.user-details-cache.time-to-live:PT5M}") Duration timeToLive,
+                            MeterRegistry meterRegistry) {
+        this.usersByUsername = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, usersByUsername, USER_DETAILS_CACHE);
+    }
+
+    @Override
+    public UserDetails getUserFromCache(String username) {
+        return usersByUsername.getIfPresent(username);
+    }
+
+    @Override
+    public void putUserInCache(UserDetails user) {
+        usersByUsername.put(user.getUsername(), user);
+    }
+
+    @Override
+    public void removeUserFromCache(String username) {
+        usersByUsername.invalidate(username);
+    }
+
+    public void removeAllUsersFromCache() {
+        usersByUsername.invalidateAll();
+    }
+}
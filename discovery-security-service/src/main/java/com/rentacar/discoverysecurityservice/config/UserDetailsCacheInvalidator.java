@@ -0,0 +1,27 @@
+package com.rentacar.discoverysecurityservice.config;
+
+import com.rentacar.discoverysecurityservice.user.User;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA listener of {@link User} that evicts a changed or removed user from the {@link UserDetailsCache}.
+ */
+@Component
+public class UserDetailsCacheInvalidator {
+
+    private UserDetailsCache userDetailsCache;
+
+    @Autowired
+    public void setUserDetailsCache(UserDetailsCache userDetailsCache) {
+        this.userDetailsCache = userDetailsCache;
+    }
+
+    @PostUpdate
+    @PostRemove
+    public void evict(User user) {
+        userDetailsCache.removeUserFromCache(user.getUsername());
+    }
+}
@@ -0,0 +1,24 @@
+package com.rentacar.discoverysecurityservice.model;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+@ApiModel(description = "Credentials exchanged for an access and a refresh token")
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+public class AuthenticationRequest {
+
+    @ApiModelProperty(notes = "Username of the user")
+    private String username;
+
+    @ApiModelProperty(notes = "Password of the user")
+    @ToString.Exclude
+    private String password;
+}
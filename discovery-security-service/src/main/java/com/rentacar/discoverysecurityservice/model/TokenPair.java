@@ -0,0 +1,22 @@
+package com.rentacar.discoverysecurityservice.model;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@ApiModel(description = "Access token with the refresh token that renews it")
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+public class TokenPair {
+
+    @ApiModelProperty(notes = "Bearer token for the Authorization header")
+    private String accessToken;
+
+    @ApiModelProperty(notes = "Token to exchange for a new access token once this one expires")
+    private String refreshToken;
+}
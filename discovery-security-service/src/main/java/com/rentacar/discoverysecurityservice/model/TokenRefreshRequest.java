@@ -0,0 +1,19 @@
+package com.rentacar.discoverysecurityservice.model;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@ApiModel(description = "Request for a new access token")
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+public class TokenRefreshRequest {
+
+    @ApiModelProperty(notes = "Refresh token issued together with an earlier access token")
+    private String refreshToken;
+}
@@ -1,4 +1,8 @@
 package com.rentacar.discoverysecurityservice.user;
 
 public enum Role {
+    USER,
+    ADMIN,
+    /** Account of a service calling the other services. */
+    SERVICE
 }
@@ -1,6 +1,7 @@
 package com.rentacar.discoverysecurityservice.user;
 
 
+import com.rentacar.discoverysecurityservice.config.UserDetailsCacheInvalidator;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -18,7 +19,10 @@ import java.util.List;
 @AllArgsConstructor
 @Entity
 @Builder
-@Table(name = "user")
+@Table(name = "user", indexes = {
+        @Index(name = "idx_user_username", columnList = "username", unique = true)
+})
+@EntityListeners(UserDetailsCacheInvalidator.class)
 public class User implements UserDetails {
 
     @Id
@@ -37,7 +41,7 @@ public class User implements UserDetails {
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        return List.of(new SimpleGrantedAuthority(role.name()));
+        return role == null ? List.of() : List.of(new SimpleGrantedAuthority(role.name()));
     }
 
     @Override
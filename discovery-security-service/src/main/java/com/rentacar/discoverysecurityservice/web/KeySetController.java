@@ -0,0 +1,36 @@
+package com.rentacar.discoverysecurityservice.web;
+
+import com.rentacar.discoverysecurityservice.config.JwtKeyRing;
+import io.swagger.annotations.ApiOperation;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+
+/**
+ * Publishes the public keys of the {@link JwtKeyRing}, so other services can verify tokens locally.
+ */
+@RestController
+@RequiredArgsConstructor
+public class KeySetController {
+
+    public static final String KEY_SET_PATH = "/.well-known/jwks.json";
+
+    /** Short enough for verifiers to see a newly added key before it starts signing. */
+    private static final Duration KEY_SET_MAX_AGE = Duration.ofMinutes(5);
+
+    private final JwtKeyRing jwtKeyRing;
+
+    @GetMapping(value = KEY_SET_PATH, produces = MediaType.APPLICATION_JSON_VALUE)
+    @ApiOperation(value = "Find the public token verification keys",
+            notes = "Returns a JWK set; the kid header of a token names the key that verifies it")
+    public ResponseEntity<String> findKeySet() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(KEY_SET_MAX_AGE).cachePublic())
+                .body(jwtKeyRing.getPublicKeySetJson());
+    }
+}
@@ -0,0 +1,106 @@
+package com.rentacar.discoverysecurityservice.web;
+
+import com.rentacar.discoverysecurityservice.config.JwtService;
+import com.rentacar.discoverysecurityservice.model.AuthenticationRequest;
+import com.rentacar.discoverysecurityservice.model.TokenPair;
+import com.rentacar.discoverysecurityservice.model.TokenRefreshRequest;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@Log4j2
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/v1/auth")
+public class TokenController {
+
+    private final JwtService jwtService;
+
+    private final UserDetailsService userDetailsService;
+
+    private final AuthenticationManager authenticationManager;
+
+    /**
+     * Issues an access token together with the refresh token that renews it.
+     */
+    @PostMapping("/authenticate")
+    @ApiOperation(value = "Exchange a username and password for an access and a refresh token",
+            response = TokenPair.class)
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "The tokens are issued"),
+            @ApiResponse(code = 400, message = "No username or password is sent"),
+            @ApiResponse(code = 401, message = "The username or password is wrong")})
+    public ResponseEntity<TokenPair> authenticate(@RequestBody AuthenticationRequest request) {
+        if (request.getUsername() == null || request.getPassword() == null) {
+            log.warn("Authentication request without a username or password");
+            return ResponseEntity.badRequest().build();
+        }
+        final UserDetails userDetails;
+        try {
+            Authentication authentication = authenticationManager.authenticate(
+                    UsernamePasswordAuthenticationToken.unauthenticated(request.getUsername(), request.getPassword()));
+            userDetails = (UserDetails) authentication.getPrincipal();
+        } catch (AuthenticationException e) {
+            log.warn("Authentication of user {} failed: {}", request.getUsername(), e.getMessage());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        log.info("User {} is authenticated", userDetails.getUsername());
+        return ResponseEntity.ok(new TokenPair(jwtService.generateToken(userDetails), jwtService.generateRefreshToken(userDetails)));
+    }
+
+    /**
+     * Issues a new access token and a new refresh token for a valid refresh token. The user is loaded again, so
+     * role changes are picked up, and a client that keeps refreshing stays signed in. Tokens are not stored, so
+     * the sent refresh token is not revoked and stays valid until it expires.
+     */
+    @PostMapping("/refresh")
+    @ApiOperation(value = "Exchange a refresh token for a new access and refresh token",
+            response = TokenPair.class)
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "A new access token is issued"),
+            @ApiResponse(code = 400, message = "No refresh token is sent"),
+            @ApiResponse(code = 401, message = "The refresh token is invalid, expired or its user no longer exists")})
+    public ResponseEntity<TokenPair> refreshToken(@RequestBody TokenRefreshRequest request) {
+        if (request.getRefreshToken() == null || request.getRefreshToken().isBlank()) {
+            log.warn("Refresh request without a refresh token");
+            return ResponseEntity.badRequest().build();
+        }
+        final Claims claims;
+        try {
+            claims = jwtService.extractAllClaims(request.getRefreshToken());
+        } catch (JwtException | IllegalArgumentException e) {
+            log.warn("Rejected refresh token: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        if (!jwtService.isRefreshToken(claims)) {
+            log.warn("Token of user {} is not a refresh token", claims.getSubject());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        final UserDetails userDetails;
+        try {
+            userDetails = userDetailsService.loadUserByUsername(claims.getSubject());
+        } catch (UsernameNotFoundException e) {
+            log.warn("Refresh token of unknown user {}", claims.getSubject());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        log.info("Tokens are refreshed for user {}", userDetails.getUsername());
+        return ResponseEntity.ok(new TokenPair(jwtService.generateToken(userDetails), jwtService.generateRefreshToken(userDetails)));
+    }
+}
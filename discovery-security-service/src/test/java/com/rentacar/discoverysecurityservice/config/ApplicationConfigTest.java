@@ -0,0 +1,120 @@
+package com.rentacar.discoverysecurityservice.config;
+
+import com.rentacar.discoverysecurityservice.user.User;
+import com.rentacar.discoverysecurityservice.user.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ApplicationConfigTest {
+
+    @Mock
+    private UserRepository repository;
+
+    private UserDetailsCache userDetailsCache;
+
+    private ApplicationConfig applicationConfig;
+
+    private UserDetailsService userDetailsService;
+
+    private User user;
+
+    @BeforeEach
+    public void init() {
+        userDetailsCache = new UserDetailsCache(100, Duration.ofMinutes(5), new SimpleMeterRegistry());
+        applicationConfig = new ApplicationConfig(repository, userDetailsCache);
+        userDetailsService = applicationConfig.userDetailsService();
+        user = User.builder().id(1L).username("john").password("secret").build();
+    }
+
+    @Test
+    void loadUserByUsername_cached() {
+        when(repository.findByUsername("john")).thenReturn(Optional.of(user));
+
+        assertEquals(user, userDetailsService.loadUserByUsername("john"));
+        assertEquals(user, userDetailsService.loadUserByUsername("john"));
+
+        verify(repository, times(1)).findByUsername("john");
+    }
+
+    @Test
+    void loadUserByUsername_evicted() {
+        when(repository.findByUsername("john")).thenReturn(Optional.of(user));
+
+        userDetailsService.loadUserByUsername("john");
+        userDetailsCache.removeUserFromCache("john");
+        userDetailsService.loadUserByUsername("john");
+
+        verify(repository, times(2)).findByUsername("john");
+    }
+
+    @Test
+    void authenticate_unencodedPassword() {
+        when(repository.findByUsername("john")).thenReturn(Optional.of(user));
+
+        assertThrows(BadCredentialsException.class, () -> authenticationManager().authenticate(
+                UsernamePasswordAuthenticationToken.unauthenticated("john", "secret")));
+    }
+
+    @Test
+    void authenticate_encodedPassword() {
+        user.setPassword(applicationConfig.passwordEncoder().encode("secret"));
+        when(repository.findByUsername("john")).thenReturn(Optional.of(user));
+
+        Authentication authentication = authenticationManager().authenticate(
+                UsernamePasswordAuthenticationToken.unauthenticated("john", "secret"));
+
+        assertEquals(user, authentication.getPrincipal());
+        assertThrows(BadCredentialsException.class, () -> authenticationManager().authenticate(
+                UsernamePasswordAuthenticationToken.unauthenticated("john", "wrong")));
+    }
+
+    @Test
+    void authenticate_passwordChangedElsewhere() {
+        PasswordEncoder passwordEncoder = applicationConfig.passwordEncoder();
+        user.setPassword(passwordEncoder.encode("secret"));
+        User changed = User.builder().id(1L).username("john").password(passwordEncoder.encode("changed")).build();
+        when(repository.findByUsername("john")).thenReturn(Optional.of(user), Optional.of(changed));
+        AuthenticationManager authenticationManager = authenticationManager();
+        userDetailsService.loadUserByUsername("john");
+
+        assertThrows(BadCredentialsException.class, () -> authenticationManager.authenticate(
+                UsernamePasswordAuthenticationToken.unauthenticated("john", "secret")));
+        assertEquals(changed, authenticationManager.authenticate(
+                UsernamePasswordAuthenticationToken.unauthenticated("john", "changed")).getPrincipal());
+    }
+
+    private AuthenticationManager authenticationManager() {
+        return applicationConfig.authenticationManager(applicationConfig.passwordEncoder());
+    }
+
+    @Test
+    void loadUserByUsername_notFound() {
+        when(repository.findByUsername("jane")).thenReturn(Optional.empty());
+
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("jane"));
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("jane"));
+
+        verify(repository, times(2)).findByUsername("jane");
+    }
+}
@@ -0,0 +1,102 @@
+package com.rentacar.discoverysecurityservice.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JwtAuthenticationFilterTest {
+
+    private JwtProperties jwtProperties;
+
+    private JwtService jwtService;
+
+    private JwtAuthenticationFilter jwtAuthenticationFilter;
+
+    private final AtomicReference<Authentication> authenticationInChain = new AtomicReference<>();
+
+    private final AtomicInteger chainCalls = new AtomicInteger();
+
+    private final FilterChain filterChain = (request, response) -> {
+        chainCalls.incrementAndGet();
+        authenticationInChain.set(SecurityContextHolder.getContext().getAuthentication());
+    };
+
+    @BeforeEach
+    public void init() throws Exception {
+        jwtProperties = new JwtProperties();
+        jwtProperties.setGenerateKeySet(true);
+        jwtService = new JwtService(new JwtKeyRing(jwtProperties), jwtProperties, 100, new SimpleMeterRegistry());
+        jwtAuthenticationFilter = new JwtAuthenticationFilter(jwtService);
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void doFilter_validToken() throws Exception {
+        String token = jwtService.generateToken(User.withUsername("john").password("secret")
+                .authorities("ADMIN", "CUSTOMER").build());
+
+        jwtAuthenticationFilter.doFilter(request("Bearer " + token), new MockHttpServletResponse(), filterChain);
+
+        Authentication authentication = authenticationInChain.get();
+        assertEquals(1, chainCalls.get());
+        assertEquals("john", authentication.getName());
+        assertTrue(authentication.isAuthenticated());
+        assertEquals(List.of("ADMIN", "CUSTOMER"), authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList());
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    @Test
+    void doFilter_invalidToken() throws Exception {
+        jwtAuthenticationFilter.doFilter(request("Bearer not.a.token"), new MockHttpServletResponse(), filterChain);
+
+        assertEquals(1, chainCalls.get());
+        assertNull(authenticationInChain.get());
+    }
+
+    @Test
+    void doFilter_refreshToken() throws Exception {
+        String token = jwtService.generateRefreshToken(User.withUsername("john").password("secret")
+                .authorities("ADMIN").build());
+
+        jwtAuthenticationFilter.doFilter(request("Bearer " + token), new MockHttpServletResponse(), filterChain);
+
+        assertEquals(1, chainCalls.get());
+        assertNull(authenticationInChain.get());
+    }
+
+    @Test
+    void doFilter_noToken() throws Exception {
+        jwtAuthenticationFilter.doFilter(new MockHttpServletRequest(), new MockHttpServletResponse(), filterChain);
+
+        assertEquals(1, chainCalls.get());
+        assertNull(authenticationInChain.get());
+    }
+
+    private MockHttpServletRequest request(String authorization) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", authorization);
+        return request;
+    }
+}
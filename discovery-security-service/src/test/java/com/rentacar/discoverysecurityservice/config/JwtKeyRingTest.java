@@ -0,0 +1,141 @@
+package com.rentacar.discoverysecurityservice.config;
+
+import io.jsonwebtoken.IncorrectClaimException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.PrivateJwk;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JwtKeyRingTest {
+
+    private final UserDetails user = User.withUsername("john").password("secret").authorities("USER").build();
+
+    @Test
+    void constructor_generatedKey() throws Exception {
+        JwtProperties jwtProperties = new JwtProperties();
+        jwtProperties.setGenerateKeySet(true);
+
+        JwtKeyRing jwtKeyRing = new JwtKeyRing(jwtProperties);
+
+        assertTrue(jwtKeyRing.getPublicKeySetJson().contains("\"kid\":\"" + jwtKeyRing.getSigningKeyId() + "\""));
+        assertTrue(jwtKeyRing.getPublicKeySetJson().contains("\"crv\":\"Ed25519\""));
+        assertFalse(jwtKeyRing.getPublicKeySetJson().contains("\"d\""));
+    }
+
+    @Test
+    void constructor_noKeySet() {
+        assertThrows(IllegalStateException.class, () -> new JwtKeyRing(new JwtProperties()));
+    }
+
+    @Test
+    void constructor_configuredSigningKey() throws Exception {
+        JwtProperties jwtProperties = properties("rsa-1", rsaKey("rsa-1"), edKey("ed-1"));
+
+        JwtKeyRing jwtKeyRing = new JwtKeyRing(jwtProperties);
+
+        assertEquals("rsa-1", jwtKeyRing.getSigningKeyId());
+        assertTrue(jwtKeyRing.getPublicKeySetJson().contains("\"kid\":\"rsa-1\""));
+        assertTrue(jwtKeyRing.getPublicKeySetJson().contains("\"kid\":\"ed-1\""));
+        assertFalse(jwtKeyRing.getPublicKeySetJson().contains("\"d\""));
+        assertFalse(jwtKeyRing.getPublicKeySetJson().contains("\"p\""));
+    }
+
+    @Test
+    void constructor_ambiguousSigningKey() {
+        JwtProperties jwtProperties = properties(null, rsaKey("rsa-1"), edKey("ed-1"));
+
+        assertThrows(IllegalStateException.class, () -> new JwtKeyRing(jwtProperties));
+    }
+
+    @Test
+    void constructor_unknownSigningKey() {
+        JwtProperties jwtProperties = properties("rsa-2", rsaKey("rsa-1"));
+
+        assertThrows(IllegalStateException.class, () -> new JwtKeyRing(jwtProperties));
+    }
+
+    @Test
+    void constructor_secretKeyIsNotPublished() throws Exception {
+        SecretKey secretKey = Jwts.SIG.HS256.key().build();
+        String secretJwk = Jwks.UNSAFE_JSON(Jwks.builder().key(secretKey).id("hs-1").build());
+
+        JwtKeyRing jwtKeyRing = new JwtKeyRing(properties(null, secretJwk));
+
+        assertEquals("hs-1", jwtKeyRing.getSigningKeyId());
+        assertEquals("{\"keys\":[]}", jwtKeyRing.getPublicKeySetJson());
+    }
+
+    @Test
+    void extractAllClaims_tokenOfRetiredKey() throws Exception {
+        String oldKey = edKey("ed-1");
+        JwtService oldService = jwtService(properties(null, oldKey));
+        String token = oldService.generateToken(user);
+
+        JwtService rotatedService = jwtService(properties("rsa-1", rsaKey("rsa-1"), publicOnly(oldKey)));
+
+        assertEquals("john", rotatedService.extractUsername(token));
+        assertEquals("john", rotatedService.extractUsername(rotatedService.generateToken(user)));
+    }
+
+    @Test
+    void extractAllClaims_tokenOfRemovedKey() throws Exception {
+        String token = jwtService(properties(null, edKey("ed-1"))).generateToken(user);
+
+        JwtService rotatedService = jwtService(properties(null, rsaKey("rsa-1")));
+
+        assertThrows(UnsupportedJwtException.class, () -> rotatedService.extractAllClaims(token));
+    }
+
+    @Test
+    void extractAllClaims_tokenOfOtherIssuer() throws Exception {
+        JwtProperties jwtProperties = properties(null, edKey("ed-1"));
+        jwtProperties.setIssuer("other");
+        String token = jwtService(jwtProperties).generateToken(user);
+
+        jwtProperties.setIssuer(new JwtProperties().getIssuer());
+        JwtService jwtService = jwtService(jwtProperties);
+
+        assertThrows(IncorrectClaimException.class, () -> jwtService.extractAllClaims(token));
+    }
+
+    private JwtService jwtService(JwtProperties jwtProperties) throws Exception {
+        return new JwtService(new JwtKeyRing(jwtProperties), jwtProperties, 100, new SimpleMeterRegistry());
+    }
+
+    private JwtProperties properties(String signingKeyId, String... jwks) {
+        JwtProperties jwtProperties = new JwtProperties();
+        jwtProperties.setSigningKeyId(signingKeyId);
+        jwtProperties.setKeySet(new ByteArrayResource(Stream.of(jwks)
+                .collect(Collectors.joining(",", "{\"keys\":[", "]}"))
+                .getBytes(StandardCharsets.UTF_8)));
+        return jwtProperties;
+    }
+
+    private String rsaKey(String keyId) {
+        return Jwks.UNSAFE_JSON(Jwks.builder().keyPair(Jwts.SIG.RS256.keyPair().build()).id(keyId).build());
+    }
+
+    private String edKey(String keyId) {
+        return Jwks.UNSAFE_JSON(Jwks.builder().keyPair(Jwks.CRV.Ed25519.keyPair().build()).id(keyId).build());
+    }
+
+    private String publicOnly(String privateJwk) {
+        PrivateJwk<?, ?, ?> jwk = (PrivateJwk<?, ?, ?>) Jwks.parser().build().parse(privateJwk);
+        return Jwks.json(jwk.toPublicJwk());
+    }
+}
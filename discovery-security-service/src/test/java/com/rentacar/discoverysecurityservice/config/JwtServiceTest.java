@@ -0,0 +1,132 @@
+package com.rentacar.discoverysecurityservice.config;
+
+import com.rentacar.discoverysecurityservice.user.Role;
+import com.rentacar.discoverysecurityservice.user.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JwtServiceTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private JwtProperties jwtProperties;
+
+    private JwtService jwtService;
+
+    private User user;
+
+    @BeforeEach
+    public void init() throws Exception {
+        jwtProperties = new JwtProperties();
+        jwtProperties.setGenerateKeySet(true);
+        meterRegistry = new SimpleMeterRegistry();
+        jwtService = new JwtService(new JwtKeyRing(jwtProperties), jwtProperties, 100, meterRegistry);
+        user = User.builder().id(1L).username("john").password("secret").role(Role.ADMIN).build();
+    }
+
+    @Test
+    void extractUsername_generatedToken() {
+        String token = jwtService.generateToken(user);
+
+        assertEquals("john", jwtService.extractUsername(token));
+    }
+
+    @Test
+    void extractAuthorities_generatedToken() {
+        String token = jwtService.generateToken(user);
+
+        assertEquals(List.of(new SimpleGrantedAuthority("ADMIN")),
+                jwtService.extractAuthorities(jwtService.extractAllClaims(token)));
+    }
+
+    @Test
+    void generateToken_configuredLifetime() {
+        Claims claims = jwtService.extractAllClaims(jwtService.generateToken(user));
+
+        assertEquals(jwtProperties.getAccessTokenLifetime().toMillis(),
+                claims.getExpiration().getTime() - claims.getIssuedAt().getTime());
+        assertTrue(jwtService.isAccessToken(claims));
+    }
+
+    @Test
+    void generateRefreshToken_configuredLifetime() {
+        jwtProperties.setRefreshTokenLifetime(Duration.ofDays(30));
+
+        Claims claims = jwtService.extractAllClaims(jwtService.generateRefreshToken(user));
+
+        assertEquals(Duration.ofDays(30).toMillis(), claims.getExpiration().getTime() - claims.getIssuedAt().getTime());
+        assertTrue(jwtService.isRefreshToken(claims));
+        assertFalse(jwtService.isAccessToken(claims));
+        assertEquals(List.of(), jwtService.extractAuthorities(claims));
+    }
+
+    @Test
+    void isTokenValid_refreshToken() {
+        String token = jwtService.generateRefreshToken(user);
+
+        assertFalse(jwtService.isTokenValid(token, user));
+    }
+
+    @Test
+    void isTokenValid_matchingUser() {
+        String token = jwtService.generateToken(user);
+
+        assertTrue(jwtService.isTokenValid(token, user));
+    }
+
+    @Test
+    void isTokenValid_otherUser() {
+        String token = jwtService.generateToken(user);
+
+        assertFalse(jwtService.isTokenValid(token, User.builder().username("jane").build()));
+    }
+
+    @Test
+    void extractAllClaims_repeatedTokenIsVerifiedOnce() {
+        String token = jwtService.generateToken(user);
+
+        Claims first = jwtService.extractAllClaims(token);
+        Claims second = jwtService.extractAllClaims(token);
+        jwtService.isTokenValid(token, user);
+
+        assertSame(first, second);
+        assertEquals(2, cacheGets("hit"));
+        assertEquals(1, cacheGets("miss"));
+    }
+
+    @Test
+    void extractAllClaims_tamperedSignatureIsNotCached() {
+        String token = jwtService.generateToken(user);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertThrows(SignatureException.class, () -> jwtService.extractAllClaims(tampered));
+        assertThrows(SignatureException.class, () -> jwtService.extractAllClaims(tampered));
+        assertEquals(0, cacheGets("hit"));
+    }
+
+    @Test
+    void extractAllClaims_malformedToken() {
+        assertThrows(MalformedJwtException.class, () -> jwtService.extractAllClaims("not.a.token"));
+    }
+
+    private double cacheGets(String result) {
+        return meterRegistry.get("cache.gets")
+                .tag("cache", JwtService.VERIFIED_TOKEN_CACHE)
+                .tag("result", result)
+                .functionCounter().count();
+    }
+}
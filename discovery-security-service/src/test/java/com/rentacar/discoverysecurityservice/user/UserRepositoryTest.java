@@ -0,0 +1,64 @@
+package com.rentacar.discoverysecurityservice.user;
+
+import com.rentacar.discoverysecurityservice.config.UserDetailsCache;
+import com.rentacar.discoverysecurityservice.config.UserDetailsCacheInvalidator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.auto_quote_keyword=true"})
+@Import({UserDetailsCache.class, UserDetailsCacheInvalidator.class, SimpleMeterRegistry.class})
+class UserRepositoryTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
+    @Test
+    void saveAndFlush_duplicateUsername() {
+        userRepository.saveAndFlush(User.builder().username("john").password("secret").role(Role.USER).build());
+
+        assertThrows(DataIntegrityViolationException.class,
+                () -> userRepository.saveAndFlush(User.builder().username("john").password("other").role(Role.USER).build()));
+    }
+
+    @Test
+    void findByUsername_saved() {
+        userRepository.saveAndFlush(User.builder().username("john").password("secret").role(Role.USER).build());
+
+        assertTrue(userRepository.findByUsername("john").isPresent());
+    }
+
+    @Test
+    void saveAndFlush_updateEvictsCachedUser() {
+        User user = userRepository.saveAndFlush(User.builder().username("john").password("secret").role(Role.USER).build());
+        userDetailsCache.putUserInCache(user);
+
+        user.setPassword("changed");
+        userRepository.saveAndFlush(user);
+
+        assertNull(userDetailsCache.getUserFromCache("john"));
+    }
+
+    @Test
+    void delete_evictsCachedUser() {
+        User user = userRepository.saveAndFlush(User.builder().username("john").password("secret").role(Role.USER).build());
+        userDetailsCache.putUserInCache(user);
+
+        userRepository.delete(user);
+        userRepository.flush();
+
+        assertNull(userDetailsCache.getUserFromCache("john"));
+    }
+}
@@ -0,0 +1,204 @@
+package com.rentacar.discoverysecurityservice.web;
+
+import com.rentacar.discoverysecurityservice.config.JwtKeyRing;
+import com.rentacar.discoverysecurityservice.config.JwtProperties;
+import com.rentacar.discoverysecurityservice.config.JwtService;
+import com.rentacar.discoverysecurityservice.user.Role;
+import com.rentacar.discoverysecurityservice.user.User;
+import com.jayway.jsonpath.JsonPath;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest({TokenController.class, KeySetController.class})
+class TokenControllerTest {
+
+    @TestConfiguration
+    static class JwtConfig {
+
+        @Bean
+        JwtProperties jwtProperties() {
+            JwtProperties jwtProperties = new JwtProperties();
+            jwtProperties.setGenerateKeySet(true);
+            return jwtProperties;
+        }
+
+        @Bean
+        JwtKeyRing jwtKeyRing(JwtProperties jwtProperties) throws Exception {
+            return new JwtKeyRing(jwtProperties);
+        }
+
+        @Bean
+        JwtService jwtService(JwtKeyRing jwtKeyRing, JwtProperties jwtProperties) {
+            return new JwtService(jwtKeyRing, jwtProperties, 100, new SimpleMeterRegistry());
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private JwtKeyRing jwtKeyRing;
+
+    @MockBean
+    private UserDetailsService userDetailsService;
+
+    @MockBean
+    private AuthenticationManager authenticationManager;
+
+    private User user;
+
+    @BeforeEach
+    public void init() {
+        user = User.builder().id(1L).username("john").password("secret").role(Role.ADMIN).build();
+    }
+
+    @Test
+    void authenticate_validCredentials() throws Exception {
+        when(authenticationManager.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("john", "secret")))
+                .thenReturn(UsernamePasswordAuthenticationToken.authenticated(user, null, user.getAuthorities()));
+
+        MvcResult result = mockMvc.perform(post("/api/v1/auth/authenticate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"john\",\"password\":\"secret\"}"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        String accessToken = JsonPath.read(result.getResponse().getContentAsString(), "$.accessToken");
+        String refreshToken = JsonPath.read(result.getResponse().getContentAsString(), "$.refreshToken");
+        assertTrue(jwtService.isTokenValid(accessToken, user));
+        assertTrue(jwtService.isRefreshToken(jwtService.extractAllClaims(refreshToken)));
+        assertEquals("john", jwtService.extractUsername(refreshToken));
+    }
+
+    @Test
+    void authenticate_badCredentials() throws Exception {
+        when(authenticationManager.authenticate(any())).thenThrow(new BadCredentialsException("Bad credentials"));
+
+        mockMvc.perform(post("/api/v1/auth/authenticate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"john\",\"password\":\"wrong\"}"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void authenticate_missingPassword() throws Exception {
+        mockMvc.perform(post("/api/v1/auth/authenticate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"john\"}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void refreshToken_issuedOnAuthentication() throws Exception {
+        when(authenticationManager.authenticate(any()))
+                .thenReturn(UsernamePasswordAuthenticationToken.authenticated(user, null, user.getAuthorities()));
+        when(userDetailsService.loadUserByUsername("john")).thenReturn(user);
+        MvcResult authentication = mockMvc.perform(post("/api/v1/auth/authenticate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"john\",\"password\":\"secret\"}"))
+                .andReturn();
+        String refreshToken = JsonPath.read(authentication.getResponse().getContentAsString(), "$.refreshToken");
+
+        MvcResult refresh = mockMvc.perform(post("/api/v1/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"refreshToken\":\"" + refreshToken + "\"}"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        String rotated = JsonPath.read(refresh.getResponse().getContentAsString(), "$.refreshToken");
+        assertTrue(jwtService.isRefreshToken(jwtService.extractAllClaims(rotated)));
+    }
+
+    @Test
+    void refreshToken_validRefreshToken() throws Exception {
+        when(userDetailsService.loadUserByUsername("john")).thenReturn(user);
+        String refreshToken = jwtService.generateRefreshToken(user);
+
+        MvcResult result = mockMvc.perform(post("/api/v1/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"refreshToken\":\"" + refreshToken + "\"}"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        String accessToken = JsonPath.read(result.getResponse().getContentAsString(), "$.accessToken");
+        assertEquals("john", jwtService.extractUsername(accessToken));
+        assertTrue(jwtService.isTokenValid(accessToken, user));
+        String rotated = JsonPath.read(result.getResponse().getContentAsString(), "$.refreshToken");
+        assertEquals("john", jwtService.extractUsername(rotated));
+        assertTrue(jwtService.isRefreshToken(jwtService.extractAllClaims(rotated)));
+    }
+
+    @Test
+    void refreshToken_accessToken() throws Exception {
+        mockMvc.perform(post("/api/v1/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"refreshToken\":\"" + jwtService.generateToken(user) + "\"}"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void refreshToken_invalidToken() throws Exception {
+        mockMvc.perform(post("/api/v1/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"refreshToken\":\"not.a.token\"}"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void refreshToken_unknownUser() throws Exception {
+        when(userDetailsService.loadUserByUsername("john")).thenThrow(new UsernameNotFoundException("User not found"));
+
+        mockMvc.perform(post("/api/v1/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"refreshToken\":\"" + jwtService.generateRefreshToken(user) + "\"}"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void refreshToken_missingToken() throws Exception {
+        mockMvc.perform(post("/api/v1/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void findKeySet() throws Exception {
+        mockMvc.perform(get(KeySetController.KEY_SET_PATH))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "max-age=300, public"))
+                .andExpect(jsonPath("$.keys[0].kid").value(jwtKeyRing.getSigningKeyId()))
+                .andExpect(jsonPath("$.keys[0].kty").value("OKP"))
+                .andExpect(content().string(not(containsString("\"d\""))));
+    }
+}
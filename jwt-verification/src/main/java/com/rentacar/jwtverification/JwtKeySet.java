@@ -0,0 +1,66 @@
+package com.rentacar.jwtverification;
+
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.security.Jwk;
+import io.jsonwebtoken.security.JwkSet;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.PublicJwk;
+
+import java.security.Key;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Public keys that verify tokens, indexed by their {@code kid}.
+ * <p>
+ * Keys are parsed when a key set is loaded and replaced all at once, so lookups need no locking. Private
+ * and secret keys in a key set are ignored: tokens are only accepted from keys that anyone may know.
+ */
+public class JwtKeySet extends LocatorAdapter<Key> {
+
+    private volatile Map<String, Key> keysById = Map.of();
+
+    private volatile Consumer<String> unknownKeyListener = keyId -> { };
+
+    /**
+     * Replaces the keys with the public keys of the given JWK set document.
+     */
+    public void update(String keySetJson) {
+        JwkSet keySet = Jwks.setParser().build().parse(keySetJson);
+        Map<String, Key> keys = new HashMap<>();
+        for (Jwk<?> jwk : keySet) {
+            if (jwk instanceof PublicJwk<?> publicJwk && publicJwk.getId() != null) {
+                keys.put(publicJwk.getId(), publicJwk.toKey());
+            }
+        }
+        keysById = Map.copyOf(keys);
+    }
+
+    public Set<String> getKeyIds() {
+        return keysById.keySet();
+    }
+
+    /**
+     * Called with the {@code kid} of a token whose key is not in the set, e.g. to read the set again.
+     */
+    public void setUnknownKeyListener(Consumer<String> unknownKeyListener) {
+        this.unknownKeyListener = unknownKeyListener;
+    }
+
+    @Override
+    protected Key locate(JwsHeader header) {
+        String keyId = header.getKeyId();
+        Key key = keyId == null ? null : keysById.get(keyId);
+        if (key == null) {
+            if (keyId != null) {
+                unknownKeyListener.accept(keyId);
+            }
+            throw new UnsupportedJwtException("Token is not signed by a known key: " + keyId);
+        }
+        return key;
+    }
+}
@@ -0,0 +1,99 @@
+package com.rentacar.jwtverification;
+
+import lombok.extern.log4j.Log4j2;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reads the JWK set into the {@link JwtKeySet} at startup and then on a fixed delay, off the request path.
+ * A token signed with an unknown key schedules an early read, at most once per minimum refresh interval.
+ * A failed read keeps the keys already loaded.
+ */
+@Log4j2
+public class JwtKeySetLoader implements AutoCloseable {
+
+    private final JwtKeySet jwtKeySet;
+
+    private final JwtVerificationProperties properties;
+
+    private final HttpClient httpClient;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("jwt-key-set-loader").daemon().factory());
+
+    private final AtomicLong lastEarlyRefreshNanos;
+
+    public JwtKeySetLoader(JwtKeySet jwtKeySet, JwtVerificationProperties properties) {
+        this.jwtKeySet = jwtKeySet;
+        this.properties = properties;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(properties.getKeySetTimeout())
+                .build();
+        this.lastEarlyRefreshNanos = new AtomicLong(System.nanoTime() - properties.getKeySetMinimumRefreshInterval().toNanos());
+    }
+
+    public void start() {
+        refresh();
+        long intervalMillis = properties.getKeySetRefreshInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::refresh, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        jwtKeySet.setUnknownKeyListener(keyId -> requestRefresh());
+    }
+
+    /**
+     * @return true if the key set was read
+     */
+    public boolean refresh() {
+        try {
+            jwtKeySet.update(read());
+            log.debug("JWT key set is loaded from {}. Keys: {}", properties.getKeySetUri(), jwtKeySet.getKeyIds());
+            return true;
+        } catch (Exception e) {
+            log.warn("JWT key set could not be loaded from {}: {}", properties.getKeySetUri(), e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    private void requestRefresh() {
+        long now = System.nanoTime();
+        long last = lastEarlyRefreshNanos.get();
+        if (now - last >= properties.getKeySetMinimumRefreshInterval().toNanos()
+                && lastEarlyRefreshNanos.compareAndSet(last, now)) {
+            scheduler.execute(this::refresh);
+        }
+    }
+
+    private String read() throws IOException, InterruptedException {
+        String keySetUri = properties.getKeySetUri();
+        if (keySetUri.startsWith("http://") || keySetUri.startsWith("https://")) {
+            HttpResponse<String> response = httpClient.send(HttpRequest.newBuilder(URI.create(keySetUri))
+                    .timeout(properties.getKeySetTimeout())
+                    .header("Accept", "application/json")
+                    .GET().build(), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IOException("Unexpected status " + response.statusCode());
+            }
+            return response.body();
+        }
+        Resource resource = new DefaultResourceLoader().getResource(keySetUri);
+        try (InputStream inputStream = resource.getInputStream()) {
+            return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
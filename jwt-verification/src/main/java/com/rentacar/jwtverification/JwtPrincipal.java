@@ -0,0 +1,18 @@
+package com.rentacar.jwtverification;
+
+import java.time.Instant;
+import java.util.Set;
+
+/**
+ * User of a request authenticated with a verified access token. Declare it as a controller method parameter
+ * to require a token, or as {@code Optional<JwtPrincipal>} to accept anonymous requests too.
+ */
+public record JwtPrincipal(String username, Set<String> roles, Instant expiresAt) {
+
+    /** Role of the accounts the services call each other with. */
+    public static final String SERVICE_ROLE = "SERVICE";
+
+    public boolean hasRole(String role) {
+        return roles.contains(role);
+    }
+}
@@ -0,0 +1,76 @@
+package com.rentacar.jwtverification;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Verifies bearer tokens of every request against the key set published by discovery-security-service.
+ * Switched off with {@code jwt-verification.enabled=false}.
+ */
+@AutoConfiguration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(prefix = "jwt-verification", name = "enabled", matchIfMissing = true)
+@EnableConfigurationProperties(JwtVerificationProperties.class)
+public class JwtVerificationAutoConfiguration {
+
+    @Bean
+    public JwtKeySet jwtKeySet() {
+        return new JwtKeySet();
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public JwtKeySetLoader jwtKeySetLoader(JwtKeySet jwtKeySet, JwtVerificationProperties properties) {
+        return new JwtKeySetLoader(jwtKeySet, properties);
+    }
+
+    @Bean
+    public JwtVerifier jwtVerifier(JwtKeySet jwtKeySet, JwtVerificationProperties properties) {
+        return new JwtVerifier(jwtKeySet, properties);
+    }
+
+    @Bean
+    public FilterRegistrationBean<JwtVerificationFilter> jwtVerificationFilter(JwtVerifier jwtVerifier,
+                                                                               JwtVerificationProperties properties) {
+        FilterRegistrationBean<JwtVerificationFilter> registration = new FilterRegistrationBean<>(
+                new JwtVerificationFilter(jwtVerifier, properties));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(MeterBinder.class)
+    static class VerifiedTokenCacheMetricsConfiguration {
+
+        @Bean
+        public MeterBinder verifiedTokenCacheMetrics(JwtVerifier jwtVerifier) {
+            return registry -> {
+                if (jwtVerifier.getVerifiedTokens() != null) {
+                    CaffeineCacheMetrics.monitor(registry, jwtVerifier.getVerifiedTokens(), JwtVerifier.VERIFIED_TOKEN_CACHE);
+                }
+            };
+        }
+    }
+
+    @Bean
+    public WebMvcConfigurer jwtPrincipalWebMvcConfigurer() {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+                resolvers.add(new JwtPrincipalArgumentResolver());
+            }
+        };
+    }
+}
@@ -0,0 +1,78 @@
+package com.rentacar.jwtverification;
+
+import io.jsonwebtoken.JwtException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.NonNull;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Verifies the bearer token of a request and stores its {@link JwtPrincipal} as a request attribute.
+ * A request with an invalid token is answered with 401. A request without a token continues anonymously,
+ * unless {@code jwt-verification.require-token} is set and its path is not one of the public paths.
+ */
+@Log4j2
+public class JwtVerificationFilter extends OncePerRequestFilter {
+
+    public static final String PRINCIPAL_ATTRIBUTE = JwtPrincipal.class.getName();
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final JwtVerifier jwtVerifier;
+
+    private final boolean requireToken;
+
+    private final List<String> publicPaths;
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    public JwtVerificationFilter(JwtVerifier jwtVerifier, JwtVerificationProperties properties) {
+        this.jwtVerifier = jwtVerifier;
+        this.requireToken = properties.isRequireToken();
+        this.publicPaths = List.copyOf(properties.getPublicPaths());
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        String authHeader = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authHeader == null || !authHeader.startsWith(BEARER_PREFIX)) {
+            if (requireToken && !isPublic(request)) {
+                log.debug("Rejected request to {} without a bearer token", request.getRequestURI());
+                response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer");
+                response.sendError(HttpServletResponse.SC_UNAUTHORIZED);
+                return;
+            }
+            filterChain.doFilter(request, response);
+            return;
+        }
+        try {
+            request.setAttribute(PRINCIPAL_ATTRIBUTE, jwtVerifier.verify(authHeader.substring(BEARER_PREFIX.length())));
+        } catch (JwtException e) {
+            log.debug("Rejected bearer token: {}", e.getMessage());
+            response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer error=\"invalid_token\"");
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED);
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private boolean isPublic(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (String publicPath : publicPaths) {
+            if (pathMatcher.match(publicPath, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
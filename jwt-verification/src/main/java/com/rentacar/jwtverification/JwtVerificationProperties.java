@@ -0,0 +1,45 @@
+package com.rentacar.jwtverification;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Settings under {@code jwt-verification}.
+ */
+@Data
+@ConfigurationProperties(prefix = "jwt-verification")
+public class JwtVerificationProperties {
+
+    private boolean enabled = true;
+
+    /** Where the JWK set is read from: the key set endpoint of discovery-security-service, or a file or classpath resource. */
+    private String keySetUri = "http://localhost:8761/.well-known/jwks.json";
+
+    /** Required value of the {@code iss} claim. */
+    private String issuer = "discovery-security-service";
+
+    /** How often the key set is read again, which is how added and removed keys are picked up. */
+    private Duration keySetRefreshInterval = Duration.ofMinutes(5);
+
+    /** Shortest time between two reads caused by tokens signed with an unknown key. */
+    private Duration keySetMinimumRefreshInterval = Duration.ofSeconds(30);
+
+    private Duration keySetTimeout = Duration.ofSeconds(2);
+
+    /** Number of verified tokens remembered until they expire; 0 verifies every request. */
+    private long verifiedTokenCacheMaximumSize = 10000;
+
+    /** Answers requests without a token with 401, except on the public paths. */
+    private boolean requireToken = false;
+
+    /**
+     * Ant-style patterns of the paths that accept requests without a token when one is required. Of the actuator
+     * endpoints only health is public; a service that wants more sets the whole list.
+     */
+    private List<String> publicPaths = new ArrayList<>(List.of(
+            "/error", "/actuator/health/**", "/swagger-ui/**", "/swagger-resources/**", "/v2/api-docs", "/v3/api-docs/**"));
+}
@@ -0,0 +1,132 @@
+package com.rentacar.jwtverification;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.UnsupportedJwtException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verifies access tokens locally: signature against the {@link JwtKeySet}, issuer, expiry and token use.
+ * <p>
+ * The parser is built once and shared. Principals of verified tokens are kept in a bounded cache keyed by
+ * the SHA-256 hash of the token until the token expires, so a repeated token costs a hash and a lookup.
+ * Tokens that fail verification are never cached.
+ */
+public class JwtVerifier {
+
+    /** Claims written by discovery-security-service. */
+    public static final String AUTHORITIES_CLAIM = "roles";
+
+    public static final String TOKEN_USE_CLAIM = "token_use";
+
+    public static final String ACCESS_TOKEN = "access";
+
+    static final String VERIFIED_TOKEN_CACHE = "verifiedTokens";
+
+    /** Longest time a verified token is trusted without checking its signature again. */
+    private static final Duration MAX_CACHED_LIFETIME = Duration.ofMinutes(5);
+
+    private final JwtParser jwtParser;
+
+    private final Cache<String, JwtPrincipal> verifiedTokens;
+
+    public JwtVerifier(JwtKeySet jwtKeySet, JwtVerificationProperties properties) {
+        this.jwtParser = Jwts.parser()
+                .keyLocator(jwtKeySet)
+                .requireIssuer(properties.getIssuer())
+                .build();
+        this.verifiedTokens = properties.getVerifiedTokenCacheMaximumSize() <= 0 ? null : Caffeine.newBuilder()
+                .maximumSize(properties.getVerifiedTokenCacheMaximumSize())
+                .expireAfter(new UntilTokenExpiry())
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * @return the cache of verified tokens, or null if it is switched off
+     */
+    public Cache<String, JwtPrincipal> getVerifiedTokens() {
+        return verifiedTokens;
+    }
+
+    /**
+     * @throws JwtException if the token is malformed, not signed by a known key, expired, from another
+     *                      issuer or not an access token
+     */
+    public JwtPrincipal verify(String token) {
+        if (verifiedTokens == null) {
+            return parse(token);
+        }
+        return verifiedTokens.get(hash(token), tokenHash -> parse(token));
+    }
+
+    private JwtPrincipal parse(String token) {
+        Claims claims;
+        try {
+            claims = jwtParser.parseSignedClaims(token).getPayload();
+        } catch (IllegalArgumentException e) {
+            throw new UnsupportedJwtException("Token is empty", e);
+        }
+        if (!ACCESS_TOKEN.equals(claims.get(TOKEN_USE_CLAIM, String.class)) || claims.getSubject() == null) {
+            throw new UnsupportedJwtException("Token is not an access token");
+        }
+        if (claims.getExpiration() == null) {
+            throw new UnsupportedJwtException("Token has no expiration");
+        }
+        return new JwtPrincipal(claims.getSubject(), roles(claims), claims.getExpiration().toInstant());
+    }
+
+    private static Set<String> roles(Claims claims) {
+        Collection<?> roles = claims.get(AUTHORITIES_CLAIM, Collection.class);
+        if (roles == null) {
+            return Set.of();
+        }
+        Set<String> roleNames = new LinkedHashSet<>();
+        roles.forEach(role -> roleNames.add(String.valueOf(role)));
+        return Set.copyOf(roleNames);
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /** Keeps a principal until its token expires, but no longer than {@link #MAX_CACHED_LIFETIME}. */
+    private static class UntilTokenExpiry implements Expiry<String, JwtPrincipal> {
+
+        @Override
+        public long expireAfterCreate(String tokenHash, JwtPrincipal principal, long currentTime) {
+            long remainingMillis = principal.expiresAt().toEpochMilli() - Instant.now().toEpochMilli();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, Math.min(remainingMillis, MAX_CACHED_LIFETIME.toMillis())));
+        }
+
+        @Override
+        public long expireAfterUpdate(String tokenHash, JwtPrincipal principal, long currentTime, long currentDuration) {
+            return expireAfterCreate(tokenHash, principal, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String tokenHash, JwtPrincipal principal, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.rentacar.jwtverification;
+
+import io.jsonwebtoken.UnsupportedJwtException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JwtKeySetLoaderTest {
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void refresh_fromFile() throws Exception {
+        Path keySetFile = directory.resolve("jwks.json");
+        Files.writeString(keySetFile, new TestKeys("ed-1").keySetJson());
+        JwtKeySet jwtKeySet = new JwtKeySet();
+
+        try (JwtKeySetLoader loader = new JwtKeySetLoader(jwtKeySet, properties(keySetFile))) {
+            assertTrue(loader.refresh());
+        }
+
+        assertEquals(Set.of("ed-1"), jwtKeySet.getKeyIds());
+    }
+
+    @Test
+    void refresh_failureKeepsKeys() throws Exception {
+        Path keySetFile = directory.resolve("jwks.json");
+        Files.writeString(keySetFile, new TestKeys("ed-1").keySetJson());
+        JwtKeySet jwtKeySet = new JwtKeySet();
+
+        try (JwtKeySetLoader loader = new JwtKeySetLoader(jwtKeySet, properties(keySetFile))) {
+            loader.refresh();
+            Files.delete(keySetFile);
+
+            assertFalse(loader.refresh());
+        }
+
+        assertEquals(Set.of("ed-1"), jwtKeySet.getKeyIds());
+    }
+
+    @Test
+    void start_unknownKeyReadsKeySetAgain() throws Exception {
+        Path keySetFile = directory.resolve("jwks.json");
+        Files.writeString(keySetFile, new TestKeys("ed-1").keySetJson());
+        JwtKeySet jwtKeySet = new JwtKeySet();
+        JwtVerifier jwtVerifier = new JwtVerifier(jwtKeySet, new JwtVerificationProperties());
+
+        try (JwtKeySetLoader loader = new JwtKeySetLoader(jwtKeySet, properties(keySetFile))) {
+            loader.start();
+            TestKeys addedKeys = new TestKeys("ed-2");
+            Files.writeString(keySetFile, addedKeys.keySetJson());
+            String token = addedKeys.accessToken("john", List.of("USER"));
+
+            assertThrows(UnsupportedJwtException.class, () -> jwtVerifier.verify(token));
+            for (int i = 0; i < 100 && !jwtKeySet.getKeyIds().contains("ed-2"); i++) {
+                Thread.sleep(50);
+            }
+
+            assertEquals("john", jwtVerifier.verify(token).username());
+        }
+    }
+
+    private JwtVerificationProperties properties(Path keySetFile) {
+        JwtVerificationProperties properties = new JwtVerificationProperties();
+        properties.setKeySetUri(keySetFile.toUri().toString());
+        properties.setKeySetRefreshInterval(Duration.ofHours(1));
+        return properties;
+    }
+}
@@ -0,0 +1,30 @@
+package com.rentacar.jwtverification;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.runner.WebApplicationContextRunner;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtVerificationAutoConfigurationTest {
+
+    private final WebApplicationContextRunner contextRunner = new WebApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(JwtVerificationAutoConfiguration.class))
+            .withPropertyValues("jwt-verification.key-set-uri=classpath:missing-jwks.json");
+
+    @Test
+    void enabledByDefault() {
+        contextRunner.run(context -> {
+            assertThat(context).hasSingleBean(JwtVerifier.class);
+            assertThat(context).hasSingleBean(JwtKeySetLoader.class);
+            assertThat(context).hasSingleBean(FilterRegistrationBean.class);
+        });
+    }
+
+    @Test
+    void disabled() {
+        contextRunner.withPropertyValues("jwt-verification.enabled=false")
+                .run(context -> assertThat(context).doesNotHaveBean(JwtVerifier.class));
+    }
+}
@@ -0,0 +1,142 @@
+package com.rentacar.jwtverification;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class JwtVerificationFilterTest {
+
+    @RestController
+    static class PrincipalController {
+
+        @GetMapping("/required")
+        public String required(JwtPrincipal principal) {
+            return principal.username() + " " + principal.hasRole("ADMIN");
+        }
+
+        @GetMapping("/public/health")
+        public String publicPath() {
+            return "public";
+        }
+
+        @GetMapping("/optional")
+        public String optional(Optional<JwtPrincipal> principal) {
+            return principal.map(JwtPrincipal::username).orElse("anonymous");
+        }
+    }
+
+    private TestKeys keys;
+
+    private JwtKeySet jwtKeySet;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    public void init() {
+        keys = new TestKeys("ed-1");
+        jwtKeySet = new JwtKeySet();
+        jwtKeySet.update(keys.keySetJson());
+        mockMvc = mockMvc(new JwtVerificationProperties());
+    }
+
+    private MockMvc mockMvc(JwtVerificationProperties properties) {
+        return MockMvcBuilders.standaloneSetup(new PrincipalController())
+                .addFilters(new JwtVerificationFilter(new JwtVerifier(jwtKeySet, properties), properties))
+                .setCustomArgumentResolvers(new JwtPrincipalArgumentResolver())
+                .build();
+    }
+
+    private MockMvc requiringToken() {
+        JwtVerificationProperties properties = new JwtVerificationProperties();
+        properties.setRequireToken(true);
+        properties.getPublicPaths().add("/public/**");
+        return mockMvc(properties);
+    }
+
+    @Test
+    void required_validToken() throws Exception {
+        mockMvc.perform(get("/required").header("Authorization", "Bearer " + keys.accessToken("john", List.of("ADMIN"))))
+                .andExpect(status().isOk())
+                .andExpect(content().string("john true"));
+    }
+
+    @Test
+    void required_noToken() throws Exception {
+        mockMvc.perform(get("/required"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void required_invalidToken() throws Exception {
+        mockMvc.perform(get("/required").header("Authorization", "Bearer not.a.token"))
+                .andExpect(status().isUnauthorized())
+                .andExpect(header().string("WWW-Authenticate", "Bearer error=\"invalid_token\""));
+    }
+
+    @Test
+    void optional_noToken() throws Exception {
+        mockMvc.perform(get("/optional"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("anonymous"));
+    }
+
+    @Test
+    void optional_invalidToken() throws Exception {
+        mockMvc.perform(get("/optional").header("Authorization", "Bearer not.a.token"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void optional_validToken() throws Exception {
+        mockMvc.perform(get("/optional").header("Authorization", "Bearer " + keys.accessToken("john", List.of("USER"))))
+                .andExpect(status().isOk())
+                .andExpect(content().string("john"));
+    }
+
+    @Test
+    void requireToken_noToken() throws Exception {
+        requiringToken().perform(get("/optional"))
+                .andExpect(status().isUnauthorized())
+                .andExpect(header().string("WWW-Authenticate", "Bearer"));
+    }
+
+    @Test
+    void requireToken_validToken() throws Exception {
+        requiringToken().perform(get("/optional").header("Authorization", "Bearer " + keys.accessToken("john", List.of("USER"))))
+                .andExpect(status().isOk())
+                .andExpect(content().string("john"));
+    }
+
+    @Test
+    void requireToken_publicPath() throws Exception {
+        requiringToken().perform(get("/public/health"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("public"));
+    }
+
+    @Test
+    void requireToken_actuatorEndpoints() throws Exception {
+        MockMvc requiringToken = requiringToken();
+        // health passes the filter and finds no handler here
+        requiringToken.perform(get("/actuator/health"))
+                .andExpect(status().isNotFound());
+        requiringToken.perform(get("/actuator/health/liveness"))
+                .andExpect(status().isNotFound());
+        requiringToken.perform(get("/actuator/prometheus"))
+                .andExpect(status().isUnauthorized());
+        requiringToken.perform(delete("/actuator/caches"))
+                .andExpect(status().isUnauthorized());
+    }
+}
@@ -0,0 +1,110 @@
+package com.rentacar.jwtverification;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.IncorrectClaimException;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.UnsupportedJwtException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JwtVerifierTest {
+
+    private TestKeys keys;
+
+    private JwtKeySet jwtKeySet;
+
+    private JwtVerificationProperties properties;
+
+    private JwtVerifier jwtVerifier;
+
+    @BeforeEach
+    public void init() {
+        keys = new TestKeys("ed-1");
+        jwtKeySet = new JwtKeySet();
+        jwtKeySet.update(keys.keySetJson());
+        properties = new JwtVerificationProperties();
+        jwtVerifier = new JwtVerifier(jwtKeySet, properties);
+    }
+
+    @Test
+    void verify_accessToken() {
+        JwtPrincipal principal = jwtVerifier.verify(keys.accessToken("john", List.of("USER", "ADMIN")));
+
+        assertEquals("john", principal.username());
+        assertEquals(Set.of("USER", "ADMIN"), principal.roles());
+        assertTrue(principal.hasRole("ADMIN"));
+    }
+
+    @Test
+    void verify_repeatedTokenIsCached() {
+        String token = keys.accessToken("john", List.of("USER"));
+
+        assertSame(jwtVerifier.verify(token), jwtVerifier.verify(token));
+        assertEquals(1, jwtVerifier.getVerifiedTokens().stats().hitCount());
+    }
+
+    @Test
+    void verify_cacheSwitchedOff() {
+        properties.setVerifiedTokenCacheMaximumSize(0);
+        JwtVerifier uncachedVerifier = new JwtVerifier(jwtKeySet, properties);
+        String token = keys.accessToken("john", List.of("USER"));
+
+        assertEquals(uncachedVerifier.verify(token), uncachedVerifier.verify(token));
+        assertNull(uncachedVerifier.getVerifiedTokens());
+    }
+
+    @Test
+    void verify_refreshToken() {
+        String token = keys.token(Map.of("token_use", "refresh"), "john", TestKeys.ISSUER, Duration.ofDays(7));
+
+        assertThrows(UnsupportedJwtException.class, () -> jwtVerifier.verify(token));
+    }
+
+    @Test
+    void verify_expiredToken() {
+        String token = keys.token(Map.of("token_use", "access"), "john", TestKeys.ISSUER, Duration.ofMinutes(-1));
+
+        assertThrows(ExpiredJwtException.class, () -> jwtVerifier.verify(token));
+    }
+
+    @Test
+    void verify_otherIssuer() {
+        String token = keys.token(Map.of("token_use", "access"), "john", "other", Duration.ofMinutes(15));
+
+        assertThrows(IncorrectClaimException.class, () -> jwtVerifier.verify(token));
+    }
+
+    @Test
+    void verify_unknownKey() {
+        String token = new TestKeys("ed-2").accessToken("john", List.of("USER"));
+
+        assertThrows(UnsupportedJwtException.class, () -> jwtVerifier.verify(token));
+    }
+
+    @Test
+    void verify_rotatedKey() {
+        TestKeys rotatedKeys = new TestKeys("ed-2");
+        String token = rotatedKeys.accessToken("john", List.of("USER"));
+
+        jwtKeySet.update(rotatedKeys.keySetJson());
+
+        assertEquals("john", jwtVerifier.verify(token).username());
+    }
+
+    @Test
+    void verify_malformedToken() {
+        assertThrows(MalformedJwtException.class, () -> jwtVerifier.verify("not.a.token"));
+        assertThrows(UnsupportedJwtException.class, () -> jwtVerifier.verify(""));
+    }
+}
@@ -0,0 +1,47 @@
+package com.rentacar.jwtverification;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.PrivateJwk;
+
+import java.security.PrivateKey;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Signs tokens the way discovery-security-service does.
+ */
+class TestKeys {
+
+    static final String ISSUER = "discovery-security-service";
+
+    private final PrivateJwk<?, ?, ?> jwk;
+
+    TestKeys(String keyId) {
+        this.jwk = Jwks.builder().keyPair(Jwks.CRV.Ed25519.keyPair().build()).id(keyId).build();
+    }
+
+    String keySetJson() {
+        return "{\"keys\":[" + Jwks.json(jwk.toPublicJwk()) + "]}";
+    }
+
+    String accessToken(String username, List<String> roles) {
+        return token(Map.of("roles", roles, "token_use", "access"), username, ISSUER, Duration.ofMinutes(15));
+    }
+
+    String token(Map<String, Object> claims, String username, String issuer, Duration lifetime) {
+        Instant now = Instant.now();
+        return Jwts.builder()
+                .header().keyId(jwk.getId()).and()
+                .claims(claims)
+                .issuer(issuer)
+                .subject(username)
+                .issuedAt(Date.from(now))
+                .expiration(Date.from(now.plus(lifetime)))
+                .signWith((PrivateKey) jwk.toKey())
+                .compact();
+    }
+}
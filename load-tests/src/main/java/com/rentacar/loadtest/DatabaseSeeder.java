@@ -0,0 +1,141 @@
+package com.rentacar.loadtest;
+
+import lombok.extern.log4j.Log4j2;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.factory.PasswordEncoderFactories;
+
+import javax.sql.DataSource;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Fills the embedded database with JDBC batches, which is much faster than going through the services, once
+ * Hibernate has created the tables.
+ */
+@Log4j2
+final class DatabaseSeeder {
+
+    /** Makes with their models, shared with the scenarios so searches hit seeded cars. */
+    static final String[][] CATALOGUE = {
+            {"Skoda", "Fabia", "Octavia", "Superb", "Kodiaq"},
+            {"Toyota", "Yaris", "Corolla", "RAV4", "C-HR"},
+            {"Volkswagen", "Polo", "Golf", "Passat", "Tiguan"},
+            {"Ford", "Fiesta", "Focus", "Kuga", "Mondeo"},
+            {"Renault", "Clio", "Megane", "Captur", "Kadjar"},
+            {"Peugeot", "208", "308", "3008", "508"}};
+
+    static final String[] GEARBOXES = {"manual", "automatic"};
+
+    static final String[] FUELS = {"petrol", "diesel", "hybrid", "electric"};
+
+    /** Seeded bookings lie within this many days before and after today. */
+    static final int BOOKING_WINDOW_DAYS = 365;
+
+    private static final int BATCH_SIZE = 10_000;
+
+    private static final byte PENDING = 1;
+
+    private static final byte CONFIRMED = 2;
+
+    private static final byte CANCELED = 3;
+
+    /** Hibernate hands out car ids in blocks of the car_seq allocation size. */
+    private static final int CAR_ID_ALLOCATION_SIZE = 100;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Random random = new Random(42);
+
+    DatabaseSeeder(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    void seedCars(int cars) {
+        Instant updatedAt = Instant.now();
+        insert("car", "INSERT INTO car (car_id, make, model, gearbox, fuel, \"year\", price, available, version, updated_at) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", cars, i -> {
+            String[] makeAndModels = CATALOGUE[random.nextInt(CATALOGUE.length)];
+            return new Object[]{i + 1L, makeAndModels[0], makeAndModels[1 + random.nextInt(makeAndModels.length - 1)],
+                    GEARBOXES[random.nextInt(GEARBOXES.length)], FUELS[random.nextInt(FUELS.length)],
+                    2010 + random.nextInt(15), 20 + random.nextInt(180), random.nextInt(10) < 8, 0L,
+                    Timestamp.from(updatedAt)};
+        });
+        // the ids were given explicitly, so move the sequence past them
+        jdbcTemplate.execute("ALTER SEQUENCE car_seq RESTART WITH " + (cars + 1L + CAR_ID_ALLOCATION_SIZE));
+    }
+
+    /**
+     * Lays the bookings of every car one after the other with random gaps, so no two bookings of a car overlap.
+     * Past bookings are confirmed or canceled, future ones may still be pending.
+     */
+    void seedBookings(int bookings, int cars, int users, LocalDate today) {
+        List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+        int bookingsPerCar = bookings / cars;
+        int inserted = 0;
+        for (int car = 1; car <= cars && inserted < bookings; car++) {
+            int carBookings = bookingsPerCar + (car <= bookings % cars ? 1 : 0);
+            int averageGap = Math.max(1, 2 * BOOKING_WINDOW_DAYS / Math.max(1, carBookings) - 4);
+            LocalDate pickUpDate = today.minusDays(BOOKING_WINDOW_DAYS - random.nextInt(averageGap));
+            for (int i = 0; i < carBookings; i++) {
+                LocalDate dropOffDate = pickUpDate.plusDays(random.nextInt(7));
+                rows.add(new Object[]{1L + random.nextInt(users), (long) car, Date.valueOf(pickUpDate),
+                        Date.valueOf(dropOffDate), status(dropOffDate.isBefore(today))});
+                if (rows.size() == BATCH_SIZE) {
+                    inserted += insertBooking(rows);
+                }
+                pickUpDate = dropOffDate.plusDays(1 + random.nextInt(2 * averageGap));
+            }
+        }
+        inserted += insertBooking(rows);
+        log.info("Seeded {} bookings", inserted);
+    }
+
+    /**
+     * All users share one password, since encoding a password per user would take longer than the run.
+     */
+    void seedUsers(int users) {
+        Instant updatedAt = Instant.now();
+        String password = PasswordEncoderFactories.createDelegatingPasswordEncoder().encode("password");
+        insert("user", "INSERT INTO \"user\" (username, password, first_name, last_name, email, version, updated_at) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?)", users, i -> new Object[]{
+                "user" + i, password, "First" + i, "Last" + i, "user" + i + "@rentacar.com", 0L,
+                Timestamp.from(updatedAt)});
+    }
+
+    private byte status(boolean past) {
+        int dice = random.nextInt(100);
+        if (dice < 15) {
+            return CANCELED;
+        }
+        return past || dice >= 45 ? CONFIRMED : PENDING;
+    }
+
+    private int insertBooking(List<Object[]> rows) {
+        int size = rows.size();
+        jdbcTemplate.batchUpdate("INSERT INTO booking (user_id, car_id, pickup_date, dropoff_date, status_code) " +
+                "VALUES (?, ?, ?, ?, ?)", rows);
+        rows.clear();
+        return size;
+    }
+
+    private void insert(String table, String sql, int count, RowFactory rowFactory) {
+        List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < count; i++) {
+            rows.add(rowFactory.row(i));
+            if (rows.size() == BATCH_SIZE || i == count - 1) {
+                jdbcTemplate.batchUpdate(sql, rows);
+                rows.clear();
+            }
+        }
+        log.info("Seeded {} rows into {}", count, table);
+    }
+
+    private interface RowFactory {
+        Object[] row(int index);
+    }
+}
@@ -0,0 +1,81 @@
+package com.rentacar.loadtest;
+
+import com.rentacar.bookingservice.BookingServiceApplication;
+import com.rentacar.bookingservice.business.index.CarAvailabilityIndex;
+import com.rentacar.carinventory.CarInventoryApplication;
+import com.rentacar.carinventory.business.index.AvailableCarPriceIndex;
+import com.rentacar.userservice.UserServiceApplication;
+import lombok.extern.log4j.Log4j2;
+
+import javax.sql.DataSource;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+/**
+ * Starts car-inventory, booking-service and user-service in this JVM against one embedded H2 database in MySQL
+ * mode, seeds it and runs a mixed read and write scenario against each service in turn. {@link LoadTestTokens} signs
+ * the tokens the services require.
+ * <p>
+ * For example, at the volumes of production:
+ * <pre>
+ * java -Xmx16g -jar target/load-tests.jar --cars=1000000 --bookings=10000000 --users=1000000 --clients=400
+ * </pre>
+ *
+ * @see LoadTestSettings for all settings and their defaults
+ */
+@Log4j2
+public final class LoadTestHarness {
+
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(5);
+
+    private LoadTestHarness() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        run(LoadTestSettings.parse(args));
+    }
+
+    static List<ScenarioResult> run(LoadTestSettings settings) throws Exception {
+        LocalDate today = LocalDate.now();
+        // Eureka is off, so booking-service finds car-inventory and user-service through the simple discovery client
+        try (LoadTestTokens tokens = LoadTestTokens.start();
+             ServiceUnderTest carInventory = ServiceUnderTest.start("car-inventory", CarInventoryApplication.class,
+                     tokens.keySetArgument());
+             ServiceUnderTest userService = ServiceUnderTest.start("user-service", UserServiceApplication.class,
+                     tokens.keySetArgument());
+             ServiceUnderTest bookingService = ServiceUnderTest.start("booking-service", BookingServiceApplication.class,
+                     tokens.keySetArgument(),
+                     "--service-clients.service-account.auth-uri=" + tokens.authUri(),
+                     "--service-clients.service-account.password=load-test",
+                     "--booking-service.outbox.car-inventory-url=" + carInventory.baseUri(),
+                     "--spring.cloud.discovery.client.simple.instances.car-inventory[0].uri=" + carInventory.baseUri(),
+                     "--spring.cloud.discovery.client.simple.instances.user-service[0].uri=" + userService.baseUri());
+             // HTTP/2 would multiplex every client over one connection, past the stream limit of the services
+             HttpClient httpClient = HttpClient.newBuilder()
+                     .version(HttpClient.Version.HTTP_1_1)
+                     .executor(Executors.newVirtualThreadPerTaskExecutor())
+                     .connectTimeout(CONNECT_TIMEOUT).build()) {
+            long started = System.nanoTime();
+            // the services share the database, so any of them can seed it
+            DatabaseSeeder seeder = new DatabaseSeeder(carInventory.getBean(DataSource.class));
+            seeder.seedCars(settings.cars());
+            seeder.seedBookings(settings.bookings(), settings.cars(), settings.users(), today);
+            seeder.seedUsers(settings.users());
+            carInventory.getBean(AvailableCarPriceIndex.class).rebuild();
+            bookingService.getBean(CarAvailabilityIndex.class).rebuild();
+            log.info("Seeded the database in {} s", (System.nanoTime() - started) / 1_000_000_000);
+
+            ScenarioRunner runner = new ScenarioRunner(httpClient, settings);
+            String accessToken = tokens.clientAccessToken();
+            List<ScenarioResult> results = List.of(
+                    runner.run(Scenarios.carInventory(carInventory.baseUri(), settings, accessToken), carInventory),
+                    runner.run(Scenarios.booking(bookingService.baseUri(), settings, today, accessToken), bookingService),
+                    runner.run(Scenarios.user(userService.baseUri(), settings, accessToken), userService));
+            LoadTestReport.write(settings, results);
+            return results;
+        }
+    }
+}
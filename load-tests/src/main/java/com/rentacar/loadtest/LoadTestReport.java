@@ -0,0 +1,62 @@
+package com.rentacar.loadtest;
+
+import lombok.extern.log4j.Log4j2;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Writes a summary table of all scenarios and, per operation, the full latency distribution in the HdrHistogram
+ * {@code .hgrm} format, which the HdrHistogram plotter reads.
+ */
+@Log4j2
+final class LoadTestReport {
+
+    static final String SUMMARY_FILE = "summary.txt";
+
+    /** Latencies are recorded in microseconds and reported in milliseconds. */
+    private static final double MICROS_PER_MILLI = 1000.0;
+
+    private LoadTestReport() {
+    }
+
+    static void write(LoadTestSettings settings, List<ScenarioResult> results) throws IOException {
+        Path directory = settings.reportDirectory();
+        Files.createDirectories(directory);
+        List<String> lines = new ArrayList<>();
+        lines.add(String.format(Locale.ROOT, "Seeded %d cars, %d bookings and %d users. %d clients per scenario, measured for %s",
+                settings.cars(), settings.bookings(), settings.users(), settings.clients(), settings.duration()));
+        for (ScenarioResult result : results) {
+            lines.add("");
+            lines.add(String.format(Locale.ROOT, "%s: %d requests, %d errors, %.1f req/s, %.2f statements/request",
+                    result.scenario().name(), result.requests(), result.errors(), result.throughput(),
+                    result.statementsPerRequest()));
+            lines.add(String.format(Locale.ROOT, "%-16s | %8s | %6s | %8s | %10s | %8s | %8s | %8s | %8s | %8s",
+                    "operation", "requests", "errors", "req/s", "stmts/req", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+            for (OperationResult operation : result.operations()) {
+                lines.add(String.format(Locale.ROOT, "%-16s | %8d | %6d | %8.1f | %10.1f | %8.1f | %8.1f | %8.1f | %8.1f | %8.1f",
+                        operation.operation().name(), operation.requests(), operation.errors(),
+                        operation.requests() * 1000.0 / result.duration().toMillis(), operation.statementsPerRequest(),
+                        percentile(operation, 50), percentile(operation, 90), percentile(operation, 99),
+                        percentile(operation, 99.9), operation.latencies().getMaxValue() / MICROS_PER_MILLI));
+                Path histogramFile = directory.resolve(result.scenario().name() + "-"
+                        + operation.operation().name().replace(' ', '-') + ".hgrm");
+                try (PrintStream printStream = new PrintStream(Files.newOutputStream(histogramFile))) {
+                    operation.latencies().outputPercentileDistribution(printStream, MICROS_PER_MILLI);
+                }
+            }
+        }
+        Files.write(directory.resolve(SUMMARY_FILE), lines);
+        lines.forEach(log::info);
+        log.info("Report is written to {}", directory.toAbsolutePath());
+    }
+
+    private static double percentile(OperationResult operation, double percentile) {
+        return operation.latencies().getValueAtPercentile(percentile) / MICROS_PER_MILLI;
+    }
+}
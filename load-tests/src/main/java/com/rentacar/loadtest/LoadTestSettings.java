@@ -0,0 +1,49 @@
+package com.rentacar.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Settings of a load test run, given on the command line as {@code --name=value}.
+ *
+ * @param cars            cars seeded into car-inventory
+ * @param bookings        bookings seeded into booking-service, spread over the cars without overlaps
+ * @param users           users seeded into user-service
+ * @param clients         concurrent clients per scenario, each sending its next request once the last one is answered
+ * @param warmUp          time every scenario runs before it is measured
+ * @param duration        time every scenario is measured
+ * @param reportDirectory directory of the summary and of the latency histograms
+ */
+record LoadTestSettings(int cars, int bookings, int users, int clients, Duration warmUp, Duration duration,
+                        Path reportDirectory) {
+
+    static LoadTestSettings parse(String... args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            values.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        LoadTestSettings settings = new LoadTestSettings(
+                Integer.parseInt(values.getOrDefault("cars", "100000")),
+                Integer.parseInt(values.getOrDefault("bookings", "1000000")),
+                Integer.parseInt(values.getOrDefault("users", "100000")),
+                Integer.parseInt(values.getOrDefault("clients", "200")),
+                Duration.parse(values.getOrDefault("warm-up", "PT10S")),
+                Duration.parse(values.getOrDefault("duration", "PT60S")),
+                Path.of(values.getOrDefault("report-directory", "target/load-test")));
+        values.keySet().removeAll(Set.of("cars", "bookings", "users", "clients", "warm-up", "duration", "report-directory"));
+        if (!values.isEmpty()) {
+            throw new IllegalArgumentException("Unknown settings " + values.keySet());
+        }
+        if (settings.cars() <= 0 || settings.users() <= 0 || settings.bookings() < 0 || settings.clients() <= 0) {
+            throw new IllegalArgumentException("Cars, users and clients must be positive and bookings not negative");
+        }
+        return settings;
+    }
+}
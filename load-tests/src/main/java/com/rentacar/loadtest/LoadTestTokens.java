@@ -0,0 +1,115 @@
+package com.rentacar.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.PrivateJwk;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.PrivateKey;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Stands in for discovery-security-service, which the harness does not start: signs the tokens of the load test
+ * clients, publishes the key set the services verify them with and signs in the service account of
+ * booking-service.
+ */
+final class LoadTestTokens implements AutoCloseable {
+
+    private static final String ISSUER = "discovery-security-service";
+
+    private static final String AUTH_PATH = "/api/v1/auth";
+
+    /** Longer than any run, so the clients never have to renew. */
+    private static final Duration CLIENT_TOKEN_LIFETIME = Duration.ofDays(1);
+
+    private static final Duration SERVICE_TOKEN_LIFETIME = Duration.ofMinutes(15);
+
+    private final PrivateJwk<?, ?, ?> jwk;
+
+    private final Path keySetFile;
+
+    private final HttpServer authServer;
+
+    private LoadTestTokens(PrivateJwk<?, ?, ?> jwk, Path keySetFile, HttpServer authServer) {
+        this.jwk = jwk;
+        this.keySetFile = keySetFile;
+        this.authServer = authServer;
+    }
+
+    static LoadTestTokens start() throws IOException {
+        PrivateJwk<?, ?, ?> jwk = Jwks.builder().keyPair(Jwks.CRV.Ed25519.keyPair().build()).id("load-test").build();
+        Path keySetFile = Files.createTempFile("load-test-jwks", ".json");
+        Files.writeString(keySetFile, "{\"keys\":[" + Jwks.json(jwk.toPublicJwk()) + "]}");
+        HttpServer authServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        LoadTestTokens tokens = new LoadTestTokens(jwk, keySetFile, authServer);
+        // the authenticate and refresh endpoints both answer a new pair; the account itself is not checked
+        authServer.createContext(AUTH_PATH, tokens::issueServiceTokens);
+        authServer.start();
+        return tokens;
+    }
+
+    /**
+     * @return the argument that makes a service verify tokens against the key set of the harness
+     */
+    String keySetArgument() {
+        return "--jwt-verification.key-set-uri=" + keySetFile.toUri();
+    }
+
+    URI authUri() {
+        return URI.create("http://localhost:" + authServer.getAddress().getPort() + AUTH_PATH);
+    }
+
+    String clientAccessToken() {
+        return accessToken("load-test", List.of("USER"), CLIENT_TOKEN_LIFETIME);
+    }
+
+    private void issueServiceTokens(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            byte[] response = String.format(Locale.ROOT, "{\"accessToken\":\"%s\",\"refreshToken\":\"%s\"}",
+                    accessToken("booking-service", List.of("SERVICE"), SERVICE_TOKEN_LIFETIME),
+                    token(Map.of("token_use", "refresh"), "booking-service", SERVICE_TOKEN_LIFETIME))
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, response.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(response);
+            }
+        }
+    }
+
+    private String accessToken(String username, List<String> roles, Duration lifetime) {
+        return token(Map.of("roles", roles, "token_use", "access"), username, lifetime);
+    }
+
+    private String token(Map<String, Object> claims, String username, Duration lifetime) {
+        Instant now = Instant.now();
+        return Jwts.builder()
+                .header().keyId(jwk.getId()).and()
+                .claims(claims)
+                .issuer(ISSUER)
+                .subject(username)
+                .issuedAt(Date.from(now))
+                .expiration(Date.from(now.plus(lifetime)))
+                .signWith((PrivateKey) jwk.toKey())
+                .compact();
+    }
+
+    @Override
+    public void close() throws IOException {
+        authServer.stop(0);
+        Files.deleteIfExists(keySetFile);
+    }
+}
@@ -0,0 +1,17 @@
+package com.rentacar.loadtest;
+
+import java.net.http.HttpRequest;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * One kind of request of a {@link Scenario}.
+ *
+ * @param weight           how often the operation is picked, relative to the other operations of the scenario
+ * @param request          builds the next request of the operation
+ * @param expectedStatuses statuses that count as success; a conflict is, for example, expected when booking
+ *                         a car that is already taken
+ */
+record Operation(String name, int weight, Function<Random, HttpRequest> request, Set<Integer> expectedStatuses) {
+}
@@ -0,0 +1,17 @@
+package com.rentacar.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * Measurements of one operation.
+ *
+ * @param latencies           response times in microseconds, failed requests included
+ * @param statementsPerRequest statements the service sent to the database per request, measured on requests sent
+ *                             one at a time before the scenario
+ */
+record OperationResult(Operation operation, Histogram latencies, long errors, double statementsPerRequest) {
+
+    long requests() {
+        return latencies.getTotalCount();
+    }
+}
@@ -0,0 +1,22 @@
+package com.rentacar.loadtest;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A weighted mix of operations against one service.
+ */
+record Scenario(String name, List<Operation> operations) {
+
+    Operation pick(Random random) {
+        int totalWeight = operations.stream().mapToInt(Operation::weight).sum();
+        int ticket = random.nextInt(totalWeight);
+        for (Operation operation : operations) {
+            ticket -= operation.weight();
+            if (ticket < 0) {
+                return operation;
+            }
+        }
+        throw new IllegalStateException("Operations of " + name + " have no weight");
+    }
+}
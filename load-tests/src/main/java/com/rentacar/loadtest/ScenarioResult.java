@@ -0,0 +1,29 @@
+package com.rentacar.loadtest;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Measurements of one scenario.
+ *
+ * @param statements statements the service sent to the database while the scenario was measured, background
+ *                   work such as the outbox relay included
+ */
+record ScenarioResult(Scenario scenario, Duration duration, List<OperationResult> operations, long statements) {
+
+    long requests() {
+        return operations.stream().mapToLong(OperationResult::requests).sum();
+    }
+
+    long errors() {
+        return operations.stream().mapToLong(OperationResult::errors).sum();
+    }
+
+    double throughput() {
+        return requests() * 1000.0 / duration.toMillis();
+    }
+
+    double statementsPerRequest() {
+        return requests() == 0 ? 0 : (double) statements / requests();
+    }
+}
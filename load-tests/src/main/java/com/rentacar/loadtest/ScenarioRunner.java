@@ -0,0 +1,113 @@
+package com.rentacar.loadtest;
+
+import lombok.extern.log4j.Log4j2;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs a scenario with a fixed number of clients, each on its own virtual thread sending its next request as soon
+ * as the last one is answered.
+ */
+@Log4j2
+final class ScenarioRunner {
+
+    /** Requests per operation sent one at a time to count the statements each one costs. */
+    static final int STATEMENT_SAMPLE_REQUESTS = 20;
+
+    private final HttpClient httpClient;
+
+    private final LoadTestSettings settings;
+
+    ScenarioRunner(HttpClient httpClient, LoadTestSettings settings) {
+        this.httpClient = httpClient;
+        this.settings = settings;
+    }
+
+    ScenarioResult run(Scenario scenario, ServiceUnderTest service) throws Exception {
+        Map<Operation, Double> statementsPerRequest = new LinkedHashMap<>();
+        for (Operation operation : scenario.operations()) {
+            statementsPerRequest.put(operation, countStatements(operation, service));
+        }
+
+        log.info("Warming up {} with {} clients for {}", scenario.name(), settings.clients(), settings.warmUp());
+        runClients(scenario, settings.warmUp().toMillis(), new LinkedHashMap<>());
+
+        log.info("Measuring {} for {}", scenario.name(), settings.duration());
+        Map<Operation, Recorder> recorders = new LinkedHashMap<>();
+        scenario.operations().forEach(operation -> recorders.put(operation, new Recorder()));
+        long statementsBefore = service.statementCount();
+        runClients(scenario, settings.duration().toMillis(), recorders);
+        long statements = service.statementCount() - statementsBefore;
+
+        List<OperationResult> operations = new ArrayList<>();
+        recorders.forEach((operation, recorder) -> operations.add(new OperationResult(
+                operation, recorder.latencies, recorder.errors.sum(), statementsPerRequest.get(operation))));
+        return new ScenarioResult(scenario, settings.duration(), operations, statements);
+    }
+
+    private double countStatements(Operation operation, ServiceUnderTest service) throws Exception {
+        Random random = new Random(42);
+        long before = service.statementCount();
+        for (int i = 0; i < STATEMENT_SAMPLE_REQUESTS; i++) {
+            httpClient.send(operation.request().apply(random), HttpResponse.BodyHandlers.discarding());
+        }
+        return (double) (service.statementCount() - before) / STATEMENT_SAMPLE_REQUESTS;
+    }
+
+    private void runClients(Scenario scenario, long millis, Map<Operation, Recorder> recorders) {
+        long deadline = System.nanoTime() + millis * 1_000_000;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < settings.clients(); i++) {
+                executor.submit(() -> {
+                    Random random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < deadline) {
+                        Operation operation = scenario.pick(random);
+                        long start = System.nanoTime();
+                        boolean failed;
+                        try {
+                            int status = httpClient.send(operation.request().apply(random),
+                                    HttpResponse.BodyHandlers.discarding()).statusCode();
+                            failed = !operation.expectedStatuses().contains(status);
+                            if (failed) {
+                                log.debug("{} answered {}", operation.name(), status);
+                            }
+                        } catch (Exception e) {
+                            log.debug("{} failed", operation.name(), e);
+                            failed = true;
+                        }
+                        Recorder recorder = recorders.get(operation);
+                        if (recorder != null) {
+                            recorder.record((System.nanoTime() - start) / 1_000, failed);
+                        }
+                    }
+                });
+            }
+        }
+    }
+
+    private static final class Recorder {
+
+        private final Histogram latencies = new ConcurrentHistogram(3);
+
+        private final LongAdder errors = new LongAdder();
+
+        void record(long micros, boolean failed) {
+            latencies.recordValue(micros);
+            if (failed) {
+                errors.increment();
+            }
+        }
+    }
+}
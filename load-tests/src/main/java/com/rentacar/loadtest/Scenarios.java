@@ -0,0 +1,161 @@
+package com.rentacar.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static com.rentacar.loadtest.DatabaseSeeder.CATALOGUE;
+import static com.rentacar.loadtest.DatabaseSeeder.FUELS;
+import static com.rentacar.loadtest.DatabaseSeeder.GEARBOXES;
+
+/**
+ * Read-mostly mixes of the requests each service gets, over the ids of the seeded data.
+ */
+final class Scenarios {
+
+    private static final Set<Integer> OK = Set.of(200);
+
+    private static final Set<Integer> CREATED = Set.of(201);
+
+    /** Lists answer no content once a page runs past the cars that match. */
+    private static final Set<Integer> OK_OR_EMPTY = Set.of(200, 204);
+
+    private static final int PAGE_SIZE = 20;
+
+    /** Pages further back than this are rarely asked for. */
+    private static final int MAX_PAGE = 50;
+
+    /** Upcoming days that new bookings and free car searches pick from. */
+    private static final int BOOKING_HORIZON_DAYS = 180;
+
+    private static final int FREE_CAR_CANDIDATES = 20;
+
+    private static final AtomicLong NEW_USERS = new AtomicLong();
+
+    private Scenarios() {
+    }
+
+    static Scenario carInventory(URI baseUri, LoadTestSettings settings, String accessToken) {
+        String cars = baseUri + "/api/v1/car";
+        return authorized(accessToken, new Scenario("car-inventory", List.of(
+                new Operation("get car", 40, random -> get(cars + "/" + carId(random, settings)), OK),
+                new Operation("search cars", 20, random -> get(cars + "/search?make=" + make(random) + "&available=true&page="
+                        + random.nextInt(pages(settings.cars() / CATALOGUE.length)) + "&size=" + PAGE_SIZE), OK_OR_EMPTY),
+                new Operation("page cars", 10, random -> get(cars + "?page=" + random.nextInt(pages(settings.cars()))
+                        + "&size=" + PAGE_SIZE), OK_OR_EMPTY),
+                new Operation("cheapest cars", 10, random -> get(cars + "/available/sortedByPrice?limit=" + PAGE_SIZE), OK_OR_EMPTY),
+                new Operation("update car", 15, random -> {
+                    long id = carId(random, settings);
+                    return put(cars + "/" + id, car(random, id));
+                }, CREATED),
+                new Operation("add car", 5, random -> post(cars, car(random, null)), CREATED))));
+    }
+
+    static Scenario booking(URI baseUri, LoadTestSettings settings, LocalDate today, String accessToken) {
+        String bookings = baseUri + "/api/v1/booking";
+        return authorized(accessToken, new Scenario("booking-service", List.of(
+                new Operation("get booking", 35, random -> get(bookings + "/" + bookingId(random, settings)), Set.of(200, 404)),
+                new Operation("booking history", 25, random -> get(bookings + "/history?userId="
+                        + userId(random, settings) + "&size=" + PAGE_SIZE), OK),
+                new Operation("free cars", 15, random -> {
+                    LocalDate from = today.plusDays(random.nextInt(BOOKING_HORIZON_DAYS));
+                    String carIds = random.longs(FREE_CAR_CANDIDATES, 1, settings.cars() + 1L)
+                            .mapToObj(String::valueOf).collect(Collectors.joining(","));
+                    return get(bookings + "/free-cars?from=" + from + "&to=" + from.plusDays(random.nextInt(7))
+                            + "&carIds=" + carIds);
+                }, OK),
+                new Operation("book car", 20, random -> {
+                    LocalDate pickUpDate = today.plusDays(random.nextInt(BOOKING_HORIZON_DAYS));
+                    return post(bookings, booking(null, userId(random, settings), carId(random, settings),
+                            pickUpDate, pickUpDate.plusDays(random.nextInt(7))));
+                }, Set.of(201, 409)),
+                new Operation("cancel booking", 5, random -> {
+                    long id = bookingId(random, settings);
+                    return put(bookings + "/" + id + "/cancel", booking(id, null, null, today, today));
+                }, Set.of(201, 404, 409)))));
+    }
+
+    static Scenario user(URI baseUri, LoadTestSettings settings, String accessToken) {
+        String users = baseUri + "/api/v1/user";
+        return authorized(accessToken, new Scenario("user-service", List.of(
+                new Operation("get user", 60, random -> get(users + "/" + userId(random, settings)), OK),
+                new Operation("add user", 20, random -> post(users, user(null, "new" + NEW_USERS.incrementAndGet())), CREATED),
+                new Operation("update user", 20, random -> {
+                    long id = userId(random, settings);
+                    return put(users + "/" + id, user(id, "user" + (id - 1)));
+                }, CREATED))));
+    }
+
+    /**
+     * Sends every request of the scenario with the access token, as the services require one.
+     */
+    private static Scenario authorized(String accessToken, Scenario scenario) {
+        return new Scenario(scenario.name(), scenario.operations().stream()
+                .map(operation -> new Operation(operation.name(), operation.weight(),
+                        operation.request().andThen(request -> HttpRequest.newBuilder(request, (name, value) -> true)
+                                .header("Authorization", "Bearer " + accessToken).build()),
+                        operation.expectedStatuses()))
+                .toList());
+    }
+
+    private static int pages(int cars) {
+        return Math.max(1, Math.min(MAX_PAGE, cars / PAGE_SIZE));
+    }
+
+    private static long carId(Random random, LoadTestSettings settings) {
+        return 1 + random.nextInt(settings.cars());
+    }
+
+    private static long bookingId(Random random, LoadTestSettings settings) {
+        return 1 + random.nextInt(Math.max(1, settings.bookings()));
+    }
+
+    private static long userId(Random random, LoadTestSettings settings) {
+        return 1 + random.nextInt(settings.users());
+    }
+
+    private static String make(Random random) {
+        return CATALOGUE[random.nextInt(CATALOGUE.length)][0];
+    }
+
+    private static String car(Random random, Long id) {
+        String[] makeAndModels = CATALOGUE[random.nextInt(CATALOGUE.length)];
+        return String.format(Locale.ROOT, "{\"id\":%s,\"make\":\"%s\",\"model\":\"%s\",\"gearbox\":\"%s\",\"fuel\":\"%s\"," +
+                        "\"year\":%d,\"price\":%d,\"available\":%b}",
+                id, makeAndModels[0], makeAndModels[1 + random.nextInt(makeAndModels.length - 1)],
+                GEARBOXES[random.nextInt(GEARBOXES.length)], FUELS[random.nextInt(FUELS.length)],
+                2010 + random.nextInt(15), 20 + random.nextInt(180), random.nextInt(10) < 8);
+    }
+
+    private static String booking(Long id, Long userId, Long carId, LocalDate pickUpDate, LocalDate dropOffDate) {
+        return String.format(Locale.ROOT, "{\"id\":%s,\"userId\":%s,\"carId\":%s,\"pickUpDate\":\"%s\",\"dropOffDate\":\"%s\"}",
+                id, userId, carId, pickUpDate, dropOffDate);
+    }
+
+    private static String user(Long id, String username) {
+        return String.format(Locale.ROOT, "{\"id\":%s,\"username\":\"%s\",\"password\":\"password1\",\"firstName\":\"First\"," +
+                "\"lastName\":\"Last\",\"email\":\"%s@rentacar.com\"}", id, username, username);
+    }
+
+    private static HttpRequest get(String uri) {
+        return HttpRequest.newBuilder(URI.create(uri)).GET().build();
+    }
+
+    private static HttpRequest post(String uri, String json) {
+        return HttpRequest.newBuilder(URI.create(uri))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json)).build();
+    }
+
+    private static HttpRequest put(String uri, String json) {
+        return HttpRequest.newBuilder(URI.create(uri))
+                .header("Content-Type", "application/json")
+                .PUT(HttpRequest.BodyPublishers.ofString(json)).build();
+    }
+}
@@ -0,0 +1,82 @@
+package com.rentacar.loadtest;
+
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URL;
+import java.util.Enumeration;
+import java.util.Properties;
+import java.util.stream.Stream;
+
+/**
+ * A service started in this JVM on a random port.
+ * <p>
+ * All services share one classpath, so each is started with the {@code application.properties} of its own jar
+ * as defaults. {@code load-test.properties} then points every service at the embedded database.
+ */
+@Log4j2
+final class ServiceUnderTest implements AutoCloseable {
+
+    private static final String LOAD_TEST_CONFIG = "--spring.config.location=optional:classpath:/load-test.properties";
+
+    private final String name;
+
+    private final ConfigurableApplicationContext context;
+
+    private ServiceUnderTest(String name, ConfigurableApplicationContext context) {
+        this.name = name;
+        this.context = context;
+    }
+
+    static ServiceUnderTest start(String name, Class<?> applicationClass, String... args) throws IOException {
+        long started = System.nanoTime();
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(applicationClass, StatementCounter.class)
+                .properties(serviceProperties(applicationClass))
+                .run(Stream.concat(Stream.of(LOAD_TEST_CONFIG), Stream.of(args)).toArray(String[]::new));
+        ServiceUnderTest service = new ServiceUnderTest(name, context);
+        log.info("Started {} on {} in {} ms", name, service.baseUri(), (System.nanoTime() - started) / 1_000_000);
+        return service;
+    }
+
+    private static Properties serviceProperties(Class<?> applicationClass) throws IOException {
+        String location = applicationClass.getProtectionDomain().getCodeSource().getLocation().toString();
+        Enumeration<URL> resources = applicationClass.getClassLoader().getResources("application.properties");
+        while (resources.hasMoreElements()) {
+            URL resource = resources.nextElement();
+            if (resource.toString().contains(location)) {
+                Properties properties = new Properties();
+                try (InputStream inputStream = resource.openStream()) {
+                    properties.load(inputStream);
+                }
+                return properties;
+            }
+        }
+        throw new IllegalStateException("No application.properties next to " + applicationClass.getName() + " in " + location);
+    }
+
+    String name() {
+        return name;
+    }
+
+    URI baseUri() {
+        return URI.create("http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort());
+    }
+
+    long statementCount() {
+        return context.getBean(StatementCounter.class).count();
+    }
+
+    <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+}
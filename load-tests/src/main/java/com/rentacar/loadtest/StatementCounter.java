@@ -0,0 +1,57 @@
+package com.rentacar.loadtest;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the statements a service sends to the database, by wrapping its data source. A batch counts as one
+ * statement, since it is one round trip.
+ */
+public class StatementCounter implements BeanPostProcessor {
+
+    private final LongAdder statements = new LongAdder();
+
+    public long count() {
+        return statements.sum();
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        return bean instanceof DataSource dataSource ? wrap(DataSource.class, dataSource) : bean;
+    }
+
+    private <T> T wrap(Class<T> type, T target) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (type != DataSource.class && type != Connection.class && method.getName().startsWith("execute")) {
+                statements.increment();
+            }
+            if (result instanceof CallableStatement statement) {
+                return wrap(CallableStatement.class, statement);
+            }
+            if (result instanceof PreparedStatement statement) {
+                return wrap(PreparedStatement.class, statement);
+            }
+            if (result instanceof Statement statement) {
+                return wrap(Statement.class, statement);
+            }
+            if (result instanceof Connection connection) {
+                return wrap(Connection.class, connection);
+            }
+            return result;
+        }));
+    }
+}
@@ -0,0 +1,34 @@
+package com.rentacar.loadtest;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the harness at a tiny volume, so it keeps working as the services change.
+ */
+class LoadTestHarnessTest {
+
+    @Test
+    void run_everyOperationSucceeds() throws Exception {
+        LoadTestSettings settings = LoadTestSettings.parse("--cars=200", "--bookings=2000", "--users=100",
+                "--clients=8", "--warm-up=PT1S", "--duration=PT2S", "--report-directory=target/load-test-smoke");
+
+        List<ScenarioResult> results = LoadTestHarness.run(settings);
+
+        assertEquals(3, results.size());
+        for (ScenarioResult result : results) {
+            assertEquals(0, result.errors(), result.scenario().name() + " has failed requests");
+            for (OperationResult operation : result.operations()) {
+                assertTrue(operation.requests() > 0, operation.operation().name() + " was never sent");
+            }
+            assertTrue(result.statements() > 0);
+        }
+        assertTrue(Files.exists(settings.reportDirectory().resolve(LoadTestReport.SUMMARY_FILE)));
+        assertTrue(Files.exists(settings.reportDirectory().resolve("booking-service-book-car.hgrm")));
+    }
+}
@@ -0,0 +1,44 @@
+package com.rentacar.serviceclients;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.service.annotation.GetExchange;
+import org.springframework.web.service.annotation.HttpExchange;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Client of booking-service.
+ */
+@HttpExchange("/api/v1/booking")
+public interface BookingServiceClient {
+
+    String SERVICE_ID = "booking-service";
+
+    /**
+     * @throws HttpClientErrorException.NotFound if there is no such booking
+     */
+    @GetExchange("/{id}")
+    BookingSummary getBooking(@PathVariable Long id);
+
+    default Optional<BookingSummary> findBookingById(Long id) {
+        try {
+            return Optional.ofNullable(getBooking(id));
+        } catch (HttpClientErrorException.NotFound e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * @return the given cars that have no booking from {@code from} to {@code to} inclusive
+     */
+    @GetExchange("/free-cars")
+    Set<Long> findFreeCars(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                           @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                           @RequestParam Collection<Long> carIds);
+}
@@ -0,0 +1,13 @@
+package com.rentacar.serviceclients;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.time.LocalDate;
+
+/**
+ * Booking as returned by booking-service.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record BookingSummary(Long id, Long userId, Long carId, LocalDate pickUpDate, LocalDate dropOffDate,
+                             String status) {
+}
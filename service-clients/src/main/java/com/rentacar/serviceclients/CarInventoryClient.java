@@ -0,0 +1,31 @@
+package com.rentacar.serviceclients;
+
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.service.annotation.GetExchange;
+import org.springframework.web.service.annotation.HttpExchange;
+
+import java.util.Optional;
+
+/**
+ * Client of car-inventory.
+ */
+@HttpExchange("/api/v1/car")
+public interface CarInventoryClient {
+
+    String SERVICE_ID = "car-inventory";
+
+    /**
+     * @throws HttpClientErrorException.NotFound if there is no such car
+     */
+    @GetExchange("/{id}")
+    CarSummary getCar(@PathVariable Long id);
+
+    default Optional<CarSummary> findCarById(Long id) {
+        try {
+            return Optional.ofNullable(getCar(id));
+        } catch (HttpClientErrorException.NotFound e) {
+            return Optional.empty();
+        }
+    }
+}
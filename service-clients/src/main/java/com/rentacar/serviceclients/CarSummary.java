@@ -0,0 +1,10 @@
+package com.rentacar.serviceclients;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * Car as returned by car-inventory, without the fields other services do not need.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record CarSummary(Long id, String make, String model, int year, double price, boolean available) {
+}
@@ -0,0 +1,71 @@
+package com.rentacar.serviceclients;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * ETag and Last-Modified handling of the versioned resources of the services. The ETag is the quoted
+ * optimistic-locking version of the resource, so a client can send back what any service answered.
+ */
+public final class ConditionalRequests {
+
+    private ConditionalRequests() {
+    }
+
+    /**
+     * @return whether the request carries a validator that {@link #checkNotModified} can answer with 304
+     */
+    public static boolean isConditional(WebRequest webRequest) {
+        return webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                || webRequest.getHeader(HttpHeaders.IF_MODIFIED_SINCE) != null;
+    }
+
+    /**
+     * @return whether the resource at this version is not modified; the response is then set to 304
+     */
+    public static boolean checkNotModified(WebRequest webRequest, Long version, Instant updatedAt) {
+        return webRequest.checkNotModified(eTag(version), lastModified(updatedAt));
+    }
+
+    /**
+     * Adds the ETag and Last-Modified headers of the resource, leaving out the ones it has no value for.
+     */
+    public static ResponseEntity.BodyBuilder withVersionHeaders(ResponseEntity.BodyBuilder builder, Long version,
+                                                                Instant updatedAt) {
+        if (version != null) {
+            builder.eTag(eTag(version));
+        }
+        if (updatedAt != null) {
+            builder.lastModified(updatedAt);
+        }
+        return builder;
+    }
+
+    public static String eTag(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    public static long lastModified(Instant updatedAt) {
+        return updatedAt == null ? -1 : updatedAt.toEpochMilli();
+    }
+
+    /** Reads the version from a single strong ETag. Weak or unparsable tags can never match. */
+    public static Optional<Long> parseIfMatch(String ifMatch) {
+        if (ifMatch == null) {
+            return Optional.empty();
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() < 3 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(Long.valueOf(tag.substring(1, tag.length() - 1)));
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.rentacar.serviceclients;
+
+import lombok.extern.log4j.Log4j2;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerInterceptor;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.support.RestClientAdapter;
+import org.springframework.web.service.invoker.HttpServiceProxyFactory;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.util.function.Supplier;
+
+/**
+ * Creates typed clients of the services registered in Eureka from their {@code @HttpExchange} interfaces.
+ * <p>
+ * Every client addresses its service as {@code http://<service id>}; the load balancer picks an instance for each
+ * call, preferring the zone of the caller when {@code spring.cloud.loadbalancer.configurations=zone-preference}.
+ * All clients share one {@link HttpClient}, so connections to an instance are kept alive and reused by every
+ * client, and HTTP/2 connections multiplex concurrent calls. Each call is bounded by the read timeout of its
+ * service. A call that cannot reach any instance fails with a {@link org.springframework.web.client.ResourceAccessException},
+ * the same as one that times out. Calls carry the access token of the {@link ServiceTokenProvider service account}.
+ */
+@Log4j2
+public class ServiceClientFactory implements AutoCloseable {
+
+    private final ServiceClientsProperties properties;
+
+    private final LoadBalancerInterceptor loadBalancerInterceptor;
+
+    private final Supplier<RestClient.Builder> restClientBuilders;
+
+    private final ServiceTokenProvider serviceTokenProvider;
+
+    private final HttpClient httpClient;
+
+    public ServiceClientFactory(ServiceClientsProperties properties,
+                                LoadBalancerInterceptor loadBalancerInterceptor,
+                                Supplier<RestClient.Builder> restClientBuilders,
+                                ServiceTokenProvider serviceTokenProvider) {
+        this.properties = properties;
+        this.loadBalancerInterceptor = loadBalancerInterceptor;
+        this.restClientBuilders = restClientBuilders;
+        this.serviceTokenProvider = serviceTokenProvider;
+        this.httpClient = HttpClient.newBuilder()
+                .version(properties.isHttp2() ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+                .connectTimeout(properties.getConnectTimeout())
+                .build();
+    }
+
+    public <T> T create(String serviceId, Class<T> clientType) {
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(properties.readTimeoutOf(serviceId));
+        RestClient restClient = restClientBuilders.get()
+                .baseUrl("http://" + serviceId)
+                .requestFactory(requestFactory)
+                .requestInterceptor(serviceToken())
+                .requestInterceptor(loadBalanced())
+                .build();
+        log.debug("Created {} for {} with read timeout {}", clientType.getSimpleName(), serviceId,
+                properties.readTimeoutOf(serviceId));
+        return HttpServiceProxyFactory.builderFor(RestClientAdapter.create(restClient)).build().createClient(clientType);
+    }
+
+    @Override
+    public void close() {
+        httpClient.close();
+    }
+
+    private ClientHttpRequestInterceptor serviceToken() {
+        return (request, body, execution) -> {
+            try {
+                serviceTokenProvider.getAccessToken().ifPresent(request.getHeaders()::setBearerAuth);
+            } catch (RestClientException e) {
+                throw new IOException("Service token could not be obtained: " + e.getMessage(), e);
+            }
+            return execution.execute(request, body);
+        };
+    }
+
+    private ClientHttpRequestInterceptor loadBalanced() {
+        return (request, body, execution) -> {
+            try {
+                return loadBalancerInterceptor.intercept(request, body, execution);
+            } catch (IllegalStateException e) {
+                // thrown when the service has no instances; reported like any other failure to connect
+                throw new IOException(e.getMessage(), e);
+            }
+        };
+    }
+}
@@ -0,0 +1,80 @@
+package com.rentacar.serviceclients;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.web.client.RestClientAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerAutoConfiguration;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerClient;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerInterceptor;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerRequestFactory;
+import org.springframework.cloud.loadbalancer.config.BlockingLoadBalancerClientAutoConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.RestClient;
+
+import java.net.http.HttpClient;
+
+/**
+ * Load-balanced clients of car-inventory, booking-service and user-service.
+ * Switched off with {@code service-clients.enabled=false}.
+ * <p>
+ * The clients are built from the {@link RestClient.Builder} of Spring Boot, so their calls are observed as
+ * {@code http.client.requests}, but they do not register a load-balanced builder: that would make every other
+ * {@link RestClient} of the service resolve its host names as service ids.
+ */
+@AutoConfiguration(after = {BlockingLoadBalancerClientAutoConfiguration.class, LoadBalancerAutoConfiguration.class,
+        RestClientAutoConfiguration.class})
+@ConditionalOnBean(LoadBalancerClient.class)
+@ConditionalOnProperty(prefix = "service-clients", name = "enabled", matchIfMissing = true)
+@EnableConfigurationProperties(ServiceClientsProperties.class)
+public class ServiceClientsAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public ServiceTokenProvider serviceTokenProvider(ServiceClientsProperties properties,
+                                                     ObjectProvider<RestClient.Builder> restClientBuilders) {
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(HttpClient.newBuilder()
+                .connectTimeout(properties.getConnectTimeout())
+                .build());
+        requestFactory.setReadTimeout(properties.getReadTimeout());
+        // straight to discovery-security-service, which is not behind the load balancer
+        return new ServiceTokenProvider(properties.getServiceAccount(), restClientBuilders.getIfAvailable(RestClient::builder)
+                .baseUrl(properties.getServiceAccount().getAuthUri())
+                .requestFactory(requestFactory)
+                .build());
+    }
+
+    @Bean
+    public ServiceClientFactory serviceClientFactory(ServiceClientsProperties properties,
+                                                     LoadBalancerClient loadBalancerClient,
+                                                     LoadBalancerRequestFactory loadBalancerRequestFactory,
+                                                     ObjectProvider<RestClient.Builder> restClientBuilders,
+                                                     ServiceTokenProvider serviceTokenProvider) {
+        return new ServiceClientFactory(properties,
+                new LoadBalancerInterceptor(loadBalancerClient, loadBalancerRequestFactory),
+                () -> restClientBuilders.getIfAvailable(RestClient::builder),
+                serviceTokenProvider);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public UserServiceClient userServiceClient(ServiceClientFactory serviceClientFactory) {
+        return serviceClientFactory.create(UserServiceClient.SERVICE_ID, UserServiceClient.class);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public CarInventoryClient carInventoryClient(ServiceClientFactory serviceClientFactory) {
+        return serviceClientFactory.create(CarInventoryClient.SERVICE_ID, CarInventoryClient.class);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public BookingServiceClient bookingServiceClient(ServiceClientFactory serviceClientFactory) {
+        return serviceClientFactory.create(BookingServiceClient.SERVICE_ID, BookingServiceClient.class);
+    }
+}
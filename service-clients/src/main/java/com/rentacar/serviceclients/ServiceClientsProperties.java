@@ -0,0 +1,53 @@
+package com.rentacar.serviceclients;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Settings under {@code service-clients}.
+ */
+@Data
+@ConfigurationProperties(prefix = "service-clients")
+public class ServiceClientsProperties {
+
+    private boolean enabled = true;
+
+    private Duration connectTimeout = Duration.ofSeconds(1);
+
+    /** Longest time a call waits for the response, unless {@link #readTimeouts} names its service. */
+    private Duration readTimeout = Duration.ofSeconds(3);
+
+    /** Read timeouts by service id, e.g. {@code service-clients.read-timeouts.car-inventory=PT1S}. */
+    private Map<String, Duration> readTimeouts = new HashMap<>();
+
+    /** Asks for HTTP/2, upgrading plain-text connections (h2c); peers that do not support it keep HTTP/1.1. */
+    private boolean http2 = true;
+
+    private ServiceAccount serviceAccount = new ServiceAccount();
+
+    public Duration readTimeoutOf(String serviceId) {
+        return readTimeouts.getOrDefault(serviceId, readTimeout);
+    }
+
+    /**
+     * Account at discovery-security-service whose access token is sent with every call.
+     */
+    @Data
+    public static class ServiceAccount {
+
+        /** Without a username calls are sent without a token. */
+        private String username;
+
+        private String password;
+
+        /** Base of the authenticate and refresh endpoints of discovery-security-service. */
+        private String authUri = "http://localhost:8761/api/v1/auth";
+
+        /** How long before it expires the access token is renewed. */
+        private Duration renewBefore = Duration.ofSeconds(30);
+    }
+}
@@ -0,0 +1,129 @@
+package com.rentacar.serviceclients;
+
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.json.JsonParserFactory;
+import org.springframework.http.MediaType;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Access token of the service account of this service, sent with its calls to the other services.
+ * <p>
+ * The account signs in at discovery-security-service on first use. After that, its refresh token renews the
+ * access token shortly before it expires, and a renewal that fails signs in again. A service without a
+ * {@code service-clients.service-account.username} sends no token.
+ */
+@Log4j2
+public class ServiceTokenProvider {
+
+    record TokenPair(String accessToken, String refreshToken) {
+    }
+
+    private final ServiceClientsProperties.ServiceAccount serviceAccount;
+
+    private final RestClient restClient;
+
+    /** A lock rather than synchronized, so a virtual thread waiting for a sign-in does not pin its carrier. */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private volatile TokenPair tokens;
+
+    private volatile Instant renewAt = Instant.MIN;
+
+    /**
+     * @param restClient client of the authenticate and refresh endpoints, based on the auth URI of the account
+     * @throws IllegalStateException if the account has a username but no password, so a service without its
+     *                               secret fails to start rather than on its first call
+     */
+    public ServiceTokenProvider(ServiceClientsProperties.ServiceAccount serviceAccount, RestClient restClient) {
+        this.serviceAccount = serviceAccount;
+        this.restClient = restClient;
+        if (isEnabled() && (serviceAccount.getPassword() == null || serviceAccount.getPassword().isBlank())) {
+            throw new IllegalStateException("service-clients.service-account.password is not set for "
+                    + serviceAccount.getUsername());
+        }
+    }
+
+    public boolean isEnabled() {
+        return serviceAccount.getUsername() != null && !serviceAccount.getUsername().isBlank();
+    }
+
+    /**
+     * @return the access token, or empty if no service account is set
+     * @throws RestClientException if discovery-security-service could not issue a token
+     */
+    public Optional<String> getAccessToken() {
+        if (!isEnabled()) {
+            return Optional.empty();
+        }
+        TokenPair current = tokens;
+        if (current != null && Instant.now().isBefore(renewAt)) {
+            return Optional.of(current.accessToken());
+        }
+        lock.lock();
+        try {
+            if (tokens == null || !Instant.now().isBefore(renewAt)) {
+                update(tokens == null ? signIn() : renew(tokens));
+            }
+            return Optional.of(tokens.accessToken());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private TokenPair renew(TokenPair expiring) {
+        try {
+            return restClient.post()
+                    .uri("/refresh")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(Map.of("refreshToken", expiring.refreshToken()))
+                    .retrieve()
+                    .body(TokenPair.class);
+        } catch (RestClientException e) {
+            log.info("Service token of {} could not be renewed, signing in again: {}", serviceAccount.getUsername(), e.getMessage());
+            return signIn();
+        }
+    }
+
+    private TokenPair signIn() {
+        TokenPair signedIn = restClient.post()
+                .uri("/authenticate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Map.of("username", serviceAccount.getUsername(), "password", serviceAccount.getPassword()))
+                .retrieve()
+                .body(TokenPair.class);
+        log.info("Service account {} is signed in", serviceAccount.getUsername());
+        return signedIn;
+    }
+
+    private void update(TokenPair issued) {
+        if (issued == null || issued.accessToken() == null) {
+            throw new RestClientException("No access token is issued for " + serviceAccount.getUsername());
+        }
+        tokens = issued;
+        renewAt = expiresAt(issued.accessToken()).minus(serviceAccount.getRenewBefore());
+    }
+
+    /**
+     * Reads the expiry of a token issued to this service. The signature is checked by the services it is sent to.
+     */
+    static Instant expiresAt(String accessToken) {
+        String[] parts = accessToken.split("\\.");
+        if (parts.length < 2) {
+            throw new RestClientException("Issued access token is not a JWT");
+        }
+        Map<String, Object> claims = JsonParserFactory.getJsonParser()
+                .parseMap(new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8));
+        if (!(claims.get("exp") instanceof Number expiration)) {
+            throw new RestClientException("Issued access token has no expiry");
+        }
+        return Instant.ofEpochSecond(expiration.longValue());
+    }
+}
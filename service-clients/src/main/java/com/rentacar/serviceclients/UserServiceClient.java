@@ -0,0 +1,31 @@
+package com.rentacar.serviceclients;
+
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.service.annotation.GetExchange;
+import org.springframework.web.service.annotation.HttpExchange;
+
+import java.util.Optional;
+
+/**
+ * Client of user-service.
+ */
+@HttpExchange("/api/v1/user")
+public interface UserServiceClient {
+
+    String SERVICE_ID = "user-service";
+
+    /**
+     * @throws HttpClientErrorException.NotFound if there is no such user
+     */
+    @GetExchange("/{id}")
+    UserSummary getUser(@PathVariable Long id);
+
+    default Optional<UserSummary> findUserById(Long id) {
+        try {
+            return Optional.ofNullable(getUser(id));
+        } catch (HttpClientErrorException.NotFound e) {
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.rentacar.serviceclients;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * User as returned by user-service, without the fields other services do not need.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record UserSummary(Long id, String username, String firstName, String lastName, String email) {
+}
@@ -0,0 +1,70 @@
+package com.rentacar.serviceclients;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.support.RestClientAdapter;
+import org.springframework.web.service.invoker.HttpServiceProxyFactory;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class BookingServiceClientTest {
+
+    private MockRestServiceServer server;
+
+    private BookingServiceClient client;
+
+    @BeforeEach
+    void setUp() {
+        RestClient.Builder builder = RestClient.builder().baseUrl("http://booking-service");
+        server = MockRestServiceServer.bindTo(builder).build();
+        client = HttpServiceProxyFactory.builderFor(RestClientAdapter.create(builder.build())).build()
+                .createClient(BookingServiceClient.class);
+    }
+
+    @Test
+    void findFreeCars() {
+        server.expect(requestTo("http://booking-service/api/v1/booking/free-cars?from=2024-06-01&to=2024-06-03&carIds=1&carIds=2"))
+                .andExpect(method(HttpMethod.GET))
+                .andRespond(withSuccess("[2]", MediaType.APPLICATION_JSON));
+
+        Set<Long> freeCarIds = client.findFreeCars(LocalDate.parse("2024-06-01"), LocalDate.parse("2024-06-03"), List.of(1L, 2L));
+
+        assertEquals(Set.of(2L), freeCarIds);
+        server.verify();
+    }
+
+    @Test
+    void findBookingById() {
+        server.expect(requestTo("http://booking-service/api/v1/booking/5"))
+                .andRespond(withSuccess("{\"id\":5,\"userId\":1,\"carId\":2,\"pickUpDate\":\"2024-06-01\"," +
+                        "\"dropOffDate\":\"2024-06-03\",\"status\":\"Pending\"}", MediaType.APPLICATION_JSON));
+
+        Optional<BookingSummary> booking = client.findBookingById(5L);
+
+        assertEquals(Optional.of(new BookingSummary(5L, 1L, 2L, LocalDate.parse("2024-06-01"),
+                LocalDate.parse("2024-06-03"), "Pending")), booking);
+    }
+
+    @Test
+    void findBookingById_notFound() {
+        server.expect(requestTo("http://booking-service/api/v1/booking/5"))
+                .andRespond(withStatus(HttpStatus.NOT_FOUND));
+
+        assertTrue(client.findBookingById(5L).isEmpty());
+    }
+}
@@ -0,0 +1,50 @@
+package com.rentacar.serviceclients;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ConditionalRequestsTest {
+
+    @Test
+    void parseIfMatch_ownETag() {
+        assertEquals(Optional.of(7L), ConditionalRequests.parseIfMatch(ConditionalRequests.eTag(7L)));
+        assertEquals(Optional.of(7L), ConditionalRequests.parseIfMatch(" \"7\" "));
+    }
+
+    @Test
+    void parseIfMatch_unmatchableTags() {
+        assertEquals(Optional.empty(), ConditionalRequests.parseIfMatch(null));
+        assertEquals(Optional.empty(), ConditionalRequests.parseIfMatch("W/\"7\""));
+        assertEquals(Optional.empty(), ConditionalRequests.parseIfMatch("\"\""));
+        assertEquals(Optional.empty(), ConditionalRequests.parseIfMatch("\"seven\""));
+        assertEquals(Optional.empty(), ConditionalRequests.parseIfMatch("*"));
+    }
+
+    @Test
+    void withVersionHeaders() {
+        Instant updatedAt = Instant.parse("2024-03-01T10:15:30Z");
+
+        HttpHeaders headers = ConditionalRequests.withVersionHeaders(ResponseEntity.ok(), 3L, updatedAt)
+                .build().getHeaders();
+
+        assertEquals("\"3\"", headers.getETag());
+        assertEquals(updatedAt.toEpochMilli(), headers.getLastModified());
+    }
+
+    @Test
+    void withVersionHeaders_unversioned() {
+        HttpHeaders headers = ConditionalRequests.withVersionHeaders(ResponseEntity.ok(), null, null)
+                .build().getHeaders();
+
+        assertNull(headers.getETag());
+        assertFalse(headers.containsKey(HttpHeaders.LAST_MODIFIED));
+    }
+}
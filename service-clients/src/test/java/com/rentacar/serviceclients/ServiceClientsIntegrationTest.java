@@ -0,0 +1,290 @@
+package com.rentacar.serviceclients;
+
+import com.netflix.discovery.Jersey3DiscoveryClientOptionalArgs;
+import com.netflix.discovery.shared.transport.jersey3.Jersey3TransportClientFactories;
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.netflix.eureka.server.EnableEurekaServer;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Registers stub instances of user-service and car-inventory in two zones with an embedded Eureka server and
+ * calls them through the clients of a caller in zone-a.
+ */
+class ServiceClientsIntegrationTest {
+
+    private static final Duration REGISTRATION_TIMEOUT = Duration.ofSeconds(60);
+
+    private static final String SERVICE_TOKEN = "service-token";
+
+    private static final List<ConfigurableApplicationContext> contexts = new ArrayList<>();
+
+    private static StubController userServiceA1;
+    private static StubController userServiceA2;
+    private static StubController userServiceB1;
+    private static ConfigurableApplicationContext caller;
+
+    @BeforeAll
+    static void startServices() throws IOException, InterruptedException {
+        // a fixed port lets the server recognise its own URL and not replicate to itself
+        int eurekaPort = freePort();
+        String eurekaUrl = "http://localhost:" + eurekaPort + "/eureka/";
+        start(new SpringApplicationBuilder(EurekaServer.class)
+                .properties("server.port=" + eurekaPort,
+                        "spring.application.name=eureka-server",
+                        "eureka.instance.hostname=localhost",
+                        "eureka.client.service-url.defaultZone=" + eurekaUrl,
+                        "eureka.client.register-with-eureka=false",
+                        "eureka.client.fetch-registry=false",
+                        "eureka.dashboard.enabled=false",
+                        "eureka.server.enable-self-preservation=false",
+                        "eureka.server.use-read-only-response-cache=false",
+                        "eureka.server.wait-time-in-ms-when-sync-empty=0"));
+
+        userServiceA1 = startStub(eurekaUrl, "user-service", "zone-a");
+        userServiceA2 = startStub(eurekaUrl, "user-service", "zone-a");
+        userServiceB1 = startStub(eurekaUrl, "user-service", "zone-b");
+        startStub(eurekaUrl, "car-inventory", "zone-a");
+
+        caller = start(new SpringApplicationBuilder(Caller.class)
+                .web(WebApplicationType.NONE)
+                .properties(eurekaClientProperties(eurekaUrl, "caller", "zone-a"))
+                .properties("eureka.client.register-with-eureka=false",
+                        "spring.cloud.loadbalancer.configurations=zone-preference",
+                        "spring.cloud.loadbalancer.cache.enabled=false",
+                        "service-clients.read-timeouts.car-inventory=PT0.5S"));
+        awaitInstances("user-service", 3);
+        awaitInstances("car-inventory", 1);
+    }
+
+    @AfterAll
+    static void stopServices() {
+        for (int i = contexts.size() - 1; i >= 0; i--) {
+            contexts.get(i).close();
+        }
+    }
+
+    @BeforeEach
+    void resetStubs() {
+        for (StubController stub : List.of(userServiceA1, userServiceA2, userServiceB1)) {
+            stub.calls.set(0);
+            stub.protocols.clear();
+            stub.authorizations.clear();
+        }
+    }
+
+    @Test
+    void callsAreSpreadOverTheInstancesOfTheCallersZone() {
+        UserServiceClient client = caller.getBean(UserServiceClient.class);
+
+        for (int i = 0; i < 20; i++) {
+            Optional<UserSummary> user = client.findUserById(7L);
+            assertTrue(user.isPresent());
+            assertEquals(7L, user.get().id());
+        }
+
+        assertEquals(10, userServiceA1.calls.get());
+        assertEquals(10, userServiceA2.calls.get());
+        assertEquals(0, userServiceB1.calls.get());
+    }
+
+    @Test
+    void callsUseHttp2() {
+        UserServiceClient client = caller.getBean(UserServiceClient.class);
+
+        for (int i = 0; i < 4; i++) {
+            client.findUserById(7L);
+        }
+
+        assertEquals(Set.of("HTTP/2.0"), userServiceA1.protocols);
+        assertEquals(Set.of("HTTP/2.0"), userServiceA2.protocols);
+    }
+
+    @Test
+    void callsCarryServiceToken() {
+        caller.getBean(UserServiceClient.class).findUserById(7L);
+
+        Set<String> authorizations = new HashSet<>();
+        List.of(userServiceA1, userServiceA2).forEach(stub -> authorizations.addAll(stub.authorizations));
+        assertEquals(Set.of("Bearer " + SERVICE_TOKEN), authorizations);
+    }
+
+    @Test
+    void missingUserIsEmpty() {
+        assertTrue(caller.getBean(UserServiceClient.class).findUserById(StubController.MISSING_ID).isEmpty());
+    }
+
+    @Test
+    void slowCallTimesOut() {
+        CarInventoryClient client = caller.getBean(CarInventoryClient.class);
+        long started = System.nanoTime();
+
+        assertThrows(ResourceAccessException.class, () -> client.findCarById(StubController.SLOW_ID));
+
+        assertTrue(Duration.ofNanos(System.nanoTime() - started).compareTo(StubController.SLOW_RESPONSE) < 0);
+    }
+
+    @Test
+    void serviceWithoutInstancesFailsToConnect() {
+        BookingServiceClient client = caller.getBean(BookingServiceClient.class);
+
+        assertThrows(ResourceAccessException.class, () -> client.findBookingById(1L));
+    }
+
+    private static StubController startStub(String eurekaUrl, String serviceId, String zone) {
+        ConfigurableApplicationContext stub = start(new SpringApplicationBuilder(StubService.class)
+                .properties(eurekaClientProperties(eurekaUrl, serviceId, zone))
+                .properties("server.port=0", "server.http2.enabled=true"));
+        return stub.getBean(StubController.class);
+    }
+
+    private static String[] eurekaClientProperties(String eurekaUrl, String serviceId, String zone) {
+        return new String[]{
+                "spring.application.name=" + serviceId,
+                "eureka.client.service-url.defaultZone=" + eurekaUrl,
+                "eureka.client.registry-fetch-interval-seconds=1",
+                "eureka.client.initial-instance-info-replication-interval-seconds=1",
+                "eureka.instance.hostname=localhost",
+                "eureka.instance.instance-id=" + serviceId + ":${random.uuid}",
+                "eureka.instance.metadata-map.zone=" + zone};
+    }
+
+    private static ConfigurableApplicationContext start(SpringApplicationBuilder builder) {
+        ConfigurableApplicationContext context = builder.run();
+        contexts.add(context);
+        return context;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static void awaitInstances(String serviceId, int count) throws InterruptedException {
+        DiscoveryClient discoveryClient = caller.getBean(DiscoveryClient.class);
+        long deadline = System.nanoTime() + REGISTRATION_TIMEOUT.toNanos();
+        while (discoveryClient.getInstances(serviceId).size() < count) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException(serviceId + " has not registered " + count + " instances");
+            }
+            Thread.sleep(200);
+        }
+    }
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @EnableEurekaServer
+    static class EurekaServer {
+    }
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @Import({StubController.class, JerseyEurekaClientConfiguration.class})
+    static class StubService {
+    }
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @Import(JerseyEurekaClientConfiguration.class)
+    static class Caller {
+
+        @Bean
+        public ServiceTokenProvider serviceTokenProvider() {
+            return new ServiceTokenProvider(new ServiceClientsProperties.ServiceAccount(), RestClient.create()) {
+                @Override
+                public Optional<String> getAccessToken() {
+                    return Optional.of(SERVICE_TOKEN);
+                }
+            };
+        }
+    }
+
+    /**
+     * The Eureka server brings Jersey onto the test classpath, which makes Eureka clients expect the Jersey
+     * transport that only the server configures.
+     */
+    @Configuration(proxyBeanMethods = false)
+    static class JerseyEurekaClientConfiguration {
+
+        @Bean
+        public Jersey3TransportClientFactories jersey3TransportClientFactories() {
+            return Jersey3TransportClientFactories.getInstance();
+        }
+
+        @Bean
+        public Jersey3DiscoveryClientOptionalArgs jersey3DiscoveryClientOptionalArgs() {
+            return new Jersey3DiscoveryClientOptionalArgs();
+        }
+    }
+
+    @RestController
+    static class StubController {
+
+        static final long MISSING_ID = 404;
+
+        static final long SLOW_ID = 408;
+
+        static final Duration SLOW_RESPONSE = Duration.ofSeconds(3);
+
+        final AtomicInteger calls = new AtomicInteger();
+
+        final Set<String> protocols = ConcurrentHashMap.newKeySet();
+
+        final Set<String> authorizations = ConcurrentHashMap.newKeySet();
+
+        @GetMapping("/api/v1/user/{id}")
+        public ResponseEntity<UserSummary> findUser(@PathVariable Long id, HttpServletRequest request) {
+            calls.incrementAndGet();
+            protocols.add(request.getProtocol());
+            if (request.getHeader(HttpHeaders.AUTHORIZATION) != null) {
+                authorizations.add(request.getHeader(HttpHeaders.AUTHORIZATION));
+            }
+            if (id == MISSING_ID) {
+                return ResponseEntity.notFound().build();
+            }
+            return ResponseEntity.ok(new UserSummary(id, "user" + id, "First", "Last", "user" + id + "@example.com"));
+        }
+
+        @GetMapping("/api/v1/car/{id}")
+        public ResponseEntity<CarSummary> findCar(@PathVariable Long id) throws InterruptedException {
+            if (id == SLOW_ID) {
+                Thread.sleep(SLOW_RESPONSE.toMillis());
+            }
+            return ResponseEntity.ok(new CarSummary(id, "Skoda", "Octavia", 2020, 45.0, true));
+        }
+    }
+}
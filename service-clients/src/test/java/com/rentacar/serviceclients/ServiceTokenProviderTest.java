@@ -0,0 +1,116 @@
+package com.rentacar.serviceclients;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestClient;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.client.ExpectedCount.never;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.content;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class ServiceTokenProviderTest {
+
+    private MockRestServiceServer server;
+
+    private ServiceClientsProperties.ServiceAccount serviceAccount;
+
+    private ServiceTokenProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        RestClient.Builder builder = RestClient.builder().baseUrl("http://auth/api/v1/auth");
+        server = MockRestServiceServer.bindTo(builder).build();
+        serviceAccount = new ServiceClientsProperties.ServiceAccount();
+        serviceAccount.setUsername("booking-service");
+        serviceAccount.setPassword("secret");
+        provider = new ServiceTokenProvider(serviceAccount, builder.build());
+    }
+
+    private static String token(String name, Duration lifetime) {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        String payload = "{\"sub\":\"" + name + "\",\"exp\":" + Instant.now().plus(lifetime).getEpochSecond() + "}";
+        return encoder.encodeToString("{\"alg\":\"EdDSA\"}".getBytes(StandardCharsets.UTF_8)) + "."
+                + encoder.encodeToString(payload.getBytes(StandardCharsets.UTF_8)) + ".signature";
+    }
+
+    private static String tokenPair(String accessToken, String refreshToken) {
+        return "{\"accessToken\":\"" + accessToken + "\",\"refreshToken\":\"" + refreshToken + "\"}";
+    }
+
+    @Test
+    void getAccessToken_signsInOnce() {
+        String accessToken = token("access", Duration.ofMinutes(15));
+        server.expect(requestTo("http://auth/api/v1/auth/authenticate"))
+                .andExpect(method(HttpMethod.POST))
+                .andExpect(content().json("{\"username\":\"booking-service\",\"password\":\"secret\"}"))
+                .andRespond(withSuccess(tokenPair(accessToken, "refresh"), MediaType.APPLICATION_JSON));
+
+        assertEquals(Optional.of(accessToken), provider.getAccessToken());
+        assertEquals(Optional.of(accessToken), provider.getAccessToken());
+        server.verify();
+    }
+
+    @Test
+    void getAccessToken_renewsExpiringToken() {
+        String refreshToken = token("refresh", Duration.ofDays(7));
+        String renewedToken = token("renewed", Duration.ofMinutes(15));
+        server.expect(requestTo("http://auth/api/v1/auth/authenticate"))
+                .andRespond(withSuccess(tokenPair(token("access", Duration.ofSeconds(10)), refreshToken), MediaType.APPLICATION_JSON));
+        server.expect(requestTo("http://auth/api/v1/auth/refresh"))
+                .andExpect(content().json("{\"refreshToken\":\"" + refreshToken + "\"}"))
+                .andRespond(withSuccess(tokenPair(renewedToken, refreshToken), MediaType.APPLICATION_JSON));
+
+        provider.getAccessToken();
+
+        assertEquals(Optional.of(renewedToken), provider.getAccessToken());
+        server.verify();
+    }
+
+    @Test
+    void getAccessToken_signsInAgainWhenRenewalFails() {
+        String signedInAgain = token("again", Duration.ofMinutes(15));
+        server.expect(requestTo("http://auth/api/v1/auth/authenticate"))
+                .andRespond(withSuccess(tokenPair(token("access", Duration.ofSeconds(10)), "refresh"), MediaType.APPLICATION_JSON));
+        server.expect(requestTo("http://auth/api/v1/auth/refresh"))
+                .andRespond(withStatus(HttpStatus.UNAUTHORIZED));
+        server.expect(requestTo("http://auth/api/v1/auth/authenticate"))
+                .andRespond(withSuccess(tokenPair(signedInAgain, "refresh"), MediaType.APPLICATION_JSON));
+
+        provider.getAccessToken();
+
+        assertEquals(Optional.of(signedInAgain), provider.getAccessToken());
+        server.verify();
+    }
+
+    @Test
+    void getAccessToken_noServiceAccount() {
+        serviceAccount.setUsername(null);
+        server.expect(never(), requestTo("http://auth/api/v1/auth/authenticate"));
+
+        assertTrue(provider.getAccessToken().isEmpty());
+        server.verify();
+    }
+
+    @Test
+    void serviceAccountWithoutPassword() {
+        serviceAccount.setPassword("");
+
+        assertThrows(IllegalStateException.class, () -> new ServiceTokenProvider(serviceAccount, RestClient.create()));
+    }
+}
@@ -0,0 +1,52 @@
+package com.rentacar.userservice.business.repository;
+
+import com.rentacar.userservice.business.repository.model.UserDAO;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Encodes the passwords of the users stored before passwords were encoded.
+ * <p>
+ * discovery-security-service only accepts {@code {id}}-prefixed hashes, so until this runs those users cannot
+ * sign in. A password is only replaced if it is still the unencoded one, so running it again, or on several
+ * instances at once, changes nothing.
+ */
+@Log4j2
+@Component
+public class UserPasswordBackfill {
+
+    private UserRepository userRepository;
+
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    public void setUserRepository(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    @Autowired
+    public void setPasswordEncoder(PasswordEncoder passwordEncoder) {
+        this.passwordEncoder = passwordEncoder;
+    }
+
+    @PostConstruct
+    public void backfill() {
+        List<UserDAO> users = userRepository.findUsersWithUnencodedPassword();
+        if (users.isEmpty()) {
+            log.debug("No user has an unencoded password");
+            return;
+        }
+        int updated = 0;
+        for (UserDAO user : users) {
+            updated += userRepository.updatePassword(user.getId(), user.getPassword(),
+                    passwordEncoder.encode(user.getPassword()), Instant.now());
+        }
+        log.info("Encoded the passwords of {} users", updated);
+    }
+}
@@ -1,9 +1,61 @@
 package com.rentacar.userservice.business.repository;
 
 import com.rentacar.userservice.business.repository.model.UserDAO;
+import com.rentacar.userservice.model.ResourceVersion;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<UserDAO, Long> {
+    @Query("SELECT new com.rentacar.userservice.model.ResourceVersion(u.version, u.updatedAt) " +
+            "FROM UserDAO u WHERE u.id = :id")
+    Optional<ResourceVersion> findVersionById(@Param("id") Long id);
+
+    /**
+     * Overwrites the user in one statement, without loading it first. The version is compared only when
+     * the given user carries one.
+     *
+     * @return number of updated rows, 0 if the user does not exist or its version has changed
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE UserDAO u SET u.username = :#{#user.username}, u.password = :#{#user.password}, " +
+            "u.firstName = :#{#user.firstName}, u.lastName = :#{#user.lastName}, u.email = :#{#user.email}, " +
+            "u.version = u.version + 1, u.updatedAt = :#{#user.updatedAt} " +
+            "WHERE u.id = :#{#user.id} AND (:#{#user.version} IS NULL OR u.version = :#{#user.version})")
+    int updateUser(@Param("user") UserDAO user);
+
+    /**
+     * Deletes the user in one statement, without loading it first.
+     *
+     * @return number of deleted rows, 0 if the user does not exist
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM UserDAO u WHERE u.id = :id")
+    int deleteUserById(@Param("id") Long id);
+
+    /**
+     * @return users whose password has no {@code {id}} prefix, i.e. was stored before passwords were encoded
+     */
+    @Query("SELECT u FROM UserDAO u WHERE u.password NOT LIKE '{%'")
+    List<UserDAO> findUsersWithUnencodedPassword();
+
+    /**
+     * Replaces the password of the user, only if it is still the given one.
+     *
+     * @return number of updated rows, 0 if the user does not exist or its password has changed
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE UserDAO u SET u.password = :encodedPassword, u.version = u.version + 1, u.updatedAt = :updatedAt " +
+            "WHERE u.id = :id AND u.password = :password")
+    int updatePassword(@Param("id") Long id, @Param("password") String password,
+                       @Param("encodedPassword") String encodedPassword, @Param("updatedAt") Instant updatedAt);
 }
@@ -6,13 +6,18 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.Instant;
 
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
 @Builder
-@Table(name = "user")
+@Table(name = "user", indexes = {
+        @Index(name = "idx_user_username", columnList = "username", unique = true)
+})
 public class UserDAO {
 
     @Id
@@ -34,4 +39,12 @@ public class UserDAO {
 
     @Column(name = "email")
     private String email;
+
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private Instant updatedAt;
 }
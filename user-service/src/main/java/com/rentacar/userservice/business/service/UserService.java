@@ -1,5 +1,6 @@
 package com.rentacar.userservice.business.service;
 
+import com.rentacar.userservice.model.ResourceVersion;
 import com.rentacar.userservice.model.User;
 
 import java.util.List;
@@ -10,9 +11,11 @@ public interface UserService {
 
     Optional<User> findUserById(Long id);
 
+    Optional<ResourceVersion> findUserVersionById(Long id);
+
     User updateUser(User user);
 
-    void deleteUserById(Long id);
+    boolean deleteUserById(Long id);
 
     List<User> findAllUsers();
 }
@@ -4,12 +4,17 @@ import com.rentacar.userservice.business.mappers.UserMapStructMapper;
 import com.rentacar.userservice.business.repository.UserRepository;
 import com.rentacar.userservice.business.repository.model.UserDAO;
 import com.rentacar.userservice.business.service.UserService;
+import com.rentacar.userservice.model.ResourceVersion;
 import com.rentacar.userservice.model.User;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -19,6 +24,7 @@ import java.util.stream.Collectors;
 public class UserServiceImpl implements UserService {
     private UserRepository userRepository;
     private UserMapStructMapper userMapStructMapper;
+    private PasswordEncoder passwordEncoder;
 
     @Autowired
     public void setUserRepository(UserRepository userRepository) {
@@ -30,9 +36,15 @@ public class UserServiceImpl implements UserService {
         this.userMapStructMapper = userMapStructMapper;
     }
 
+    @Autowired
+    public void setPasswordEncoder(PasswordEncoder passwordEncoder) {
+        this.passwordEncoder = passwordEncoder;
+    }
+
     @Override
     public User saveUser(User user) {
         UserDAO userDAO = userMapStructMapper.userToUserDAO(user);
+        userDAO.setPassword(passwordEncoder.encode(user.getPassword()));
         UserDAO savedUser = userRepository.save(userDAO);
         log.info("New user is saved: {}", savedUser);
         return userMapStructMapper.userDAOToUser(userDAO);
@@ -47,26 +59,42 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    public Optional<ResourceVersion> findUserVersionById(Long id) {
+        Optional<ResourceVersion> version = userRepository.findVersionById(id);
+        log.debug("User with id {} has version {}", id, version);
+        return version;
+    }
+
+    @Override
+    @Transactional
     public User updateUser(User user) {
         Long id = user.getId();
-
-        Optional<UserDAO> optionalUserDAO = userRepository.findById(id);
-        if (optionalUserDAO.isEmpty()) {
+        UserDAO userDAO = userMapStructMapper.userToUserDAO(user);
+        Long expectedVersion = userDAO.getVersion();
+        userDAO.setPassword(passwordEncoder.encode(user.getPassword()));
+        userDAO.setUpdatedAt(Instant.now());
+        if (userRepository.updateUser(userDAO) == 0) {
+            if (expectedVersion != null && userRepository.existsById(id)) {
+                log.warn("User with id {} is not at version {}", id, expectedVersion);
+                throw new ObjectOptimisticLockingFailureException(UserDAO.class, id);
+            }
             log.error("User with id {} not found", id);
             throw new EntityNotFoundException("User not found for id: " + id);
         }
-        UserDAO existingUserDAO = optionalUserDAO.get();
-        UserDAO updatedUserDAO = userMapStructMapper.userToUserDAO(user);
-        updatedUserDAO.setId(existingUserDAO.getId());
-        UserDAO savedUserDAO = userRepository.save(updatedUserDAO);
-        log.info("User with id {} updated: {}", id, savedUserDAO);
-        return userMapStructMapper.userDAOToUser(savedUserDAO);
+        userDAO.setVersion(expectedVersion == null ? null : expectedVersion + 1);
+        log.info("User with id {} updated: {}", id, userDAO);
+        return userMapStructMapper.userDAOToUser(userDAO);
     }
 
     @Override
-    public void deleteUserById(Long id) {
-        userRepository.deleteById(id);
+    @Transactional
+    public boolean deleteUserById(Long id) {
+        if (userRepository.deleteUserById(id) == 0) {
+            log.warn("User with id {} is not found for deletion", id);
+            return false;
+        }
         log.info("User with id {} is deleted", id);
+        return true;
     }
 
     @Override
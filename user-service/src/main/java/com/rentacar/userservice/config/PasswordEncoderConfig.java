@@ -0,0 +1,19 @@
+package com.rentacar.userservice.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.factory.PasswordEncoderFactories;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+@Configuration
+public class PasswordEncoderConfig {
+
+    /**
+     * Encodes with bcrypt and prefixes the hash with {@code {bcrypt}}, the format discovery-security-service
+     * matches passwords in when it authenticates a user.
+     */
+    @Bean
+    public PasswordEncoder passwordEncoder() {
+        return PasswordEncoderFactories.createDelegatingPasswordEncoder();
+    }
+}
@@ -0,0 +1,10 @@
+package com.rentacar.userservice.model;
+
+import java.time.Instant;
+
+/**
+ * Optimistic-locking version and last update time of a stored resource. Used for ETag and
+ * Last-Modified validation without loading the resource itself.
+ */
+public record ResourceVersion(Long version, Instant updatedAt) {
+}
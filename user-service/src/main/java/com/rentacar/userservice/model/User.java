@@ -1,5 +1,6 @@
 package com.rentacar.userservice.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import io.swagger.annotations.ApiModel;
 import io.swagger.annotations.ApiModelProperty;
 import jakarta.validation.constraints.Email;
@@ -10,6 +11,8 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.Instant;
+
 
 @ApiModel(description = "Model of user data")
 @NoArgsConstructor
@@ -44,4 +47,12 @@ public class User {
     @ApiModelProperty(notes = "Client's email")
     @Email
     private String email;
+
+    @ApiModelProperty(hidden = true)
+    @JsonIgnore
+    private Long version;
+
+    @ApiModelProperty(hidden = true)
+    @JsonIgnore
+    private Instant updatedAt;
 }
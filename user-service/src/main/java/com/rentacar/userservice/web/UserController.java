@@ -1,6 +1,7 @@
 package com.rentacar.userservice.web;
 
 import com.rentacar.userservice.business.service.UserService;
+import com.rentacar.userservice.model.ResourceVersion;
 import com.rentacar.userservice.model.User;
 import com.rentacar.userservice.swagger.DescriptionVariables;
 import com.rentacar.userservice.swagger.HTMLResponseMessages;
@@ -10,10 +11,13 @@ import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiResponses;
 import io.swagger.annotations.ApiResponse;
 import io.swagger.annotations.ApiParam;
+import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.lang.NonNull;
@@ -27,11 +31,18 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.context.request.WebRequest;
 
 
 import java.util.List;
 import java.util.Optional;
 
+import static com.rentacar.serviceclients.ConditionalRequests.checkNotModified;
+import static com.rentacar.serviceclients.ConditionalRequests.isConditional;
+import static com.rentacar.serviceclients.ConditionalRequests.parseIfMatch;
+import static com.rentacar.serviceclients.ConditionalRequests.withVersionHeaders;
+
 @Api(tags = {DescriptionVariables.USER_SERVICE})
 @Log4j2
 @RestController
@@ -52,19 +63,29 @@ public class UserController {
             response = User.class)
     @ApiResponses(value = {
             @ApiResponse(code = 200, message = HTMLResponseMessages.HTTP_200),
+            @ApiResponse(code = 304, message = HTMLResponseMessages.HTTP_304),
             @ApiResponse(code = 400, message = HTMLResponseMessages.HTTP_400),
             @ApiResponse(code = 404, message = HTMLResponseMessages.HTTP_404),
             @ApiResponse(code = 500, message = HTMLResponseMessages.HTTP_500)})
     public ResponseEntity<Optional<User>> findUserById(@ApiParam(value = "id of the user", required = true)
-                                                     @NonNull @PathVariable Long id) {
+                                                     @NonNull @PathVariable Long id,
+                                                     WebRequest webRequest) {
         log.info("Find user by passing ID of the user, where user ID is :{} ", id);
+        if (isConditional(webRequest)) {
+            Optional<ResourceVersion> version = userService.findUserVersionById(id);
+            if (version.isPresent() && checkNotModified(webRequest, version.get().version(),
+                    version.get().updatedAt())) {
+                log.debug("User with id {} is not modified", id);
+                return null;
+            }
+        }
         Optional<User> user = userService.findUserById(id);
         if (!user.isPresent()) {
             log.warn("User with id {} is not found.", id);
             return ResponseEntity.notFound().build();
         } else {
             log.debug("User with id {} is found: {}", id, user);
-            return ResponseEntity.ok(user);
+            return withVersionHeaders(ResponseEntity.ok(), user.get().getVersion(), user.get().getUpdatedAt()).body(user);
         }
     }
     @GetMapping
@@ -113,10 +134,13 @@ public class UserController {
             @ApiResponse(code = 201, message = HTMLResponseMessages.HTTP_201),
             @ApiResponse(code = 400, message = HTMLResponseMessages.HTTP_400),
             @ApiResponse(code = 404, message = HTMLResponseMessages.HTTP_404),
+            @ApiResponse(code = 412, message = HTMLResponseMessages.HTTP_412),
             @ApiResponse(code = 500, message = HTMLResponseMessages.HTTP_500)})
     @ResponseStatus(HttpStatus.ACCEPTED)
     public ResponseEntity<User> updateUserById(@ApiParam(value="id of the user", required = true)
                                              @NotNull @PathVariable Long id,
+                                             @ApiParam(value = "ETag of the user version being updated")
+                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
                                              @Valid @RequestBody User user){
         if (id <= 0) {
             log.warn("Provided user id {} is wrong", id);
@@ -126,10 +150,26 @@ public class UserController {
             log.warn("User for update with id {} is not found", id);
             return ResponseEntity.notFound().build();
         }
+        Optional<Long> expectedVersion = parseIfMatch(ifMatch);
+        if (ifMatch != null && !ifMatch.trim().equals("*") && expectedVersion.isEmpty()) {
+            log.warn("User with id {} can not match ETag {}", id, ifMatch);
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        }
+        user.setVersion(expectedVersion.orElse(null));
         log.info("Update existing user with Id: {} and new body: {}", id, user);
-        userService.updateUser(user);
+        User updatedUser;
+        try {
+            updatedUser = userService.updateUser(user);
+        } catch (EntityNotFoundException e) {
+            log.warn("User for update with id {} is not found", id);
+            return ResponseEntity.notFound().build();
+        } catch (OptimisticLockingFailureException e) {
+            log.warn("User with id {} was modified since version {}", id, ifMatch);
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        }
         log.debug("User with id {} is updated: {}", id, user);
-        return new ResponseEntity<>(user, HttpStatus.CREATED);
+        return withVersionHeaders(ResponseEntity.status(HttpStatus.CREATED), updatedUser.getVersion(),
+                updatedUser.getUpdatedAt()).body(user);
     }
 
     @DeleteMapping("/{id}")
@@ -147,12 +187,10 @@ public class UserController {
             log.warn("Invalid user id: {}", id);
             return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
         }
-        Optional<User> user = userService.findUserById(id);
-        if (!user.isPresent()) {
+        if (!userService.deleteUserById(id)) {
             log.warn("User with id {} is not found", id);
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
-        userService.deleteUserById(id);
         log.info("User with id {} is deleted", id);
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
@@ -0,0 +1,63 @@
+package com.rentacar.userservice.business.repository;
+
+import com.rentacar.userservice.business.repository.model.UserDAO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UserPasswordBackfillTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    private UserPasswordBackfill userPasswordBackfill;
+
+    @BeforeEach
+    public void init() {
+        userPasswordBackfill = new UserPasswordBackfill();
+        userPasswordBackfill.setUserRepository(userRepository);
+        userPasswordBackfill.setPasswordEncoder(passwordEncoder);
+    }
+
+    @Test
+    void backfill_unencodedPasswords() {
+        when(userRepository.findUsersWithUnencodedPassword()).thenReturn(List.of(
+                UserDAO.builder().id(1L).password("John123").build(),
+                UserDAO.builder().id(2L).password("Jane123").build()));
+        when(passwordEncoder.encode("John123")).thenReturn("{bcrypt}john");
+        when(passwordEncoder.encode("Jane123")).thenReturn("{bcrypt}jane");
+
+        userPasswordBackfill.backfill();
+
+        verify(userRepository).updatePassword(eq(1L), eq("John123"), eq("{bcrypt}john"), any());
+        verify(userRepository).updatePassword(eq(2L), eq("Jane123"), eq("{bcrypt}jane"), any());
+    }
+
+    @Test
+    void backfill_nothingToEncode() {
+        when(userRepository.findUsersWithUnencodedPassword()).thenReturn(List.of());
+
+        userPasswordBackfill.backfill();
+
+        verify(userRepository, never()).updatePassword(anyLong(), anyString(), anyString(), any());
+        verifyNoInteractions(passwordEncoder);
+    }
+}
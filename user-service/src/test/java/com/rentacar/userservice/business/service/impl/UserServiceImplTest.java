@@ -4,19 +4,28 @@ package com.rentacar.userservice.business.service.impl;
 import com.rentacar.userservice.business.mappers.UserMapStructMapper;
 import com.rentacar.userservice.business.repository.UserRepository;
 import com.rentacar.userservice.business.repository.model.UserDAO;
+import com.rentacar.userservice.model.ResourceVersion;
 import com.rentacar.userservice.model.User;
+import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.verify;
@@ -35,6 +44,9 @@ class UserServiceImplTest {
     @Mock
     UserMapStructMapper mapper;
 
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
     private UserDAO userDAO;
 
     private User user;
@@ -83,10 +95,12 @@ class UserServiceImplTest {
         when(userRepository.save(userDAO)).thenReturn(userDAO);
         when(mapper.userDAOToUser(userDAO)).thenReturn(user);
         when(mapper.userToUserDAO(user)).thenReturn(userDAO);
+        when(passwordEncoder.encode("John123")).thenReturn("{bcrypt}hash");
 
         User userSaved = userServiceImpl.saveUser(user);
 
         assertEquals(user, userSaved);
+        assertEquals("{bcrypt}hash", userDAO.getPassword());
         verify(userRepository, times(1)).save(userDAO);
     }
 
@@ -110,21 +124,70 @@ class UserServiceImplTest {
 
     @Test
     void updateUser() {
-        when(userRepository.save(any())).thenReturn(userDAO);
+        when(userRepository.updateUser(userDAO)).thenReturn(1);
         when(mapper.userDAOToUser(userDAO)).thenReturn(user);
         when(mapper.userToUserDAO(user)).thenReturn(userDAO);
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(userDAO));
-        Optional<User> userOptional = userServiceImpl.findUserById(user.getId());
+        when(passwordEncoder.encode("John123")).thenReturn("{bcrypt}hash");
         User updatedUser = userServiceImpl.updateUser(user);
         assertEquals(user.getId(), updatedUser.getId());
-        verify(userRepository, times(1)).save(userDAO);
+        assertEquals("{bcrypt}hash", userDAO.getPassword());
+        verify(userRepository, times(1)).updateUser(userDAO);
+        verify(userRepository, times(0)).findById(anyLong());
+        verify(userRepository, times(0)).save(any());
+    }
+
+    @Test
+    void updateUser_incrementsExpectedVersion() {
+        userDAO.setVersion(5L);
+        when(mapper.userToUserDAO(user)).thenReturn(userDAO);
+        when(userRepository.updateUser(userDAO)).thenReturn(1);
+        when(mapper.userDAOToUser(userDAO)).thenReturn(user);
+
+        userServiceImpl.updateUser(user);
+
+        assertEquals(6L, userDAO.getVersion());
+        assertNotNull(userDAO.getUpdatedAt());
+    }
+
+    @Test
+    void updateUser_notFound() {
+        when(mapper.userToUserDAO(user)).thenReturn(userDAO);
+        when(userRepository.updateUser(userDAO)).thenReturn(0);
+
+        assertThrows(EntityNotFoundException.class, () -> userServiceImpl.updateUser(user));
+        verify(userRepository, times(0)).existsById(anyLong());
+    }
+
+    @Test
+    void updateUser_staleVersion() {
+        userDAO.setVersion(5L);
+        when(mapper.userToUserDAO(user)).thenReturn(userDAO);
+        when(userRepository.updateUser(userDAO)).thenReturn(0);
+        when(userRepository.existsById(1L)).thenReturn(true);
+
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> userServiceImpl.updateUser(user));
+    }
+
+    @Test
+    void findUserVersionById() {
+        ResourceVersion version = new ResourceVersion(2L, Instant.parse("2024-03-01T10:15:30Z"));
+        when(userRepository.findVersionById(1L)).thenReturn(Optional.of(version));
+
+        assertEquals(Optional.of(version), userServiceImpl.findUserVersionById(1L));
     }
 
     @Test
     void deleteUserById() {
         Long id = createUser().getId();
-        userServiceImpl.deleteUserById(id);
-        verify(userRepository, times(1)).deleteById(id);
+        when(userRepository.deleteUserById(id)).thenReturn(1);
+        assertTrue(userServiceImpl.deleteUserById(id));
+        verify(userRepository, times(1)).deleteUserById(id);
+    }
+
+    @Test
+    void deleteUserById_notFound() {
+        when(userRepository.deleteUserById(5L)).thenReturn(0);
+        assertFalse(userServiceImpl.deleteUserById(5L));
     }
 
 
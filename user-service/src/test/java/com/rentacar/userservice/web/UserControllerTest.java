@@ -3,19 +3,24 @@ package com.rentacar.userservice.web;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.rentacar.userservice.business.service.UserService;
+import com.rentacar.userservice.model.ResourceVersion;
 import com.rentacar.userservice.model.User;
+import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -24,11 +29,14 @@ import java.util.Optional;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.hasSize;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.times;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -75,6 +83,45 @@ class UserControllerTest {
                 .andExpect(jsonPath("$.firstName", is("John")));
     }
 
+    @Test
+    void findUserById_returnsVersionHeaders() throws Exception {
+        user.setVersion(3L);
+        user.setUpdatedAt(Instant.parse("2024-03-01T10:15:30Z"));
+        when(userService.findUserById(user.getId())).thenReturn(Optional.of(user));
+
+        mockMvc.perform(MockMvcRequestBuilders.get(baseUrl + "/{id}", user.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andExpect(jsonPath("$.version").doesNotExist());
+    }
+
+    @Test
+    void findUserById_notModifiedForMatchingETag() throws Exception {
+        when(userService.findUserVersionById(user.getId()))
+                .thenReturn(Optional.of(new ResourceVersion(3L, Instant.parse("2024-03-01T10:15:30Z"))));
+
+        mockMvc.perform(MockMvcRequestBuilders.get(baseUrl + "/{id}", user.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+                .andExpect(status().isNotModified());
+
+        verify(userService, never()).findUserById(user.getId());
+    }
+
+    @Test
+    void findUserById_returnsBodyForStaleETag() throws Exception {
+        user.setVersion(4L);
+        when(userService.findUserVersionById(user.getId()))
+                .thenReturn(Optional.of(new ResourceVersion(4L, Instant.parse("2024-03-01T10:15:30Z"))));
+        when(userService.findUserById(user.getId())).thenReturn(Optional.of(user));
+
+        mockMvc.perform(MockMvcRequestBuilders.get(baseUrl + "/{id}", user.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""))
+                .andExpect(jsonPath("$.firstName", is("John")));
+    }
+
     @Test
     void findUserById_notFound() throws Exception{
         Long id = 5L;
@@ -161,6 +208,48 @@ class UserControllerTest {
         verify(userService, times(1)).updateUser(updatedUser);
     }
 
+    @Test
+    void updateUserById_matchingIfMatch() throws Exception {
+        User savedUser = userToTest();
+        savedUser.setVersion(4L);
+        when(userService.updateUser(any(User.class))).thenReturn(savedUser);
+
+        mockMvc.perform(put(baseUrl + "/{id}", user.getId())
+                        .header(HttpHeaders.IF_MATCH, "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(user)))
+                .andExpect(status().isCreated())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""));
+
+        User expected = userToTest();
+        expected.setVersion(3L);
+        verify(userService, times(1)).updateUser(expected);
+    }
+
+    @Test
+    void updateUserById_staleIfMatch() throws Exception {
+        when(userService.updateUser(any(User.class)))
+                .thenThrow(new OptimisticLockingFailureException("stale"));
+
+        mockMvc.perform(put(baseUrl + "/{id}", user.getId())
+                        .header(HttpHeaders.IF_MATCH, "\"2\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(user)))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void updateUserById_weakIfMatch() throws Exception {
+
+        mockMvc.perform(put(baseUrl + "/{id}", user.getId())
+                        .header(HttpHeaders.IF_MATCH, "W/\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(user)))
+                .andExpect(status().isPreconditionFailed());
+
+        verify(userService, never()).updateUser(any(User.class));
+    }
+
     @Test
     public void updateUserById_invalidId() throws Exception {
         Long invalidId = 0L;
@@ -182,10 +271,20 @@ class UserControllerTest {
         verify(userService, times(0)).updateUser(user);
     }
 
+    @Test
+    public void updateUserById_missingUser() throws Exception {
+        when(userService.updateUser(any(User.class))).thenThrow(new EntityNotFoundException("User not found for id: 1"));
+        mockMvc.perform(put(baseUrl + "/{id}", user.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(user)))
+                .andExpect(status().isNotFound());
+        verify(userService, never()).findUserById(user.getId());
+    }
+
     @Test
     void deleteUserById_success() throws Exception{
         Long id = user.getId();
-        when(userService.findUserById(id)).thenReturn(Optional.of(user));
+        when(userService.deleteUserById(id)).thenReturn(true);
         mockMvc.perform(delete(baseUrl + "/{id}", id))
                 .andExpect(status().isNoContent());
     }
@@ -193,7 +292,7 @@ class UserControllerTest {
     @Test
     void deleteUserById_notExistingId() throws Exception{
         Long id = user.getId();
-        when(userService.findUserById(id)).thenReturn(Optional.empty());
+        when(userService.deleteUserById(id)).thenReturn(false);
         mockMvc.perform(delete(baseUrl + "/{id}", id))
                 .andExpect(status().isNotFound());
     }